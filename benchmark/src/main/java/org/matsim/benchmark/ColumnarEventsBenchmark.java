@@ -0,0 +1,78 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsReaderColumnar;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriterColumnar;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+/**
+ * Converts the given xml events file to the columnar format and compares the time to replay all events, and only the
+ * link enter events, from both files.
+ * <br/>
+ * Usage: <code>ColumnarEventsBenchmark xmlEventsFile columnarEventsFile [numberOfRuns]</code>
+ */
+public class ColumnarEventsBenchmark {
+
+	public static void main(String[] args) {
+		String xmlFile = args[0];
+		String columnarFile = args[1];
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		EventWriterColumnar writer = new EventWriterColumnar(columnarFile);
+		benchmark("convert to columnar", events -> {
+			events.addHandler(writer);
+			new MatsimEventsReader(events).readFile(xmlFile);
+		});
+		writer.closeFile();
+
+		for (int i = 0; i < runs; i++) {
+			benchmark("xml, all events", events -> new MatsimEventsReader(events).readFile(xmlFile));
+			benchmark("columnar, all events", events -> new EventsReaderColumnar(events).readFile(columnarFile));
+			benchmark("columnar, link enter events", events -> {
+				EventsReaderColumnar reader = new EventsReaderColumnar(events);
+				reader.setEventTypes(Set.of(LinkEnterEvent.EVENT_TYPE));
+				reader.readFile(columnarFile);
+			});
+		}
+	}
+
+	private static void benchmark(String name, Consumer<EventsManager> reader) {
+		AtomicLong eventCount = new AtomicLong();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) event -> eventCount.incrementAndGet());
+		events.initProcessing();
+
+		long start = System.nanoTime();
+		reader.accept(events);
+		events.finishProcessing();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%s\t%d events\t%.2f s%n", name, eventCount.get(), seconds);
+	}
+
+}
@@ -0,0 +1,193 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * Compares the time to pass core events and custom events, as defined in the contribs, to their handlers through
+ * the events manager.  Four event types of each kind are mixed, so the dispatch cannot be optimized for a single
+ * type by the JIT, like in a real simulation with many different handlers.
+ * <br/>
+ * Usage: <code>EventDispatchBenchmark [numberOfEvents] [numberOfRuns]</code>
+ */
+public class EventDispatchBenchmark {
+
+	public static void main(String[] args) {
+		int numberOfEvents = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		Event[] coreEvents = {
+				new LinkEnterEvent(0, Id.createVehicleId("v"), Id.createLinkId("l")),
+				new LinkLeaveEvent(0, Id.createVehicleId("v"), Id.createLinkId("l")),
+				new PersonDepartureEvent(0, Id.createPersonId("p"), Id.createLinkId("l"), "car", "car"),
+				new PersonArrivalEvent(0, Id.createPersonId("p"), Id.createLinkId("l"), "car")
+		};
+		Event[] customEvents = {new CustomEventA(0), new CustomEventB(0), new CustomEventC(0), new CustomEventD(0)};
+
+		CoreEventsCounter coreEventsCounter = new CoreEventsCounter();
+		CustomEventsCounter customEventsCounter = new CustomEventsCounter();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler(coreEventsCounter);
+		events.addHandler(customEventsCounter);
+		events.initProcessing();
+
+		for (int i = 0; i < runs; i++) {
+			benchmark("core events", numberOfEvents, events, coreEvents);
+			benchmark("custom events", numberOfEvents, events, customEvents);
+		}
+		events.finishProcessing();
+
+		if (coreEventsCounter.counter != customEventsCounter.counter) {
+			throw new IllegalStateException("handled " + coreEventsCounter.counter + " core events, but " + customEventsCounter.counter + " custom events");
+		}
+	}
+
+	private static void benchmark(String name, int numberOfEvents, EventsManager events, Event[] eventTypes) {
+		long start = System.nanoTime();
+		for (int j = 0; j < numberOfEvents; j++) {
+			events.processEvent(eventTypes[j & 3]);
+		}
+		double nanos = System.nanoTime() - start;
+		System.out.printf("%s\t%d events\t%.1f ns/event%n", name, numberOfEvents, nanos / numberOfEvents);
+	}
+
+	public static class CustomEventA extends Event {
+		public CustomEventA(double time) {
+			super(time);
+		}
+
+		@Override
+		public String getEventType() {
+			return "customA";
+		}
+	}
+
+	public static class CustomEventB extends Event {
+		public CustomEventB(double time) {
+			super(time);
+		}
+
+		@Override
+		public String getEventType() {
+			return "customB";
+		}
+	}
+
+	public static class CustomEventC extends Event {
+		public CustomEventC(double time) {
+			super(time);
+		}
+
+		@Override
+		public String getEventType() {
+			return "customC";
+		}
+	}
+
+	public static class CustomEventD extends Event {
+		public CustomEventD(double time) {
+			super(time);
+		}
+
+		@Override
+		public String getEventType() {
+			return "customD";
+		}
+	}
+
+	public interface CustomEventAHandler extends EventHandler {
+		void handleEvent(CustomEventA event);
+	}
+
+	public interface CustomEventBHandler extends EventHandler {
+		void handleEvent(CustomEventB event);
+	}
+
+	public interface CustomEventCHandler extends EventHandler {
+		void handleEvent(CustomEventC event);
+	}
+
+	public interface CustomEventDHandler extends EventHandler {
+		void handleEvent(CustomEventD event);
+	}
+
+	private static class CoreEventsCounter implements LinkEnterEventHandler, LinkLeaveEventHandler, PersonDepartureEventHandler, PersonArrivalEventHandler {
+
+		private long counter = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(PersonDepartureEvent event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(PersonArrivalEvent event) {
+			this.counter++;
+		}
+	}
+
+	private static class CustomEventsCounter implements CustomEventAHandler, CustomEventBHandler, CustomEventCHandler, CustomEventDHandler {
+
+		private long counter = 0;
+
+		@Override
+		public void handleEvent(CustomEventA event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(CustomEventB event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(CustomEventC event) {
+			this.counter++;
+		}
+
+		@Override
+		public void handleEvent(CustomEventD event) {
+			this.counter++;
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.ParallelEventsManager;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+/**
+ * Compares the event throughput of the multi-threaded QSim with and without buffering the events per netsim thread, on
+ * the berlin test scenario with capacities scaled down to 10%, which makes it congested.
+ * <br/>
+ * Usage: <code>NetsimEventsBufferingBenchmark [numberOfThreads] [numberOfRuns]</code>
+ */
+public class NetsimEventsBufferingBenchmark {
+
+	private static final int WARMUP_RUNS = 1;
+
+	public static void main(String[] args) {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+		// the default events manager, i.e. SimStepParallelEventsManagerImpl:
+		benchmark("default", () -> EventsUtils.createEventsManager(ConfigUtils.createConfig()), threads, runs);
+		benchmark("ParallelEventsManager", () -> new ParallelEventsManager(true), threads, runs);
+	}
+
+	private static void benchmark(String name, Supplier<EventsManager> eventsManagerFactory, int threads, int runs) {
+		for (boolean buffering : new boolean[]{false, true}) {
+			for (int i = 0; i < WARMUP_RUNS; i++) {
+				runQSim(eventsManagerFactory.get(), threads, buffering, new AtomicLong());
+			}
+			double[] eventsPerSecond = new double[runs];
+			for (int i = 0; i < runs; i++) {
+				AtomicLong eventCount = new AtomicLong();
+				long nanos = runQSim(eventsManagerFactory.get(), threads, buffering, eventCount);
+				eventsPerSecond[i] = eventCount.get() / (nanos / 1e9);
+			}
+			Arrays.sort(eventsPerSecond);
+			System.out.printf("%s\tthreads %d\tbuffering %b\tmedian %.0f events/s\tmin %.0f\tmax %.0f%n", name, threads,
+					buffering, eventsPerSecond[runs / 2], eventsPerSecond[0], eventsPerSecond[runs - 1]);
+		}
+	}
+
+	/**
+	 * @return the wall clock time of the mobsim in nanoseconds
+	 */
+	private static long runQSim(EventsManager events, int threads, boolean buffering, AtomicLong eventCount) {
+		URL context = ExamplesUtils.getTestScenarioURL("berlin");
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(context, "config.xml"));
+		config.qsim().setFlowCapFactor(0.1);
+		config.qsim().setStorageCapFactor(0.1);
+		config.qsim().setNumberOfThreads(threads);
+		config.qsim().setBufferingNetsimEvents(buffering);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		events.addHandler((BasicEventHandler) event -> eventCount.incrementAndGet());
+
+		long start = System.nanoTime();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+		return System.nanoTime() - start;
+	}
+
+}
@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.ParallelEventsReaderXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+/**
+ * Compares the throughput of the serial and the parallel xml events reader on the given events file.
+ * <br/>
+ * Usage: <code>ParallelEventsReaderBenchmark eventsFile [numberOfThreads] [numberOfRuns]</code>
+ */
+public class ParallelEventsReaderBenchmark {
+
+	public static void main(String[] args) {
+		String filename = args[0];
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		for (int i = 0; i < runs; i++) {
+			benchmark("serial", filename, events -> new MatsimEventsReader(events).readFile(filename));
+			benchmark("parallel, " + threads + " threads", filename, events -> new ParallelEventsReaderXML(events, threads).readFile(filename));
+		}
+	}
+
+	private static void benchmark(String name, String filename, Consumer<EventsManager> reader) {
+		AtomicLong eventCount = new AtomicLong();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) event -> eventCount.incrementAndGet());
+		events.initProcessing();
+
+		long start = System.nanoTime();
+		reader.accept(events);
+		events.finishProcessing();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%s\t%d events\t%.1f s\t%.0f events/s%n", name, eventCount.get(), seconds, eventCount.get() / seconds);
+	}
+
+}
@@ -0,0 +1,156 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyCHFactory;
+import org.matsim.core.router.speedy.SpeedyDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.utils.geometry.CoordUtils;
+
+/**
+ * Compares the query times of SpeedyCH, SpeedyALT and SpeedyDijkstra for long-distance queries, i.e. between nodes
+ * that are further apart than half of the diagonal of the network's bounding box. Also reports the time to prepare each
+ * router, and checks that all routers find paths with the same costs.
+ * <br/>
+ * Without a network file, a grid network with random speeds and some one-way streets is generated.
+ * <br/>
+ * Usage: <code>SpeedyCHBenchmark [networkFile|gridSize] [numberOfQueries] [numberOfRuns]</code>
+ */
+public class SpeedyCHBenchmark {
+
+	public static void main(String[] args) {
+		String input = args.length > 0 ? args[0] : "300";
+		int numberOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		Network network;
+		if (input.matches("\\d+")) {
+			network = createGrid(Integer.parseInt(input), new Random(2023));
+		} else {
+			network = NetworkUtils.createNetwork();
+			new MatsimNetworkReader(network).readFile(input);
+		}
+		System.out.printf("network with %d nodes and %d links%n", network.getNodes().size(), network.getLinks().size());
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		List<Node[]> queries = createQueries(network, numberOfQueries, new Random(4711));
+
+		String[] names = {"SpeedyCH", "SpeedyALT", "SpeedyDijkstra"};
+		LeastCostPathCalculatorFactory[] factories = {new SpeedyCHFactory(), new SpeedyALTFactory(true), new SpeedyDijkstraFactory()};
+		LeastCostPathCalculator[] routers = new LeastCostPathCalculator[factories.length];
+		for (int r = 0; r < factories.length; r++) {
+			// includes the contraction and the customization of the first time slice, or the landmarks
+			long start = System.nanoTime();
+			routers[r] = factories[r].createPathCalculator(network, tc, tc);
+			routers[r].calcLeastCostPath(queries.get(0)[0], queries.get(0)[1], 8 * 3600, null, null);
+			System.out.printf("%s\tpreparation %.0f ms%n", names[r], (System.nanoTime() - start) / 1e6);
+		}
+		// a further instance reuses the shared customization, as every replanning thread does
+		long start = System.nanoTime();
+		factories[0].createPathCalculator(network, tc, tc).calcLeastCostPath(queries.get(0)[0], queries.get(0)[1], 8 * 3600, null, null);
+		System.out.printf("%s\tfurther instance %.0f ms%n", names[0], (System.nanoTime() - start) / 1e6);
+
+		for (int run = 0; run < runs; run++) {
+			double[][] costs = new double[routers.length][queries.size()];
+			for (int r = 0; r < routers.length; r++) {
+				start = System.nanoTime();
+				for (int q = 0; q < queries.size(); q++) {
+					Path path = routers[r].calcLeastCostPath(queries.get(q)[0], queries.get(q)[1], 8 * 3600, null, null);
+					costs[r][q] = path == null ? Double.NaN : path.travelCost;
+				}
+				double micros = (System.nanoTime() - start) / 1e3 / queries.size();
+				System.out.printf("%s\t%d queries\t%.1f us/query%n", names[r], queries.size(), micros);
+			}
+			for (int r = 1; r < routers.length; r++) {
+				for (int q = 0; q < queries.size(); q++) {
+					if (Math.abs(costs[0][q] - costs[r][q]) > 1e-6) {
+						throw new IllegalStateException(names[0] + " and " + names[r] + " found paths with different costs for query " + q);
+					}
+				}
+			}
+		}
+	}
+
+	private static List<Node[]> createQueries(Network network, int numberOfQueries, Random random) {
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		double[] bbox = NetworkUtils.getBoundingBox(nodes);
+		double minDistance = CoordUtils.calcEuclideanDistance(new Coord(bbox[0], bbox[1]), new Coord(bbox[2], bbox[3])) / 2;
+		List<Node[]> queries = new ArrayList<>(numberOfQueries);
+		while (queries.size() < numberOfQueries) {
+			Node from = nodes.get(random.nextInt(nodes.size()));
+			Node to = nodes.get(random.nextInt(nodes.size()));
+			if (CoordUtils.calcEuclideanDistance(from.getCoord(), to.getCoord()) > minDistance) {
+				queries.add(new Node[] {from, to});
+			}
+		}
+		return queries;
+	}
+
+	private static Network createGrid(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = network.getFactory().createNode(Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size && random.nextDouble() < 0.8) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					if (random.nextBoolean()) {
+						addLink(network, nodes[x][y + 1], nodes[x][y], random);
+					}
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "_" + to.getId()), from, to);
+		link.setLength(100 + random.nextInt(100));
+		link.setFreespeed(5 + random.nextInt(20));
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+}
@@ -0,0 +1,82 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.benchmark;
+
+import java.net.URL;
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.FifoVehicleQueue;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+/**
+ * Compares the run times of the QSim with the different implementations of the FIFO vehicle queue on the equil and the
+ * berlin test scenarios.  Only the mobsim is timed; the events are not handled by anyone.
+ * <br/>
+ * Usage: <code>VehicleQueueBenchmark [numberOfRuns]</code>
+ */
+public class VehicleQueueBenchmark {
+
+	private static final String[] SCENARIOS = {"equil", "berlin"};
+	private static final int WARMUP_RUNS = 2;
+
+	public static void main(String[] args) {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+		for (String scenarioName : SCENARIOS) {
+			for (FifoVehicleQueue fifoVehicleQueue : FifoVehicleQueue.values()) {
+				for (int i = 0; i < WARMUP_RUNS; i++) {
+					runQSim(scenarioName, fifoVehicleQueue);
+				}
+				long[] times = new long[runs];
+				for (int i = 0; i < runs; i++) {
+					times[i] = runQSim(scenarioName, fifoVehicleQueue);
+				}
+				Arrays.sort(times);
+				System.out.printf("%s\t%s\tmedian %d ms\tmin %d ms\tmax %d ms%n", scenarioName, fifoVehicleQueue,
+						times[runs / 2] / 1_000_000, times[0] / 1_000_000, times[runs - 1] / 1_000_000);
+			}
+		}
+	}
+
+	/**
+	 * @return the wall clock time of the mobsim in nanoseconds
+	 */
+	private static long runQSim(String scenarioName, FifoVehicleQueue fifoVehicleQueue) {
+		URL context = ExamplesUtils.getTestScenarioURL(scenarioName);
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(context, "config.xml"));
+		config.qsim().setFifoVehicleQueue(fifoVehicleQueue);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		long start = System.nanoTime();
+		new QSimBuilder(config).useDefaults().build(scenario, EventsUtils.createEventsManager()).run();
+		return System.nanoTime() - start;
+	}
+
+}
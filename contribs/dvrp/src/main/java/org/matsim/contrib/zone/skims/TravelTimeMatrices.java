@@ -35,19 +35,20 @@ public final class TravelTimeMatrices {
 
 	public static Matrix calculateTravelTimeMatrix(RoutingParams params, Map<Zone, Node> centralNodes, double departureTime) {
 		Matrix travelTimeMatrix = new Matrix(centralNodes.keySet());
-		Calculation<Zone> calculation = (lcpTree, z) -> computeForDepartureZone(z, centralNodes, departureTime, travelTimeMatrix, lcpTree);
+		Calculation<Zone> calculation = (graph, lcpTree, z) -> computeForDepartureZone(z, centralNodes, departureTime, travelTimeMatrix, graph,
+				lcpTree);
 		calculate(params, centralNodes.keySet(), calculation, "DVRP free-speed TT matrix: zone ");
 		return travelTimeMatrix;
 	}
 
 	private static void computeForDepartureZone(Zone fromZone, Map<Zone, Node> centralNodes, double departureTime, Matrix travelTimeMatrix,
-			LeastCostPathTree lcpTree) {
+			SpeedyGraph graph, LeastCostPathTree lcpTree) {
 		Node fromNode = centralNodes.get(fromZone);
-		lcpTree.calculate(fromNode.getId().index(), departureTime, null, null);
+		lcpTree.calculate(graph.getNodeIndex(fromNode), departureTime, null, null);
 
 		for (Zone toZone : centralNodes.keySet()) {
 			Node toNode = centralNodes.get(toZone);
-			int nodeIndex = toNode.getId().index();
+			int nodeIndex = graph.getNodeIndex(toNode);
 			OptionalTime currOptionalTime = lcpTree.getTime(nodeIndex);
 			double currTime = currOptionalTime.orElseThrow(() -> new RuntimeException(
 					"Undefined Time. Reason could be that the dvrp network is not fully connected. Please check and/or clean."));
@@ -60,21 +61,21 @@ public final class TravelTimeMatrices {
 		SparseMatrix travelTimeMatrix = new SparseMatrix();
 		var nodes = params.routingNetwork.getNodes().values();
 		var counter = "DVRP free-speed TT sparse matrix: node ";
-		Calculation<Node> calculation = (lcpTree, n) -> computeForDepartureNode(n, nodes, departureTime, travelTimeMatrix, lcpTree, maxDistance,
-				maxTravelTime);
+		Calculation<Node> calculation = (graph, lcpTree, n) -> computeForDepartureNode(n, nodes, departureTime, travelTimeMatrix, graph, lcpTree,
+				maxDistance, maxTravelTime);
 		calculate(params, nodes, calculation, counter);
 		return travelTimeMatrix;
 	}
 
 	private static void computeForDepartureNode(Node fromNode, Collection<? extends Node> nodes, double departureTime, SparseMatrix sparseMatrix,
-			LeastCostPathTree lcpTree, double maxDistance, double maxTravelTime) {
-		lcpTree.calculate(fromNode.getId().index(), departureTime, null, null,
+			SpeedyGraph graph, LeastCostPathTree lcpTree, double maxDistance, double maxTravelTime) {
+		lcpTree.calculate(graph.getNodeIndex(fromNode), departureTime, null, null,
 				(nodeIndex, arrivalTime, travelCost, distance, departTime) -> distance >= maxDistance && arrivalTime >= departTime + maxTravelTime);
 
 		List<NodeAndTime> neighborNodes = new ArrayList<>();
 		for (Node toNode : nodes) {
 			int toNodeIndex = toNode.getId().index();
-			OptionalTime currOptionalTime = lcpTree.getTime(toNodeIndex);
+			OptionalTime currOptionalTime = lcpTree.getTime(graph.getNodeIndex(toNode));
 			if (currOptionalTime.isUndefined()) {
 				continue;
 			}
@@ -89,19 +90,21 @@ public final class TravelTimeMatrices {
 	}
 
 	private interface Calculation<E> {
-		void calculate(LeastCostPathTree lcpTree, E element);
+		void calculate(SpeedyGraph graph, LeastCostPathTree lcpTree, E element);
 	}
 
 	private static <E> void calculate(RoutingParams params, Collection<? extends E> elements, Calculation<E> calculation, String counterPrefix) {
+		// the graph is thread-safe and only sized to the routing network, so all trees can share it
+		var graph = new SpeedyGraph(params.routingNetwork, true);
 		var trees = IntStream.range(0, params.numberOfThreads)
-				.mapToObj(i -> new LeastCostPathTree(new SpeedyGraph(params.routingNetwork), params.travelTime, params.travelDisutility))
+				.mapToObj(i -> new LeastCostPathTree(graph, params.travelTime, params.travelDisutility))
 				.toList();
 		var executorService = new ExecutorServiceWithResource<>(trees);
 		var counter = new Counter(counterPrefix, " / " + elements.size());
 
 		executorService.submitRunnablesAndWait(elements.stream().map(e -> (lcpTree -> {
 			counter.incCounter();
-			calculation.calculate(lcpTree, e);
+			calculation.calculate(graph, lcpTree, e);
 		})));
 
 		counter.printCounter();
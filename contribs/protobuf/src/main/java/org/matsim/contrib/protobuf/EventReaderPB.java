@@ -0,0 +1,349 @@
+package org.matsim.contrib.protobuf;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.*;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.internal.MatsimReader;
+import org.matsim.core.events.EventsReaderXMLv1;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.pb.*;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.vehicles.Vehicle;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event reader for files written by {@link EventWriterPB}. The file is streamed batch by batch, so it never needs to
+ * be held in memory as a whole.
+ * <p>
+ * Events with their own protobuf message are converted directly, all others are written as generic events and mapped
+ * to their core event types the same way as the xml reader does it, including the registered custom event mappers.
+ * Ids are created via {@link Id#create(String, Class)}, and since version 2 of the format each id is only looked up
+ * once per file using the index it was written with. Since version 3 the id strings are only contained in the
+ * {@link IdTable}s of each batch, and the events reference them by index.
+ */
+public class EventReaderPB implements MatsimReader {
+
+    private final EventsManager events;
+
+    /**
+     * Handles the generic events, which are converted to the same attributes as in an xml file.
+     */
+    private final EventsReaderXMLv1 genericReader;
+
+    private Set<String> eventTypes = null;
+
+    private final IdCache<Link> linkIds = new IdCache<>(Link.class);
+    private final IdCache<Person> personIds = new IdCache<>(Person.class);
+    private final IdCache<Vehicle> vehicleIds = new IdCache<>(Vehicle.class);
+    private final IdCache<ActivityFacility> facilityIds = new IdCache<>(ActivityFacility.class);
+    private final IdCache<TransitLine> transitLineIds = new IdCache<>(TransitLine.class);
+    private final IdCache<TransitRoute> transitRouteIds = new IdCache<>(TransitRoute.class);
+    private final IdCache<Departure> departureIds = new IdCache<>(Departure.class);
+
+    public EventReaderPB(EventsManager events) {
+        this.events = events;
+        this.genericReader = new EventsReaderXMLv1(events);
+    }
+
+    /**
+     * Used by {@link MatsimEventsReader}, which passes its custom event mappers.
+     */
+    public EventReaderPB(EventsManager events, Map<String, MatsimEventsReader.CustomEventMapper> customEventMappers) {
+        this(events);
+        customEventMappers.forEach(this::addCustomEventMapper);
+    }
+
+    public void addCustomEventMapper(String eventType, MatsimEventsReader.CustomEventMapper mapper) {
+        this.genericReader.addCustomEventMapper(eventType, mapper);
+    }
+
+    /**
+     * Only events of the given types are passed to the events manager, or all events if the types are null. Generic
+     * events of other types are skipped before their attributes are converted.
+     */
+    public void setEventTypes(Set<String> eventTypes) {
+        this.eventTypes = eventTypes;
+        this.genericReader.setEventTypes(eventTypes);
+    }
+
+    /**
+     * Only the given attributes are copied into generic events, see {@link EventsReaderXMLv1#setAttributeNames(Set)}.
+     */
+    public void setAttributeNames(Set<String> attributeNames) {
+        this.genericReader.setAttributeNames(attributeNames);
+    }
+
+    @Override
+    public void readFile(String filename) {
+        readURL(IOUtils.getFileUrl(filename));
+    }
+
+    @Override
+    public void readURL(URL url) {
+        try (InputStream in = IOUtils.getInputStream(url)) {
+            parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads all events from the stream, which is not closed afterwards.
+     */
+    public void parse(InputStream in) {
+        try {
+            PBFileHeader header = PBFileHeader.parseDelimitedFrom(in);
+            if (header == null) {
+                throw new IllegalArgumentException("The stream is empty, it does not contain a protobuf header.");
+            }
+            if (header.getContentType() != ContentType.EVENTS) {
+                throw new IllegalArgumentException("The stream does not contain events, but " + header.getContentType());
+            }
+            if (header.getVersion() > PBVersion.EVENTS) {
+                throw new IllegalArgumentException("Events version " + header.getVersion() + " is newer than the supported version " + PBVersion.EVENTS);
+            }
+
+            // files of version 1 did not write the index, so all ids have index 0 there
+            boolean useIndex = header.getVersion() >= 2;
+            boolean useTables = header.getVersion() >= 3;
+            for (IdCache<?> cache : Arrays.asList(linkIds, personIds, vehicleIds, facilityIds, transitLineIds, transitRouteIds, departureIds)) {
+                cache.reset(useIndex, useTables);
+            }
+
+            ProtoEvents.EventBatch batch;
+            while ((batch = ProtoEvents.EventBatch.parseDelimitedFrom(in)) != null) {
+                for (IdTable table : batch.getIdsList()) {
+                    getCache(table.getType()).addAll(table);
+                }
+                for (ProtoEvents.Event event : batch.getEventsList()) {
+                    Event converted = convertEvent(event);
+                    if (converted != null && (this.eventTypes == null || this.eventTypes.contains(converted.getEventType()))) {
+                        this.events.processEvent(converted);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts the protobuf event to its MATSim equivalent.
+     *
+     * @return null for generic events, which are passed to the events manager directly
+     */
+    private Event convertEvent(ProtoEvents.Event event) {
+
+        double time = event.getTime();
+        Coord coord = event.hasCoords() ? new Coord(event.getCoords().getX(), event.getCoords().getY()) : null;
+
+        switch (event.getTypeCase()) {
+            case ACTIVITYEND: {
+                ProtoEvents.ActivityEndEvent e = event.getActivityEnd();
+                return new ActivityEndEvent(time, personIds.get(e.getPersonId()), linkIds.get(e.getLinkId()),
+                        facilityIds.get(e.getFacilityId()), e.getActtype(), coord);
+            }
+            case ACTIVITYSTART: {
+                ProtoEvents.ActivityStartEvent e = event.getActivityStart();
+                return new ActivityStartEvent(time, personIds.get(e.getPersonId()), linkIds.get(e.getLinkId()),
+                        facilityIds.get(e.getFacilityId()), e.getActtype(), coord);
+            }
+            case LINKENTER: {
+                ProtoEvents.LinkEnterEvent e = event.getLinkEnter();
+                return new LinkEnterEvent(time, vehicleIds.get(e.getVehicleId()), linkIds.get(e.getLinkId()));
+            }
+            case LINKLEAVE: {
+                ProtoEvents.LinkLeaveEvent e = event.getLinkLeave();
+                return new LinkLeaveEvent(time, vehicleIds.get(e.getVehicleId()), linkIds.get(e.getLinkId()));
+            }
+            case PERSONALARRIVAL: {
+                ProtoEvents.PersonArrivalEvent e = event.getPersonalArrival();
+                return new PersonArrivalEvent(time, personIds.get(e.getPersonId()), linkIds.get(e.getLinkId()), e.getLegMode());
+            }
+            case PERSONDEPARTURE: {
+                ProtoEvents.PersonDepartureEvent e = event.getPersonDeparture();
+                return new PersonDepartureEvent(time, personIds.get(e.getPersonId()), linkIds.get(e.getLinkId()), e.getLegMode(),
+                        convertString(e.getRoutingMode()));
+            }
+            case PERSONENTERSVEHICLE: {
+                ProtoEvents.PersonEntersVehicleEvent e = event.getPersonEntersVehicle();
+                return new PersonEntersVehicleEvent(time, personIds.get(e.getPersonId()), vehicleIds.get(e.getVehicleId()));
+            }
+            case PERSONLEAVESVEHICLE: {
+                ProtoEvents.PersonLeavesVehicleEvent e = event.getPersonLeavesVehicle();
+                return new PersonLeavesVehicleEvent(time, personIds.get(e.getPersonId()), vehicleIds.get(e.getVehicleId()));
+            }
+            case PERSONMONEY: {
+                ProtoEvents.PersonMoneyEvent e = event.getPersonMoney();
+                return new PersonMoneyEvent(time, personIds.get(e.getPersonId()), e.getAmount(), convertString(e.getPurpose()),
+                        convertString(e.getTransactionPartner()), convertString(e.getReference()));
+            }
+            case PERSONSTUCK: {
+                ProtoEvents.PersonStuckEvent e = event.getPersonStuck();
+                return new PersonStuckEvent(time, personIds.get(e.getPersonId()), linkIds.get(e.getLinkId()), convertString(e.getLegMode()));
+            }
+            case TRANSITDRIVERSTARTS: {
+                ProtoEvents.TransitDriverStartsEvent e = event.getTransitDriverStarts();
+                return new TransitDriverStartsEvent(time, personIds.get(e.getDriverId()), vehicleIds.get(e.getVehicleId()),
+                        transitLineIds.get(e.getTransitLineId()), transitRouteIds.get(e.getTransitRouteId()),
+                        departureIds.get(e.getDepartureId()));
+            }
+            case VEHICLEABORTS: {
+                ProtoEvents.VehicleAbortsEvent e = event.getVehicleAborts();
+                return new VehicleAbortsEvent(time, vehicleIds.get(e.getVehicleId()), linkIds.get(e.getLinkId()));
+            }
+            case VEHICLEENTERSTRAFFIC: {
+                ProtoEvents.VehicleEntersTrafficEvent e = event.getVehicleEntersTraffic();
+                return new VehicleEntersTrafficEvent(time, personIds.get(e.getDriverId()), linkIds.get(e.getLinkId()),
+                        vehicleIds.get(e.getVehicleId()), e.getNetworkMode(), e.getRelativePositionOnLink());
+            }
+            case VEHICLELEAVESTRAFFIC: {
+                ProtoEvents.VehicleLeavesTrafficEvent e = event.getVehicleLeavesTraffic();
+                return new VehicleLeavesTrafficEvent(time, personIds.get(e.getDriverId()), linkIds.get(e.getLinkId()),
+                        vehicleIds.get(e.getVehicleId()), e.getNetworkMode(), e.getRelativePositionOnLink());
+            }
+            case GENERIC: {
+                ProtoEvents.GenericEvent e = event.getGeneric();
+                AttributesImpl atts = new AttributesImpl();
+                addAttribute(atts, Event.ATTRIBUTE_TIME, Double.toString(time));
+                addAttribute(atts, Event.ATTRIBUTE_TYPE, e.getType());
+                if (coord != null) {
+                    addAttribute(atts, Event.ATTRIBUTE_X, Double.toString(coord.getX()));
+                    addAttribute(atts, Event.ATTRIBUTE_Y, Double.toString(coord.getY()));
+                }
+                e.getAttrsMap().forEach((key, value) -> addAttribute(atts, key, value));
+
+                this.genericReader.startTag(EventsReaderXMLv1.EVENT, atts, null);
+                return null;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + event.getTypeCase());
+        }
+    }
+
+    private IdCache<?> getCache(IdType type) {
+        switch (type) {
+            case ID_LINK:
+                return linkIds;
+            case ID_PERSON:
+                return personIds;
+            case ID_VEHICLE:
+                return vehicleIds;
+            case ID_ACTIVITY_FACILITY:
+                return facilityIds;
+            case ID_TRANSIT_LINE:
+                return transitLineIds;
+            case ID_TRANSIT_ROUTE:
+                return transitRouteIds;
+            case ID_DEPARTURE:
+                return departureIds;
+            default:
+                throw new IllegalArgumentException("Unknown id type: " + type);
+        }
+    }
+
+    private static void addAttribute(AttributesImpl atts, String key, String value) {
+        atts.addAttribute("", key, key, "CDATA", value);
+    }
+
+    /**
+     * Optional strings are written as empty string by {@link EventWriterPB}.
+     */
+    private static String convertString(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Creates the ids of one type. Null ids are written as the default instance, so empty ids are read as null. Since
+     * version 3, null ids are recognized by their missing type instead, and all other ids are taken from the tables.
+     */
+    private static final class IdCache<T> {
+
+        private final Class<T> type;
+
+        private boolean useIndex;
+
+        private boolean useTables;
+
+        private Id<T>[] ids;
+
+        @SuppressWarnings("unchecked")
+        IdCache(Class<T> type) {
+            this.type = type;
+            this.ids = new Id[0];
+        }
+
+        /**
+         * The indices are only valid within one file.
+         */
+        @SuppressWarnings("unchecked")
+        void reset(boolean useIndex, boolean useTables) {
+            this.useIndex = useIndex;
+            this.useTables = useTables;
+            this.ids = new Id[0];
+        }
+
+        void addAll(IdTable table) {
+            if (table.getIndexCount() != table.getIdCount()) {
+                throw new IllegalArgumentException("Id table of type " + table.getType() + " has " + table.getIndexCount()
+                        + " indices, but " + table.getIdCount() + " ids.");
+            }
+            for (int i = 0; i < table.getIndexCount(); i++) {
+                int index = table.getIndex(i);
+                ensureCapacity(index);
+                this.ids[index] = Id.create(table.getId(i), this.type);
+            }
+        }
+
+        private void ensureCapacity(int index) {
+            if (index >= this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, Math.max(index + 1, this.ids.length * 2));
+            }
+        }
+
+        Id<T> get(ProtoId id) {
+            if (this.useTables) {
+                if (id.getType() == IdType.ID_UNKNOWN) {
+                    return null;
+                }
+                int index = id.getIndex();
+                Id<T> result = index < this.ids.length ? this.ids[index] : null;
+                if (result == null) {
+                    throw new IllegalArgumentException("Id of type " + id.getType() + " with index " + index + " is not contained in any previous id table.");
+                }
+                return result;
+            }
+            if (id.getId().isEmpty()) {
+                return null;
+            }
+            if (!this.useIndex) {
+                return Id.create(id.getId(), this.type);
+            }
+
+            int index = id.getIndex();
+            ensureCapacity(index);
+            Id<T> result = this.ids[index];
+            if (result == null) {
+                result = Id.create(id.getId(), this.type);
+                this.ids[index] = result;
+            }
+            return result;
+        }
+    }
+
+}
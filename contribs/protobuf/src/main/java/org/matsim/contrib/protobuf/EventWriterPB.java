@@ -10,10 +10,17 @@ import org.matsim.core.utils.pb.*;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Event writer for protobuf format according to {@link org.matsim.core.utils.pb.Wireformat}
+ * <p>
+ * Ids are dictionary encoded: every id string is written once per file in an {@link IdTable} of its type, the events
+ * only reference it by its {@link Id#index()}.
  */
 public class EventWriterPB implements EventWriter, BasicEventHandler {
 
@@ -26,6 +33,8 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
 
     private final ProtoEvents.EventBatch.Builder batch = ProtoEvents.EventBatch.newBuilder();
 
+    private final IdTables ids = new IdTables();
+
     public EventWriterPB(OutputStream out) {
 
         this.out = out;
@@ -61,7 +70,7 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
     @Override
     public void handleEvent(Event event) {
         try {
-            batch.addEvents(convertEvent(event));
+            batch.addEvents(convertEvent(event, ids));
 
             if (batch.getEventsCount() == BATCH_SIZE)
                 writeBatch();
@@ -74,11 +83,23 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
      * Write the collected events to the stream.
      */
     private void writeBatch() throws IOException {
+        ids.addTo(batch);
         batch.build().writeDelimitedTo(out);
         batch.clearEvents();
+        batch.clearIds();
     }
 
+    /**
+     * Convert an event with the id strings written to each {@link ProtoId}, as done until events version 2.
+     */
     public static ProtoEvents.Event convertEvent(Event event) {
+        return convertEvent(event, (id, type) -> convertId(id));
+    }
+
+    /**
+     * Convert an event, using the given converter for all its ids.
+     */
+    public static ProtoEvents.Event convertEvent(Event event, IdConverter ids) {
 
         ProtoEvents.Event.Builder builder = ProtoEvents.Event.newBuilder()
                 .setTime(event.getTime());
@@ -91,83 +112,88 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
 
         if (event instanceof ActivityEndEvent) {
             builder.getActivityEndBuilder()
-                    .setLinkId(convertId(((ActivityEndEvent) event).getLinkId()))
-                    .setFacilityId(convertId(((ActivityEndEvent) event).getFacilityId()))
-                    .setPersonId(convertId(((ActivityEndEvent) event).getPersonId()))
-                    .setActtype(((ActivityEndEvent) event).getActType());
+                    .setLinkId(ids.convert(((ActivityEndEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setFacilityId(ids.convert(((ActivityEndEvent) event).getFacilityId(), IdType.ID_ACTIVITY_FACILITY))
+                    .setPersonId(ids.convert(((ActivityEndEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setActtype(convertString(((ActivityEndEvent) event).getActType()));
         } else if (event instanceof ActivityStartEvent) {
             builder.getActivityStartBuilder()
-                    .setLinkId(convertId(((ActivityStartEvent) event).getLinkId()))
-                    .setFacilityId(convertId(((ActivityStartEvent) event).getFacilityId()))
-                    .setPersonId(convertId(((ActivityStartEvent) event).getPersonId()))
-                    .setActtype(((ActivityStartEvent) event).getActType());
+                    .setLinkId(ids.convert(((ActivityStartEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setFacilityId(ids.convert(((ActivityStartEvent) event).getFacilityId(), IdType.ID_ACTIVITY_FACILITY))
+                    .setPersonId(ids.convert(((ActivityStartEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setActtype(convertString(((ActivityStartEvent) event).getActType()));
         } else if (event instanceof LinkEnterEvent) {
             builder.getLinkEnterBuilder()
-                    .setLinkId(convertId(((LinkEnterEvent) event).getLinkId()))
-                    .setVehicleId(convertId(((LinkEnterEvent) event).getVehicleId()));
+                    .setLinkId(ids.convert(((LinkEnterEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setVehicleId(ids.convert(((LinkEnterEvent) event).getVehicleId(), IdType.ID_VEHICLE));
         } else if (event instanceof LinkLeaveEvent) {
             builder.getLinkLeaveBuilder()
-                    .setLinkId(convertId(((LinkLeaveEvent) event).getLinkId()))
-                    .setVehicleId(convertId(((LinkLeaveEvent) event).getVehicleId()));
+                    .setLinkId(ids.convert(((LinkLeaveEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setVehicleId(ids.convert(((LinkLeaveEvent) event).getVehicleId(), IdType.ID_VEHICLE));
         } else if (event instanceof PersonArrivalEvent) {
             builder.getPersonalArrivalBuilder()
-                    .setLinkId(convertId(((PersonArrivalEvent) event).getLinkId()))
-                    .setLegMode(((PersonArrivalEvent) event).getLegMode())
-                    .setPersonId(convertId(((PersonArrivalEvent) event).getPersonId()));
+                    .setLinkId(ids.convert(((PersonArrivalEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setLegMode(convertString(((PersonArrivalEvent) event).getLegMode()))
+                    .setPersonId(ids.convert(((PersonArrivalEvent) event).getPersonId(), IdType.ID_PERSON));
         } else if (event instanceof PersonDepartureEvent) {
             builder.getPersonDepartureBuilder()
-                    .setLinkId(convertId(((PersonDepartureEvent) event).getLinkId()))
-                    .setLegMode(((PersonDepartureEvent) event).getLegMode())
-                    .setPersonId(convertId(((PersonDepartureEvent) event).getPersonId()));
+                    .setLinkId(ids.convert(((PersonDepartureEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setLegMode(convertString(((PersonDepartureEvent) event).getLegMode()))
+                    .setPersonId(ids.convert(((PersonDepartureEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setRoutingMode(convertString(((PersonDepartureEvent) event).getRoutingMode()));
         } else if (event instanceof PersonEntersVehicleEvent) {
             builder.getPersonEntersVehicleBuilder()
-                    .setVehicleId(convertId(((PersonEntersVehicleEvent) event).getVehicleId()))
-                    .setPersonId(convertId(((PersonEntersVehicleEvent) event).getPersonId()));
+                    .setVehicleId(ids.convert(((PersonEntersVehicleEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setPersonId(ids.convert(((PersonEntersVehicleEvent) event).getPersonId(), IdType.ID_PERSON));
         } else if (event instanceof PersonLeavesVehicleEvent) {
             builder.getPersonLeavesVehicleBuilder()
-                    .setVehicleId(convertId(((PersonLeavesVehicleEvent) event).getVehicleId()))
-                    .setPersonId(convertId(((PersonLeavesVehicleEvent) event).getPersonId()));
+                    .setVehicleId(ids.convert(((PersonLeavesVehicleEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setPersonId(ids.convert(((PersonLeavesVehicleEvent) event).getPersonId(), IdType.ID_PERSON));
         } else if (event instanceof PersonMoneyEvent) {
             builder.getPersonMoneyBuilder()
-                    .setPersonId(convertId(((PersonMoneyEvent) event).getPersonId()))
+                    .setPersonId(ids.convert(((PersonMoneyEvent) event).getPersonId(), IdType.ID_PERSON))
                     .setAmount(((PersonMoneyEvent) event).getAmount())
-                    .setPurpose(((PersonMoneyEvent) event).getPurpose())
-                    .setTransactionPartner(((PersonMoneyEvent) event).getTransactionPartner());
+                    .setPurpose(convertString(((PersonMoneyEvent) event).getPurpose()))
+                    .setTransactionPartner(convertString(((PersonMoneyEvent) event).getTransactionPartner()))
+                    .setReference(convertString(((PersonMoneyEvent) event).getReference()));
         } else if (event instanceof PersonStuckEvent) {
             builder.getPersonStuckBuilder()
-                    .setLinkId(convertId(((PersonStuckEvent) event).getLinkId()))
-                    .setPersonId(convertId(((PersonStuckEvent) event).getPersonId()))
-                    .setLegMode(((PersonStuckEvent) event).getLegMode());
+                    .setLinkId(ids.convert(((PersonStuckEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setPersonId(ids.convert(((PersonStuckEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setLegMode(convertString(((PersonStuckEvent) event).getLegMode()));
         } else if (event instanceof TransitDriverStartsEvent) {
             builder.getTransitDriverStartsBuilder()
-                    .setDriverId(convertId(((TransitDriverStartsEvent) event).getDriverId()))
-                    .setVehicleId(convertId(((TransitDriverStartsEvent) event).getVehicleId()))
-                    .setTransitRouteId(convertId(((TransitDriverStartsEvent) event).getTransitRouteId()))
-                    .setTransitLineId(convertId(((TransitDriverStartsEvent) event).getTransitLineId()))
-                    .setDepartureId(convertId(((TransitDriverStartsEvent) event).getDepartureId()));
+                    .setDriverId(ids.convert(((TransitDriverStartsEvent) event).getDriverId(), IdType.ID_PERSON))
+                    .setVehicleId(ids.convert(((TransitDriverStartsEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setTransitRouteId(ids.convert(((TransitDriverStartsEvent) event).getTransitRouteId(), IdType.ID_TRANSIT_ROUTE))
+                    .setTransitLineId(ids.convert(((TransitDriverStartsEvent) event).getTransitLineId(), IdType.ID_TRANSIT_LINE))
+                    .setDepartureId(ids.convert(((TransitDriverStartsEvent) event).getDepartureId(), IdType.ID_DEPARTURE));
         } else if (event instanceof VehicleAbortsEvent) {
             builder.getVehicleAbortsBuilder()
-                    .setVehicleId(convertId(((VehicleAbortsEvent) event).getVehicleId()))
-                    .setLinkId(convertId(((VehicleAbortsEvent) event).getLinkId()));
+                    .setVehicleId(ids.convert(((VehicleAbortsEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setLinkId(ids.convert(((VehicleAbortsEvent) event).getLinkId(), IdType.ID_LINK));
         } else if (event instanceof VehicleEntersTrafficEvent) {
             builder.getVehicleEntersTrafficBuilder()
-                    .setDriverId(convertId(((VehicleEntersTrafficEvent) event).getPersonId()))
-                    .setLinkId(convertId(((VehicleEntersTrafficEvent) event).getLinkId()))
-                    .setVehicleId(convertId(((VehicleEntersTrafficEvent) event).getVehicleId()))
-                    .setNetworkMode(((VehicleEntersTrafficEvent) event).getNetworkMode())
+                    .setDriverId(ids.convert(((VehicleEntersTrafficEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setLinkId(ids.convert(((VehicleEntersTrafficEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setVehicleId(ids.convert(((VehicleEntersTrafficEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setNetworkMode(convertString(((VehicleEntersTrafficEvent) event).getNetworkMode()))
                     .setRelativePositionOnLink(((VehicleEntersTrafficEvent) event).getRelativePositionOnLink());
         } else if (event instanceof VehicleLeavesTrafficEvent) {
             builder.getVehicleLeavesTrafficBuilder()
-                    .setDriverId(convertId(((VehicleLeavesTrafficEvent) event).getPersonId()))
-                    .setLinkId(convertId(((VehicleLeavesTrafficEvent) event).getLinkId()))
-                    .setVehicleId(convertId(((VehicleLeavesTrafficEvent) event).getVehicleId()))
-                    .setNetworkMode(((VehicleLeavesTrafficEvent) event).getNetworkMode())
+                    .setDriverId(ids.convert(((VehicleLeavesTrafficEvent) event).getPersonId(), IdType.ID_PERSON))
+                    .setLinkId(ids.convert(((VehicleLeavesTrafficEvent) event).getLinkId(), IdType.ID_LINK))
+                    .setVehicleId(ids.convert(((VehicleLeavesTrafficEvent) event).getVehicleId(), IdType.ID_VEHICLE))
+                    .setNetworkMode(convertString(((VehicleLeavesTrafficEvent) event).getNetworkMode()))
                     .setRelativePositionOnLink(((VehicleLeavesTrafficEvent) event).getRelativePositionOnLink());
         } else {
-            Map<String, String> attrs = event.getAttributes();
+            // copied, as generic events return their own attributes
+            Map<String, String> attrs = new LinkedHashMap<>(event.getAttributes());
             // Checking references is safe here because they are constant
             attrs.keySet().removeIf(key -> key == Event.ATTRIBUTE_X || key == Event.ATTRIBUTE_Y ||
                     key == Event.ATTRIBUTE_TIME || key == Event.ATTRIBUTE_TYPE);
+            // protobuf does not allow null values
+            attrs.values().removeIf(Objects::isNull);
 
             // covers generic and all unknown events
             builder.getGenericBuilder()
@@ -189,9 +215,64 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
             return ProtoId.getDefaultInstance();
         }
 
-        // types or indices are not converted yet, also probably not needed in most cases
+        // types are not converted yet, they are implied by the field the id is written to
+
+        return ProtoId.newBuilder().setId(id.toString()).setIndex(id.index()).build();
+    }
+
+    /**
+     * Converts ids of a known type to their protobuf equivalent.
+     */
+    @FunctionalInterface
+    public interface IdConverter {
+        ProtoId convert(Id<?> id, IdType type);
+    }
+
+    /**
+     * Writes only the index and type of each id, and collects the ids that were not written before, so that they
+     * can be added as {@link IdTable} to the batch that references them.
+     */
+    private static final class IdTables implements IdConverter {
+
+        private final Map<IdType, BitSet> written = new EnumMap<>(IdType.class);
+
+        private final Map<IdType, IdTable.Builder> pending = new EnumMap<>(IdType.class);
+
+        @Override
+        public ProtoId convert(Id<?> id, IdType type) {
+
+            if (id == null) {
+                return ProtoId.getDefaultInstance();
+            }
+
+            int index = id.index();
+            BitSet seen = written.computeIfAbsent(type, t -> new BitSet());
+            if (!seen.get(index)) {
+                seen.set(index);
+                pending.computeIfAbsent(type, t -> IdTable.newBuilder().setType(t))
+                        .addIndex(index)
+                        .addId(id.toString());
+            }
+
+            return ProtoId.newBuilder().setIndex(index).setType(type).build();
+        }
+
+        /**
+         * Adds the ids collected since the last call to the batch.
+         */
+        void addTo(ProtoEvents.EventBatch.Builder batch) {
+            for (IdTable.Builder table : pending.values()) {
+                batch.addIds(table);
+            }
+            pending.clear();
+        }
+    }
 
-        return ProtoId.newBuilder().setId(id.toString()).build();
+    /**
+     * Protobuf does not allow null strings, they are written as empty string.
+     */
+    private static String convertString(String value) {
+        return value == null ? "" : value;
     }
 
 }
@@ -8,8 +8,9 @@ package org.matsim.contrib.protobuf;
 final public class PBVersion {
 
     /**
-     * Event format version.
+     * Event format version. Version 2 writes the index of each id, see {@link org.matsim.core.utils.pb.ProtoId}.
+     * Version 3 writes each id string only once in an {@link org.matsim.core.utils.pb.IdTable}.
      */
-    public final static int EVENTS = 1;
+    public final static int EVENTS = 3;
 
 }
@@ -0,0 +1,212 @@
+package org.matsim.contrib.protobuf;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.*;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.*;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.pb.ContentType;
+import org.matsim.core.utils.pb.IdTable;
+import org.matsim.core.utils.pb.IdType;
+import org.matsim.core.utils.pb.PBFileHeader;
+import org.matsim.core.utils.pb.ProtoEvents;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.vehicles.Vehicle;
+
+import java.io.*;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventReaderPBTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static List<Event> createEvents() {
+
+        Id<Person> person = Id.createPersonId("p1");
+        Id<Link> link = Id.createLinkId("l1");
+        Id<Vehicle> vehicle = Id.createVehicleId("v1");
+        Id<TransitStopFacility> stop = Id.create("s1", TransitStopFacility.class);
+
+        List<Event> events = new ArrayList<>();
+        events.add(new ActivityEndEvent(1.0, person, link, Id.create("f1", ActivityFacility.class), "home", new Coord(10.0, 20.0)));
+        events.add(new PersonDepartureEvent(2.0, person, link, "car", "car"));
+        events.add(new PersonEntersVehicleEvent(3.0, person, vehicle));
+        events.add(new VehicleEntersTrafficEvent(4.0, person, link, vehicle, "car", 1.0));
+        events.add(new LinkLeaveEvent(5.0, vehicle, link));
+        events.add(new LinkEnterEvent(6.0, vehicle, Id.createLinkId("l2")));
+        events.add(new VehicleLeavesTrafficEvent(7.0, person, link, vehicle, "car", 0.5));
+        events.add(new VehicleAbortsEvent(7.5, vehicle, link));
+        events.add(new PersonLeavesVehicleEvent(8.0, person, vehicle));
+        events.add(new PersonArrivalEvent(9.0, person, link, "car"));
+        events.add(new ActivityStartEvent(10.0, person, link, null, "work", null));
+        events.add(new PersonMoneyEvent(11.0, person, -1.5, "toll", "city", "ref"));
+        events.add(new PersonMoneyEvent(11.5, person, 2.0, null, null, null));
+        events.add(new PersonScoreEvent(12.0, person, 3.0, "bonus"));
+        events.add(new PersonStuckEvent(13.0, person, link, "walk"));
+        events.add(new TransitDriverStartsEvent(14.0, Id.createPersonId("driver"), vehicle, Id.create("line", TransitLine.class),
+                Id.create("route", TransitRoute.class), Id.create("dep", Departure.class)));
+        events.add(new VehicleArrivesAtFacilityEvent(15.0, vehicle, stop, 1.0));
+        events.add(new VehicleDepartsAtFacilityEvent(16.0, vehicle, stop, 2.0));
+        events.add(new AgentWaitingForPtEvent(17.0, person, stop, Id.create("s2", TransitStopFacility.class)));
+        events.add(new BoardingDeniedEvent(18.0, person, vehicle));
+        events.add(new TeleportationArrivalEvent(19.0, person, 100.0, "walk"));
+
+        GenericEvent generic = new GenericEvent("custom", 20.0);
+        generic.getAttributes().put("key", "value");
+        events.add(generic);
+
+        return events;
+    }
+
+    private static List<Event> read(Reader reader) {
+        List<Event> result = new ArrayList<>();
+        EventsManager events = EventsUtils.createEventsManager();
+        events.addHandler((BasicEventHandler) result::add);
+        events.initProcessing();
+        reader.read(events);
+        events.finishProcessing();
+        return result;
+    }
+
+    private File write(List<Event> events) throws IOException {
+        File file = tmp.newFile("events.pb");
+        EventWriterPB writer = new EventWriterPB(IOUtils.getOutputStream(file.toURI().toURL(), false));
+        events.forEach(writer::handleEvent);
+        writer.closeFile();
+        return file;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+
+        List<Event> expected = createEvents();
+        File file = write(expected);
+
+        List<Event> actual = read(events -> EventsUtils.readEvents(events, file.getPath()));
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getClass()).isEqualTo(expected.get(i).getClass());
+            assertThat(actual.get(i).getAttributes()).isEqualTo(expected.get(i).getAttributes());
+        }
+
+        // ids are interned, events without facility keep it null
+        assertThat(((ActivityEndEvent) actual.get(0)).getPersonId()).isSameAs(Id.createPersonId("p1"));
+        assertThat(((ActivityStartEvent) actual.get(10)).getFacilityId()).isNull();
+        assertThat(((PersonMoneyEvent) actual.get(12)).getPurpose()).isNull();
+    }
+
+    @Test
+    public void readStream() throws IOException {
+
+        List<Event> expected = createEvents();
+        File file = write(expected);
+
+        List<Event> actual = read(events -> {
+            try (InputStream in = new FileInputStream(file)) {
+                new MatsimEventsReader(events).readStream(in, ControlerConfigGroup.EventsFileFormat.pb);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        assertThat(actual).hasSameSizeAs(expected);
+    }
+
+    @Test
+    public void readURL() throws IOException {
+
+        List<Event> expected = createEvents();
+        URL url = write(expected).toURI().toURL();
+
+        List<Event> actual = read(events -> new MatsimEventsReader(events).readURL(url));
+
+        assertThat(actual).hasSameSizeAs(expected);
+    }
+
+    @Test
+    public void manyBatches() throws IOException {
+
+        List<Event> expected = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            expected.add(new LinkEnterEvent(i, Id.createVehicleId(i % 7), Id.createLinkId(i % 11)));
+        }
+        File file = write(expected);
+
+        List<Event> actual = read(events -> new EventReaderPB(events).readFile(file.getPath()));
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getAttributes()).isEqualTo(expected.get(i).getAttributes());
+        }
+    }
+
+    @Test
+    public void idTables() throws IOException {
+
+        List<Event> expected = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            expected.add(new LinkEnterEvent(i, Id.createVehicleId(i % 7), Id.createLinkId(i % 11)));
+        }
+        File file = write(expected);
+
+        int vehicles = 0;
+        int links = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            assertThat(PBFileHeader.parseDelimitedFrom(in).getVersion()).isEqualTo(PBVersion.EVENTS);
+
+            ProtoEvents.EventBatch batch;
+            while ((batch = ProtoEvents.EventBatch.parseDelimitedFrom(in)) != null) {
+                for (IdTable table : batch.getIdsList()) {
+                    if (table.getType() == IdType.ID_VEHICLE) vehicles += table.getIdCount();
+                    if (table.getType() == IdType.ID_LINK) links += table.getIdCount();
+                }
+                for (ProtoEvents.Event event : batch.getEventsList()) {
+                    assertThat(event.getLinkEnter().getLinkId().getId()).isEmpty();
+                }
+            }
+        }
+
+        // each id string is only written once per file
+        assertThat(vehicles).isEqualTo(7);
+        assertThat(links).isEqualTo(11);
+    }
+
+    @Test
+    public void newerVersion() throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PBFileHeader.newBuilder()
+                .setVersion(PBVersion.EVENTS + 1)
+                .setContentType(ContentType.EVENTS)
+                .build()
+                .writeDelimitedTo(out);
+
+        assertThatThrownBy(() -> read(events -> new EventReaderPB(events).parse(new ByteArrayInputStream(out.toByteArray()))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private interface Reader {
+        void read(EventsManager events);
+    }
+
+}
@@ -88,6 +88,12 @@ public final class ActivityEndEvent extends Event implements HasPersonId, HasLin
 		return attr;
 	}
 
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_ACTTYPE, this.acttype, out);
+	}
+
 	@Override public Coord getCoord(){
 		return coord;
 	}
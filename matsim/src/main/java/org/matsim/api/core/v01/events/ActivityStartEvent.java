@@ -102,6 +102,12 @@ public class ActivityStartEvent extends Event implements HasFacilityId, HasPerso
 		attr.put(ATTRIBUTE_ACTTYPE, this.acttype);
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_ACTTYPE, this.acttype, out);
+	}
 	@Override public Coord getCoord(){
 		return coord;
 	}
@@ -65,6 +65,77 @@ public abstract class Event {
 		return attr;
 	}
 
+	/**
+	 * Appends the attributes of this event to <code>out</code>, as <code>key="value" </code> each, with the same
+	 * keys, values and order as in {@link #getAttributes()}, but without building the map.  Used by the events
+	 * writer, so the event types that are thrown often override it, see {@link #writeXMLCommonAttributes}.  A
+	 * subclass overriding {@link #getAttributes()} should override this as well; otherwise, the writer falls back
+	 * to {@link #getAttributes()}.
+	 */
+	public void writeAsXML(StringBuilder out) {
+		for (Map.Entry<String, String> entry : getAttributes().entrySet()) {
+			writeXMLAttribute(entry.getKey(), entry.getValue(), out);
+		}
+	}
+
+	/**
+	 * Appends the attributes that {@link Event#getAttributes()} provides for every event type, in the same order.
+	 */
+	protected final void writeXMLCommonAttributes(StringBuilder out) {
+		writeXMLAttribute(ATTRIBUTE_TIME, this.time, out);
+		writeXMLAttribute(ATTRIBUTE_TYPE, getEventType(), out);
+		if (this instanceof HasPersonId && ((HasPersonId) this).getPersonId() != null) {
+			writeXMLAttribute(HasPersonId.ATTRIBUTE_PERSON, ((HasPersonId) this).getPersonId().toString(), out);
+		}
+		if (this instanceof HasFacilityId && ((HasFacilityId) this).getFacilityId() != null) {
+			writeXMLAttribute(HasFacilityId.ATTRIBUTE_FACILITY, ((HasFacilityId) this).getFacilityId().toString(), out);
+		}
+		if (this instanceof HasLinkId && ((HasLinkId) this).getLinkId() != null) {
+			writeXMLAttribute(HasLinkId.ATTRIBUTE_LINK, ((HasLinkId) this).getLinkId().toString(), out);
+		}
+		if (this instanceof BasicLocation && ((BasicLocation) this).getCoord() != null) {
+			writeXMLAttribute(ATTRIBUTE_X, ((BasicLocation) this).getCoord().getX(), out);
+			writeXMLAttribute(ATTRIBUTE_Y, ((BasicLocation) this).getCoord().getY(), out);
+		}
+		if (this instanceof HasVehicleId && ((HasVehicleId) this).getVehicleId() != null) {
+			writeXMLAttribute(HasVehicleId.ATTRIBUTE_VEHICLE, ((HasVehicleId) this).getVehicleId().toString(), out);
+		}
+	}
+
+	/**
+	 * Appends <code>key="value" </code> to <code>out</code>, encoding the characters of the value that have a special
+	 * meaning in xml.  A <code>null</code> value is written as "null".
+	 */
+	public static void writeXMLAttribute(String key, String value, StringBuilder out) {
+		out.append(key).append("=\"");
+		if (value == null) {
+			out.append("null");
+		} else {
+			for (int pos = 0, len = value.length(); pos < len; pos++) {
+				char ch = value.charAt(pos);
+				if (ch == '<') {
+					out.append("&lt;");
+				} else if (ch == '>') {
+					out.append("&gt;");
+				} else if (ch == '\"') {
+					out.append("&quot;");
+				} else if (ch == '&') {
+					out.append("&amp;");
+				} else {
+					out.append(ch);
+				}
+			}
+		}
+		out.append("\" ");
+	}
+
+	/**
+	 * Appends <code>key="value" </code> to <code>out</code>, with the value formatted as by {@link Double#toString(double)}.
+	 */
+	public static void writeXMLAttribute(String key, double value, StringBuilder out) {
+		out.append(key).append("=\"").append(value).append("\" ");
+	}
+
 	/** @return a unique, descriptive name for this event type, used to identify event types in files. */
 	abstract public String getEventType();
 
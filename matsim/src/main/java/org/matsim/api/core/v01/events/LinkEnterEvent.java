@@ -74,4 +74,9 @@ public class LinkEnterEvent extends Event implements HasLinkId, HasVehicleId{
 		attr.put(ATTRIBUTE_LINK, this.linkId.toString());
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+	}
 }
@@ -77,4 +77,9 @@ public class LinkLeaveEvent extends Event implements HasLinkId, HasVehicleId{
 		attr.put(ATTRIBUTE_LINK, this.linkId.toString());
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+	}
 }
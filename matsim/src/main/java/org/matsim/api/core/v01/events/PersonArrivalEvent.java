@@ -72,4 +72,13 @@ public class PersonArrivalEvent extends Event implements HasPersonId {
 		}
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_LINK, (this.linkId == null ? null : this.linkId.toString()), out);
+		if (this.legMode != null) {
+			writeXMLAttribute(ATTRIBUTE_LEGMODE, this.legMode, out);
+		}
+	}
 }
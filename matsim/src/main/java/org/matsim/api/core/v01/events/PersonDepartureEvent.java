@@ -83,4 +83,16 @@ public class PersonDepartureEvent extends Event implements HasPersonId {
 		}
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_LINK, (this.linkId == null ? null : this.linkId.toString()), out);
+		if (this.legMode != null) {
+			writeXMLAttribute(ATTRIBUTE_LEGMODE, this.legMode, out);
+		}
+		if (this.routingMode != null) {
+			writeXMLAttribute(ATTRIBUTE_ROUTING_MODE, this.routingMode, out);
+		}
+	}
 }
@@ -69,4 +69,10 @@ public class PersonEntersVehicleEvent extends Event implements HasPersonId {
 		attrs.put(ATTRIBUTE_VEHICLE, this.vehicleId.toString());
 		return attrs;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE, this.vehicleId.toString(), out);
+	}
 }
@@ -134,4 +134,19 @@ public final class PersonMoneyEvent extends Event implements HasPersonId {
 		}
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_AMOUNT, this.amount, out);
+		if (this.purpose != null) {
+			writeXMLAttribute(ATTRIBUTE_PURPOSE, this.purpose, out);
+		}
+		if (this.transactionPartner != null) {
+			writeXMLAttribute(ATTRIBUTE_TRANSACTION_PARTNER, this.transactionPartner, out);
+		}
+		if (this.reference != null) {
+			writeXMLAttribute(ATTRIBUTE_REFERENCE, this.reference, out);
+		}
+	}
 }
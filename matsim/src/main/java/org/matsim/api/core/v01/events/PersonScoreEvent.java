@@ -75,4 +75,13 @@ public class PersonScoreEvent extends Event implements HasPersonId {
 		}
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_AMOUNT, this.amount, out);
+		if (this.kind != null) {
+			writeXMLAttribute(ATTRIBUTE_KIND, this.kind, out);
+		}
+	}
 }
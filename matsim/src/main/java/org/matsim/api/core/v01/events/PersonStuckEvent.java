@@ -74,4 +74,15 @@ public class PersonStuckEvent extends Event implements HasPersonId {
 		attr.put(ATTRIBUTE_PERSON, this.personId.toString());
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		if (this.linkId != null) {
+			writeXMLAttribute(ATTRIBUTE_LINK, this.linkId.toString(), out);
+		}
+		if (this.legMode != null) {
+			writeXMLAttribute(ATTRIBUTE_LEGMODE, this.legMode, out);
+		}
+	}
 }
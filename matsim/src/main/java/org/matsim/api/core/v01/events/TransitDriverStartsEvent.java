@@ -90,4 +90,14 @@ public class TransitDriverStartsEvent extends Event {
 		atts.put(ATTRIBUTE_DEPARTURE_ID, this.getDepartureId().toString());
 		return atts;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_DRIVER_ID, this.getDriverId().toString(), out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE_ID, this.getVehicleId().toString(), out);
+		writeXMLAttribute(ATTRIBUTE_TRANSIT_LINE_ID, this.getTransitLineId().toString(), out);
+		writeXMLAttribute(ATTRIBUTE_TRANSIT_ROUTE_ID, this.getTransitRouteId().toString(), out);
+		writeXMLAttribute(ATTRIBUTE_DEPARTURE_ID, this.getDepartureId().toString(), out);
+	}
 }
\ No newline at end of file
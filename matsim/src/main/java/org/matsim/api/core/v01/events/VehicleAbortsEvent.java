@@ -62,4 +62,11 @@ public class VehicleAbortsEvent extends Event {
 		attr.put(ATTRIBUTE_VEHICLE, this.vehicleId.toString());
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_LINK, this.linkId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE, this.vehicleId.toString(), out);
+	}
 }
\ No newline at end of file
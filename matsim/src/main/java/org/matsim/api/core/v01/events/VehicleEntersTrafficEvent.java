@@ -90,4 +90,13 @@ public class VehicleEntersTrafficEvent extends Event implements HasPersonId, Has
 		attr.put(ATTRIBUTE_POSITION, Double.toString(this.relativePositionOnLink));
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		if (this.networkMode != null) {
+			writeXMLAttribute(ATTRIBUTE_NETWORKMODE, this.networkMode, out);
+		}
+		writeXMLAttribute(ATTRIBUTE_POSITION, this.relativePositionOnLink, out);
+	}
 }
@@ -96,4 +96,20 @@ public class VehicleLeavesTrafficEvent extends Event implements HasPersonId, Has
 
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		if (this.linkId == null) {
+			// (not among the common attributes then)
+			writeXMLAttribute(ATTRIBUTE_LINK, null, out);
+		}
+		if (this.vehicleId != null) {
+			writeXMLAttribute(ATTRIBUTE_VEHICLE, this.vehicleId.toString(), out);
+		}
+		if (this.networkMode != null) {
+			writeXMLAttribute(ATTRIBUTE_NETWORKMODE, this.networkMode, out);
+		}
+		writeXMLAttribute(ATTRIBUTE_POSITION, this.relativePositionOnLink, out);
+	}
 }
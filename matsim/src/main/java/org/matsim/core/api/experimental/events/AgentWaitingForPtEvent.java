@@ -77,4 +77,12 @@ public final class AgentWaitingForPtEvent extends Event implements HasPersonId {
 		
 		return attr;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_AGENT, this.agentId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_WAITSTOP, this.waitingAtStopId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_DESTINATIONSTOP, this.destinationStopId.toString(), out);
+	}
 }
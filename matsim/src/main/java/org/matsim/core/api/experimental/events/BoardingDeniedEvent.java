@@ -66,6 +66,12 @@ public final class BoardingDeniedEvent extends Event implements HasPersonId
 		atts.put(ATTRIBUTE_VEHICLE_ID, this.vehicleId.toString());
 		return atts;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE_ID, this.vehicleId.toString(), out);
+	}
 	
 	@Override
 	public String getEventType() {
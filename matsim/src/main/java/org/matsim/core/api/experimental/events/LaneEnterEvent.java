@@ -65,6 +65,14 @@ public final class LaneEnterEvent extends Event  {
 		return attr;
 	}
 
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE, this.vehicleId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_LINK, this.linkId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_LANE, this.laneId.toString(), out);
+	}
+
 	public Id<Vehicle> getVehicleId() {
 		return vehicleId;
 	}
@@ -74,4 +74,11 @@ public final class TeleportationArrivalEvent extends Event implements HasPersonI
 		attributes.put(ATTRIBUTE_MODE, mode);
         return attributes;
     }
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_DISTANCE, this.distance, out);
+		writeXMLAttribute(ATTRIBUTE_MODE, this.mode, out);
+	}
 }
@@ -81,4 +81,12 @@ public final class VehicleArrivesAtFacilityEvent extends Event {
 		attributes.put(ATTRIBUTE_DELAY, Double.toString(this.delay));
 		return attributes;
 	}
+
+	@Override
+	public void writeAsXML(StringBuilder out) {
+		writeXMLCommonAttributes(out);
+		writeXMLAttribute(ATTRIBUTE_VEHICLE, this.vehicleId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_FACILITY, this.facilityId.toString(), out);
+		writeXMLAttribute(ATTRIBUTE_DELAY, this.delay, out);
+	}
 }
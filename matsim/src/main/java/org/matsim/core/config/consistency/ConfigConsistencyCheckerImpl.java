@@ -157,7 +157,19 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 				config.controler().getRoutingAlgorithmType() != RoutingAlgorithmType.Dijkstra ) {
 			log.warn("We don't know if non-Dijkstra routing works together with LinkToLink routing.");
 		}
+
+		if ( config.controler().getRoutingAlgorithmType() == RoutingAlgorithmType.SpeedyCH &&
+				config.plansCalcRoute().getRoutingRandomness() != 0. ) {
+			throw new IllegalStateException("SpeedyCH routes all persons with the same travel disutilities and does not work with routingRandomness. " +
+					"Set routingRandomness in the plansCalcRoute config group to zero.");
+		}
 		
+		if ( config.plansCalcRoute().getRouteCacheSize() > 0 &&
+				config.plansCalcRoute().getRoutingRandomness() != 0. ) {
+			throw new IllegalStateException("The route cache gives all persons the same route and does not work with routingRandomness. " +
+					"Set routingRandomness in the plansCalcRoute config group to zero, or routeCacheSize to zero to disable the cache.");
+		}
+
 	}
 
 
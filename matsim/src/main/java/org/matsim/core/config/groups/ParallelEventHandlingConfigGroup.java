@@ -49,6 +49,18 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 	private final static String EVENTS_QUEUE_SIZE_COMMENT = "Size of the events Queue. Increase for very large scenarios";
 	private int eventsQueueSize = 65536 * 2 ;
 
+	private final static String MAX_BUFFERED_EVENTS = "maxBufferedEvents";
+	private final static String MAX_BUFFERED_EVENTS_COMMENT = "Maximum number of events waiting to be handled if " + SYNCHRONIZE_ON_SIMSTEPS + " is enabled. "
+			+ "If the event handlers are slower than the mobsim and the limit is reached, the mobsim waits until the handlers have caught up. "
+			+ "This bounds the memory used by the events during the peak hours. 0 means no limit, which is the default.";
+	private int maxBufferedEvents = 0;
+
+	private final static String HANDLER_TIMINGS_SAMPLE_INTERVAL = "handlerTimingsSampleInterval";
+	private final static String HANDLER_TIMINGS_SAMPLE_INTERVAL_COMMENT = "If larger than 0, the number of events and the time spent is recorded per event handler class "
+			+ "and written to eventHandlerTimings.csv in each iteration directory. Only one in n events, chosen at random, is timed to keep the overhead low, 1 times all events. "
+			+ "0 disables the recording.";
+	private int handlerTimingsSampleInterval = 0;
+
 
 
 	private boolean locked = false;
@@ -67,6 +79,8 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 		comments.put(ONE_THREAD_PER_HANDLER, "If enabled, each event handler is assigned to its own thread. Note that enabling this feature disabled the " + NUMBER_OF_THREADS + " option! "
 				+ "This feature is still experimental!");
 		comments.put(EVENTS_QUEUE_SIZE,EVENTS_QUEUE_SIZE_COMMENT);
+		comments.put(MAX_BUFFERED_EVENTS, MAX_BUFFERED_EVENTS_COMMENT);
+		comments.put(HANDLER_TIMINGS_SAMPLE_INTERVAL, HANDLER_TIMINGS_SAMPLE_INTERVAL_COMMENT);
 		return comments;
 	}
 
@@ -116,6 +130,46 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 		return eventsQueueSize;
 	}
 
+	/**
+	 * {@value #MAX_BUFFERED_EVENTS_COMMENT}
+	 */
+	@StringGetter(MAX_BUFFERED_EVENTS)
+	public int getMaxBufferedEvents() {
+		return maxBufferedEvents;
+	}
+
+	/**
+	 * {@value #MAX_BUFFERED_EVENTS_COMMENT}
+	 */
+	@StringSetter(MAX_BUFFERED_EVENTS)
+	public void setMaxBufferedEvents(int maxBufferedEvents) {
+		if ( !this.locked ) {
+			this.maxBufferedEvents = maxBufferedEvents;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
+	/**
+	 * {@value #HANDLER_TIMINGS_SAMPLE_INTERVAL_COMMENT}
+	 */
+	@StringGetter(HANDLER_TIMINGS_SAMPLE_INTERVAL)
+	public int getHandlerTimingsSampleInterval() {
+		return handlerTimingsSampleInterval;
+	}
+
+	/**
+	 * {@value #HANDLER_TIMINGS_SAMPLE_INTERVAL_COMMENT}
+	 */
+	@StringSetter(HANDLER_TIMINGS_SAMPLE_INTERVAL)
+	public void setHandlerTimingsSampleInterval(int handlerTimingsSampleInterval) {
+		if ( !this.locked ) {
+			this.handlerTimingsSampleInterval = handlerTimingsSampleInterval;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
 	@StringGetter( SYNCHRONIZE_ON_SIMSTEPS )
 	public Boolean getSynchronizeOnSimSteps() {
 		return this.synchronizeOnSimSteps;
@@ -86,6 +86,16 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 																		"settings for helper modes such as for " + TransportMode.non_network_walk;
 	private boolean clearingDefaultModeRoutingParams = false ;
 	// ---
+	private static final String ROUTE_CACHE_SIZE = "routeCacheSize";
+	private static final String ROUTE_CACHE_SIZE_CMT = "Maximum number of network routes kept in a cache shared by all network routing modules. " +
+																"Routes are cached per from-link, to-link, mode and departure time bin, and the cache is cleared whenever " +
+																"new travel times are collected. Requires routingRandomness=0 and travel disutilities that do not depend on the person. " +
+																"Default=0, which disables the cache.";
+	private int routeCacheSize = 0;
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE = "routeCacheTimeBinSize";
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE_CMT = "Size of the departure time bins of the route cache, in seconds.";
+	private double routeCacheTimeBinSize = 900.;
+	// ---
 	public static class TeleportedModeParams extends ModeRoutingParams {
 		public TeleportedModeParams( String mode ){
 			super( mode );
@@ -502,6 +512,12 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 		else if (ACCESSEGRESSTYPE.equals( key ) ) {
 			this.setAccessEgressType(AccessEgressType.valueOf(value));
 		}
+		else if (ROUTE_CACHE_SIZE.equals( key ) ) {
+			this.setRouteCacheSize( Integer.parseInt( value ) );
+		}
+		else if (ROUTE_CACHE_TIME_BIN_SIZE.equals( key ) ) {
+			this.setRouteCacheTimeBinSize( Double.parseDouble( value ) );
+		}
 		else {
 			throw new IllegalArgumentException(key);
 		}
@@ -514,6 +530,8 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 		map.put(  CLEAR_MODE_ROUTING_PARAMS, Boolean.toString( this.clearingDefaultModeRoutingParams ) ) ;
 		map.put(  RANDOMNESS, Double.toString( this.routingRandomness ) ) ;
 		map.put(  ACCESSEGRESSTYPE, getAccessEgressType().toString()) ;
+		map.put(  ROUTE_CACHE_SIZE, Integer.toString( this.routeCacheSize ) ) ;
+		map.put(  ROUTE_CACHE_TIME_BIN_SIZE, Double.toString( this.routeCacheTimeBinSize ) ) ;
 		return map;
 	}
 
@@ -529,6 +547,8 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	          		+ "Technically the width parameter of a log-normal distribution. 3.0 seems to be a good value. " ) ;
 		map.put( CLEAR_MODE_ROUTING_PARAMS, CLEAR_MODE_ROUTING_PARAMS_CMT ) ;
 		map.put(ACCESSEGRESSTYPE, ACCESSEGRESSTYPE_CMT);
+		map.put(ROUTE_CACHE_SIZE, ROUTE_CACHE_SIZE_CMT);
+		map.put(ROUTE_CACHE_TIME_BIN_SIZE, ROUTE_CACHE_TIME_BIN_SIZE_CMT);
 		return map;
 	}
 
@@ -632,6 +652,24 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 		this.routingRandomness = routingRandomness;
 	}
 
+	@StringGetter(ROUTE_CACHE_SIZE)
+	public int getRouteCacheSize() {
+		return routeCacheSize;
+	}
+	@StringSetter(ROUTE_CACHE_SIZE)
+	public void setRouteCacheSize(int routeCacheSize) {
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	@StringGetter(ROUTE_CACHE_TIME_BIN_SIZE)
+	public double getRouteCacheTimeBinSize() {
+		return routeCacheTimeBinSize;
+	}
+	@StringSetter(ROUTE_CACHE_TIME_BIN_SIZE)
+	public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+		this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+	}
+
 	@Override protected void checkConsistency(Config config) {
 		super.checkConsistency(config);
 		Set<String> modesRoutedAsTeleportation = this.getModeRoutingParams().keySet();
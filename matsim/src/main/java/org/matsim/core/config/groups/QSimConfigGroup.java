@@ -57,6 +57,11 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private static final String STUCK_TIME = "stuckTime";
 	private static final String REMOVE_STUCK_VEHICLES = "removeStuckVehicles";
 	private static final String NUMBER_OF_THREADS = "numberOfThreads";
+	private static final String NETSIM_LOAD_BALANCING = "netsimLoadBalancing";
+	private static final String NETSIM_ELEMENT_ASSIGNMENT = "netsimElementAssignment";
+	private static final String SKIPPING_IDLE_TIME_STEPS = "skippingIdleTimeSteps";
+	private static final String BUFFERING_NETSIM_EVENTS = "bufferingNetsimEvents";
+	private static final String DETERMINISTIC_PARALLELISM = "deterministicParallelism";
 	private static final String TRAFFIC_DYNAMICS = "trafficDynamics";
 	private static final String SIM_STARTTIME_INTERPRETATION = "simStarttimeInterpretation";
 	private static final String USE_PERSON_ID_FOR_MISSING_VEHICLE_ID = "usePersonIdForMissingVehicleId";
@@ -65,6 +70,7 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 			"time in seconds.  Time after which the frontmost vehicle on a link is called `stuck' if it does not move.";
 	private static final String FILTER_SNAPSHOTS = "filterSnapshots";
 	private static final String LINK_DYNAMICS = "linkDynamics";
+	private static final String FIFO_VEHICLE_QUEUE = "fifoVehicleQueue";
 	private InflowCapacitySetting inflowCapacitySetting = InflowCapacitySetting.INFLOW_FROM_FDIAG;
 
 	public enum StarttimeInterpretation {maxOfStarttimeAndEarliestActivityEnd, onlyUseStarttime}
@@ -90,6 +96,20 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private boolean usePersonIdForMissingVehicleId = true;
 	@Positive
 	private int numberOfThreads = 1;
+
+	public enum NetsimLoadBalancing {none, workStealing}
+
+	private NetsimLoadBalancing netsimLoadBalancing = NetsimLoadBalancing.none;
+
+	public enum NetsimElementAssignment {roundRobin, partitionByCapacity, partitionByVolumes}
+
+	private NetsimElementAssignment netsimElementAssignment = NetsimElementAssignment.roundRobin;
+
+	private boolean skippingIdleTimeSteps = false;
+
+	private boolean bufferingNetsimEvents = false;
+
+	private boolean deterministicParallelism = false;
 	//	private static final String CREATING_VEHICLES_FOR_ALL_NETWORK_MODES = "creatingVehiclesForAllNetworkModes";
 //	private boolean creatingVehiclesForAllNetworkModes = true;
 	// ---
@@ -139,6 +159,10 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	public enum LinkDynamics {FIFO, PassingQ, SeepageQ}
 
 	private LinkDynamics linkDynamics = LinkDynamics.FIFO;
+
+	public enum FifoVehicleQueue {linkedList, ringBuffer}
+
+	private FifoVehicleQueue fifoVehicleQueue = FifoVehicleQueue.linkedList;
 	private Collection<String> mainModes = Collections.singletonList(TransportMode.car);
 
 	// ---
@@ -170,6 +194,29 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		map.put(NUMBER_OF_THREADS, "Number of threads used for the QSim.  "
 				+ "Note that this setting is independent from the \"global\" threads setting.  "
 				+ "In contrast to earlier versions, the non-parallel special version is no longer there.");
+		map.put(NETSIM_LOAD_BALANCING, "How the work of the network simulation is distributed over the threads.  "
+				+ NetsimLoadBalancing.none + ": every thread moves a fixed share of the nodes and links (default).  "
+				+ NetsimLoadBalancing.workStealing + ": threads that are done with their own active nodes or links take over "
+				+ "chunks of the other threads' active elements.  Results do not depend on this setting.");
+		map.put(NETSIM_ELEMENT_ASSIGNMENT, "How nodes and links are assigned to the threads of the network simulation.  "
+				+ NetsimElementAssignment.roundRobin + ": in turns, without regard to the topology (default).  "
+				+ NetsimElementAssignment.partitionByCapacity + ": every thread gets a contiguous region of the network, "
+				+ "balanced by the flow capacity of the links.  "
+				+ NetsimElementAssignment.partitionByVolumes + ": as before, but balanced by the link volumes of the previous "
+				+ "iteration, falling back to the capacities if there is no previous iteration.  "
+				+ "Results do not depend on this setting.");
+		map.put(SKIPPING_IDLE_TIME_STEPS, "If true, the QSim jumps over time steps in which no vehicle is on the network, no activity ends, "
+				+ "no teleported agent arrives, and no other engine or sim step listener has anything to do.  Only effective if all "
+				+ "engines and sim step listeners can tell their next time of action.  Default is false.");
+		map.put(BUFFERING_NETSIM_EVENTS, "If true, every thread of the network simulation collects the events of a time step in a "
+				+ "buffer of its own, and the buffers are passed to the events manager one after the other at the end of the "
+				+ "time step.  Avoids contention at the events manager.  Within a time step, the events are then ordered by "
+				+ "thread, which is deterministic unless " + NETSIM_LOAD_BALANCING + " is " + NetsimLoadBalancing.workStealing + ".  "
+				+ "Default is false.");
+		map.put(DETERMINISTIC_PARALLELISM, "If true, the events and results of the network simulation are the same for any "
+				+ NUMBER_OF_THREADS + " and " + NETSIM_LOAD_BALANCING + ": every node draws from a random number generator of its "
+				+ "own, and the buffered events (see " + BUFFERING_NETSIM_EVENTS + ", which is implied) are passed on ordered by "
+				+ "the node or link that threw them.  The results differ from those without this setting.  Default is false.");
 		map.put(REMOVE_STUCK_VEHICLES, REMOVE_STUCK_VEHICLES_STRING);
 		map.put(STUCK_TIME, STUCK_TIME_STRING);
 
@@ -209,6 +256,11 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 			}
 			map.put(LINK_DYNAMICS, "default: FIFO; options:" + stb);
 		}
+		map.put(FIFO_VEHICLE_QUEUE, "The data structure holding the vehicles on a link if link dynamics is " + LinkDynamics.FIFO + ".  "
+				+ FifoVehicleQueue.linkedList + ": a linked list of vehicles (default).  "
+				+ FifoVehicleQueue.ringBuffer + ": a ring buffer that also keeps the earliest link exit times and the pcu equivalents "
+				+ "of the vehicles in primitive arrays, so that waiting vehicles are not touched in every time step.  "
+				+ "Results do not depend on this setting.");
 		map.put(USE_PERSON_ID_FOR_MISSING_VEHICLE_ID, "If a route does not reference a vehicle, agents will use the vehicle with the same id as their own.");
 		map.put(FAST_CAPACITY_UPDATE, "If false, the qsim accumulates fractional flows up to one flow unit in every time step.  If true, "
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
@@ -467,6 +519,56 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	@StringGetter(NETSIM_LOAD_BALANCING)
+	public NetsimLoadBalancing getNetsimLoadBalancing() {
+		return this.netsimLoadBalancing;
+	}
+
+	@StringSetter(NETSIM_LOAD_BALANCING)
+	public void setNetsimLoadBalancing(final NetsimLoadBalancing netsimLoadBalancing) {
+		this.netsimLoadBalancing = netsimLoadBalancing;
+	}
+
+	@StringGetter(NETSIM_ELEMENT_ASSIGNMENT)
+	public NetsimElementAssignment getNetsimElementAssignment() {
+		return this.netsimElementAssignment;
+	}
+
+	@StringSetter(NETSIM_ELEMENT_ASSIGNMENT)
+	public void setNetsimElementAssignment(final NetsimElementAssignment netsimElementAssignment) {
+		this.netsimElementAssignment = netsimElementAssignment;
+	}
+
+	@StringGetter(SKIPPING_IDLE_TIME_STEPS)
+	public boolean isSkippingIdleTimeSteps() {
+		return this.skippingIdleTimeSteps;
+	}
+
+	@StringSetter(SKIPPING_IDLE_TIME_STEPS)
+	public void setSkippingIdleTimeSteps(final boolean skippingIdleTimeSteps) {
+		this.skippingIdleTimeSteps = skippingIdleTimeSteps;
+	}
+
+	@StringGetter(BUFFERING_NETSIM_EVENTS)
+	public boolean isBufferingNetsimEvents() {
+		return this.bufferingNetsimEvents;
+	}
+
+	@StringSetter(BUFFERING_NETSIM_EVENTS)
+	public void setBufferingNetsimEvents(final boolean bufferingNetsimEvents) {
+		this.bufferingNetsimEvents = bufferingNetsimEvents;
+	}
+
+	@StringGetter(DETERMINISTIC_PARALLELISM)
+	public boolean isDeterministicParallelism() {
+		return this.deterministicParallelism;
+	}
+
+	@StringSetter(DETERMINISTIC_PARALLELISM)
+	public void setDeterministicParallelism(final boolean deterministicParallelism) {
+		this.deterministicParallelism = deterministicParallelism;
+	}
+
 	@StringGetter(SIM_STARTTIME_INTERPRETATION)
 	public StarttimeInterpretation getSimStarttimeInterpretation() {
 		return simStarttimeInterpretation;
@@ -553,6 +655,16 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.linkDynamics = linkDynamics ;
 	}
 
+	@StringGetter(FIFO_VEHICLE_QUEUE)
+	public FifoVehicleQueue getFifoVehicleQueue() {
+		return this.fifoVehicleQueue;
+	}
+
+	@StringSetter(FIFO_VEHICLE_QUEUE)
+	public void setFifoVehicleQueue(final FifoVehicleQueue fifoVehicleQueue) {
+		this.fifoVehicleQueue = fifoVehicleQueue;
+	}
+
 	@StringGetter(USE_PERSON_ID_FOR_MISSING_VEHICLE_ID)
 	public boolean getUsePersonIdForMissingVehicleId() {
 		return usePersonIdForMissingVehicleId;
@@ -145,6 +145,7 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 		for (ControlerConfigGroup.EventsFileFormat format : this.controlerConfigGroup.getEventsFileFormats()) {
 			try{
 				Controler.DefaultFiles file;
+				boolean compressed = true;
 				switch (format) {
 					case xml:
 						file = Controler.DefaultFiles.events;
@@ -155,12 +156,22 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 					case json:
 						file = Controler.DefaultFiles.eventsJson;
 						break;
+					case columnar:
+						file = Controler.DefaultFiles.eventsColumnar;
+						// memory-mapped files are not compressed
+						compressed = false;
+						break;
 					default:
 						continue;
 				}
 
-				IOUtils.copyFile(this.controlerIO.getIterationFilename(iteration, file),
-						this.controlerIO.getOutputFilename(file));
+				if (compressed) {
+					IOUtils.copyFile(this.controlerIO.getIterationFilename(iteration, file),
+							this.controlerIO.getOutputFilename(file));
+				} else {
+					IOUtils.copyFile(this.controlerIO.getIterationFilename(iteration, file, null),
+							this.controlerIO.getOutputFilename(file, null));
+				}
 			} catch (Exception ee) {
 				LogManager.getLogger(this.getClass()).error("writing output events did not work; probably parameters were such that no events were "
 						+ "generated in the final iteration");
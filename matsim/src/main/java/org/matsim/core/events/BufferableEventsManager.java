@@ -0,0 +1,38 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+
+/**
+ * An events manager that can divert the events processed on some threads into buffers, see
+ * {@link ThreadLocalEventsBuffer}.  Without an installed buffer, the events manager does not look for one.
+ */
+public interface BufferableEventsManager extends EventsManager {
+
+	/**
+	 * Installs the buffer, or removes it if <code>buffer</code> is null.  Must not be called while events are being
+	 * processed.
+	 *
+	 * @return true if all events given to this events manager are diverted into the buffer from now on, false if this is
+	 * not possible, e.g. because a delegate does not support it.  In the latter case, the buffer has to be removed again.
+	 */
+	boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer);
+
+}
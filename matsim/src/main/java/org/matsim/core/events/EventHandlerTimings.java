@@ -0,0 +1,159 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.utils.io.IOUtils;
+
+/**
+ * Collects the number of events and the time spent per event handler class.
+ * <p>
+ * To keep the overhead low, only one in n events is timed, chosen at random, see {@link #getSampleInterval()}, while
+ * the events are always counted.  The total time per handler class is estimated from the sampled events.  The counters are shared by
+ * all threads of the parallel events managers and can be updated concurrently.
+ */
+public final class EventHandlerTimings {
+
+	private final int sampleInterval;
+	private final Map<Class<? extends EventHandler>, HandlerTiming> timings = new ConcurrentHashMap<>();
+
+	/**
+	 * @param sampleInterval time one in n events, 1 times all events
+	 */
+	public EventHandlerTimings(int sampleInterval) {
+		if (sampleInterval < 1) {
+			throw new IllegalArgumentException("The sample interval must be at least 1, but is " + sampleInterval);
+		}
+		this.sampleInterval = sampleInterval;
+	}
+
+	public int getSampleInterval() {
+		return this.sampleInterval;
+	}
+
+	/*package*/ HandlerTiming getTiming(EventHandler handler) {
+		return this.timings.computeIfAbsent(handler.getClass(), k -> new HandlerTiming());
+	}
+
+	/**
+	 * @return the number of events passed to the handlers of the given class
+	 */
+	public long getEventCount(Class<? extends EventHandler> handlerClass) {
+		HandlerTiming timing = this.timings.get(handlerClass);
+		return timing == null ? 0 : timing.events.sum();
+	}
+
+	/**
+	 * @return the estimated total time in nanoseconds the handlers of the given class spent handling events
+	 */
+	public double getEstimatedNanos(Class<? extends EventHandler> handlerClass) {
+		HandlerTiming timing = this.timings.get(handlerClass);
+		return timing == null ? 0 : timing.getEstimatedNanos();
+	}
+
+	/**
+	 * Sets all counters to zero, e.g. at the start of an iteration.
+	 */
+	public void reset() {
+		for (HandlerTiming timing : this.timings.values()) {
+			timing.events.reset();
+			timing.sampledEvents.reset();
+			timing.sampledNanos.reset();
+		}
+	}
+
+	/**
+	 * Writes one line per handler class, sorted by the estimated time.
+	 */
+	public void writeCsv(String filename, String delimiter) {
+		List<Map.Entry<Class<? extends EventHandler>, HandlerTiming>> entries = new ArrayList<>(this.timings.entrySet());
+		entries.sort(Comparator.comparingDouble((Map.Entry<Class<? extends EventHandler>, HandlerTiming> e) -> e.getValue().getEstimatedNanos()).reversed());
+
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write(String.join(delimiter, "handler", "events", "sampledEvents", "sampledTime_ms", "estimatedTime_ms"));
+			writer.newLine();
+			for (Map.Entry<Class<? extends EventHandler>, HandlerTiming> e : entries) {
+				HandlerTiming timing = e.getValue();
+				writer.write(String.join(delimiter,
+						e.getKey().getName(),
+						Long.toString(timing.events.sum()),
+						Long.toString(timing.sampledEvents.sum()),
+						Double.toString(timing.sampledNanos.sum() / 1e6),
+						Double.toString(timing.getEstimatedNanos() / 1e6)));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Starts collecting the timings in the given events manager and all events managers it delegates to.
+	 *
+	 * @return false if the events manager does not support the timings
+	 */
+	/*package*/ static boolean install(EventsManager events, EventHandlerTimings timings) {
+		if (events instanceof EventsManagerImpl) {
+			((EventsManagerImpl) events).setHandlerTimings(timings);
+		} else if (events instanceof SimStepParallelEventsManagerImpl) {
+			((SimStepParallelEventsManagerImpl) events).setHandlerTimings(timings);
+		} else if (events instanceof ParallelEventsManagerImpl) {
+			((ParallelEventsManagerImpl) events).setHandlerTimings(timings);
+		} else if (events instanceof ParallelEventsManager) {
+			((ParallelEventsManager) events).setHandlerTimings(timings);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	/*package*/ static final class HandlerTiming {
+
+		private final LongAdder events = new LongAdder();
+		private final LongAdder sampledEvents = new LongAdder();
+		private final LongAdder sampledNanos = new LongAdder();
+
+		void count() {
+			this.events.increment();
+		}
+
+		void sample(long nanos) {
+			this.sampledEvents.increment();
+			this.sampledNanos.add(nanos);
+		}
+
+		double getEstimatedNanos() {
+			long sampled = this.sampledEvents.sum();
+			return sampled == 0 ? 0 : (double) this.sampledNanos.sum() * this.events.sum() / sampled;
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import javax.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+
+/**
+ * Writes the {@link EventHandlerTimings} of each iteration to <code>eventHandlerTimings.csv</code> in the iteration
+ * directory.
+ */
+final class EventHandlerTimingsListener implements IterationStartsListener, IterationEndsListener {
+
+	private static final Logger log = LogManager.getLogger(EventHandlerTimingsListener.class);
+
+	static final String FILENAME = "eventHandlerTimings.csv";
+
+	private final EventHandlerTimings timings;
+	private final OutputDirectoryHierarchy controlerIO;
+	private final String delimiter;
+
+	@Inject
+	EventHandlerTimingsListener(EventsManager events, EventHandlerTimings timings, OutputDirectoryHierarchy controlerIO, Config config) {
+		this.timings = timings;
+		this.controlerIO = controlerIO;
+		this.delimiter = config.global().getDefaultDelimiter();
+		if (!EventHandlerTimings.install(events, timings)) {
+			log.warn("The events manager " + events.getClass().getName() + " does not support recording the time spent in the event handlers.");
+		}
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		this.timings.reset();
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		this.timings.writeCsv(this.controlerIO.getIterationFilename(event.getIteration(), FILENAME), this.delimiter);
+	}
+
+}
@@ -20,27 +20,18 @@
 
 package org.matsim.core.events;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.matsim.api.core.v01.events.*;
-import org.matsim.api.core.v01.events.handler.*;
-import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
-import org.matsim.core.api.experimental.events.EventsManager;
-import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
-import org.matsim.core.api.experimental.events.VehicleDepartsAtFacilityEvent;
-import org.matsim.core.api.experimental.events.handler.AgentWaitingForPtEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
-import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.events.handler.EventHandler;
 
 /**
@@ -51,14 +42,15 @@ import org.matsim.core.events.handler.EventHandler;
  * <li>add method public void handleEvent(MyEvent event) to it</li>
  * <li>ready to go, just implement the interface somewhere and add a
  * HandlerObject with a call to <code>Events.addHandler(HandlerObject)</code></li>
- * <li>(optional) add an appropriate line in callHandlerFast() for speeding
- * up execution!</li>
  * </ol>
+ * The handler methods are not called by reflection, but by an {@link EventHandlerInvoker}
+ * generated per handler interface when the handler is added, so all event types are
+ * dispatched equally fast.
  *
  * @author dstrippgen
  * @author mrieser
  */
-public final class EventsManagerImpl implements EventsManager {
+public final class EventsManagerImpl implements BufferableEventsManager {
 
 	private static final Logger log = LogManager.getLogger(EventsManagerImpl.class);
 
@@ -66,38 +58,71 @@ public final class EventsManagerImpl implements EventsManager {
 
 		protected Class<? extends Event> eventClass;
 		protected ArrayList<EventHandler> handlerList = new ArrayList<EventHandler>(5);
-		protected Method method;
+		/** the invoker for each handler in handlerList, as the handlers may implement different interfaces for the same event class */
+		protected ArrayList<EventHandlerInvoker> invokerList = new ArrayList<EventHandlerInvoker>(5);
 
-		protected HandlerData(final Class<? extends Event> eventClass, final Method method) {
+		protected HandlerData(final Class<? extends Event> eventClass) {
 			this.eventClass = eventClass;
-			this.method = method;
+		}
+
+		protected void addHandler(final EventHandler handler, final Method method) {
+			this.handlerList.add(handler);
+			this.invokerList.add(EventHandlerInvoker.forMethod(method));
 		}
 
 		protected void removeHandler(final EventHandler handler) {
-			this.handlerList.remove(handler);
+			int index = this.handlerList.indexOf(handler);
+			if (index >= 0) {
+				this.handlerList.remove(index);
+				this.invokerList.remove(index);
+			}
 		}
 	}
 
 	static private class HandlerInfo {
 		protected final Class<? extends Event> eventClass;
 		protected final EventHandler eventHandler;
-		protected final Method method;
+		protected final EventHandlerInvoker invoker;
+		/** null if the timings are not collected */
+		protected final EventHandlerTimings.HandlerTiming timing;
 
 		protected HandlerInfo(final Class<? extends Event> eventClass, final EventHandler eventHandler,
-				final Method method) {
+				final EventHandlerInvoker invoker, final EventHandlerTimings.HandlerTiming timing) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
-			this.method = method;
+			this.invoker = invoker;
+			this.timing = timing;
 		}
 	}
 
+	private static final HandlerInfo[][] NO_HANDLERS = new HandlerInfo[0][];
+
+	private static final AtomicInteger eventClassCounter = new AtomicInteger();
+
+	/**
+	 * Numbers the event classes, so the handlers can be looked up in an array instead of a map.
+	 */
+	private static final ClassValue<Integer> eventClassIndex = new ClassValue<>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return eventClassCounter.getAndIncrement();
+		}
+	};
+
 	private final List<HandlerData> handlerData = new ArrayList<>();
 
-	private final Map<Class<? extends Event>, HandlerInfo[]> cacheHandlers = new ConcurrentHashMap<>(15);
+	/**
+	 * The handlers per event class, indexed by {@link #eventClassIndex}.  The array is never modified, but replaced
+	 * by a larger copy, so it can be read without locking.
+	 */
+	private volatile HandlerInfo[][] cacheHandlers = NO_HANDLERS;
 
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
+	private EventHandlerTimings handlerTimings = null;
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
+
 	private HandlerData findHandler(final Class<? extends Event> evklass) {
 		for (HandlerData handler : this.handlerData) {
 			if (handler.eventClass == evklass) {
@@ -107,29 +132,62 @@ public final class EventsManagerImpl implements EventsManager {
 		return null;
 	}
 
+	@Override
+	public boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer) {
+		this.threadLocalEventsBuffer = buffer;
+		return true;
+	}
+
 	@Override
 	public void processEvent(final Event event) {
+		if (this.threadLocalEventsBuffer != null && this.threadLocalEventsBuffer.add(event)) {
+			return;
+		}
 		this.counter++;
 		if (this.counter == this.nextCounterMsg) {
 			this.nextCounterMsg *= 4;
 			log.info(" event # " + this.counter);
 		}
-		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
+		HandlerInfo[] handlers = getHandlersForClass( event.getClass() );
+		if (this.handlerTimings != null) {
+			processEventTimed(event, handlers);
+			return;
+		}
+		for (HandlerInfo info : handlers) {
 			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
-					continue;
+				info.invoker.invoke(info.eventHandler, event);
+			}
+		}
+	}
+
+	private void processEventTimed(final Event event, final HandlerInfo[] handlers) {
+		// a random sample does not depend on the order of the event types
+		boolean sample = ThreadLocalRandom.current().nextInt(this.handlerTimings.getSampleInterval()) == 0;
+		for (HandlerInfo info : handlers) {
+			synchronized(info.eventHandler) {
+				// the handlers may have been cached before the timings were set
+				if (info.timing != null) {
+					info.timing.count();
 				}
-				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+				if (sample && info.timing != null) {
+					long start = System.nanoTime();
+					info.invoker.invoke(info.eventHandler, event);
+					info.timing.sample(System.nanoTime() - start);
+				} else {
+					info.invoker.invoke(info.eventHandler, event);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Starts or, with null, stops collecting the time spent in each handler.
+	 */
+	/*package*/ void setHandlerTimings(final EventHandlerTimings handlerTimings) {
+		this.handlerTimings = handlerTimings;
+		this.cacheHandlers = NO_HANDLERS;
+	}
+
 
 	@Override
 	public void addHandler (final EventHandler handler) {
@@ -150,7 +208,7 @@ public final class EventsManagerImpl implements EventsManager {
 			test = test.getSuperclass();
 		} while ((EventHandler.class.isAssignableFrom(test)));
 
-		this.cacheHandlers.clear();
+		this.cacheHandlers = NO_HANDLERS;
 		log.info("");
 	}
 
@@ -160,7 +218,7 @@ public final class EventsManagerImpl implements EventsManager {
 		for (HandlerData handlerList : this.handlerData) {
 			handlerList.removeHandler(handler);
 		}
-		this.cacheHandlers.clear();
+		this.cacheHandlers = NO_HANDLERS;
 	}
 
 	@Override
@@ -205,19 +263,27 @@ public final class EventsManagerImpl implements EventsManager {
 					log.info("    > " + eventClass.getName());
 					HandlerData dat = findHandler(eventClass);
 					if (dat == null) {
-						dat = new HandlerData(eventClass, method);
+						dat = new HandlerData(eventClass);
 						this.handlerData.add(dat);
 					}
-					dat.handlerList.add(handler);
+					dat.addHandler(handler, method);
 				}
 			}
 		}
 	}
 
+	/**
+	 * @return whether any handler is registered for events of the given class, including its super classes
+	 */
+	/*package*/ boolean hasHandlersForClass(final Class<? extends Event> eventClass) {
+		return getHandlersForClass(eventClass).length > 0;
+	}
+
 	private HandlerInfo[] getHandlersForClass(final Class<? extends Event> eventClass) {
-		HandlerInfo[] cache = this.cacheHandlers.get(eventClass);
-		if (cache != null) {
-			return cache;
+		int index = eventClassIndex.get(eventClass);
+		HandlerInfo[][] cacheHandlers = this.cacheHandlers;
+		if (index < cacheHandlers.length && cacheHandlers[index] != null) {
+			return cacheHandlers[index];
 		}
 
 		ArrayList<HandlerInfo> info = new ArrayList<>();
@@ -227,76 +293,22 @@ public final class EventsManagerImpl implements EventsManager {
 			Class<? extends Event> eventKlass = (Class<? extends Event>)klass;
 			HandlerData dat = findHandler(eventKlass);
 			if (dat != null) {
-				for (EventHandler handler : dat.handlerList) {
-					info.add(new HandlerInfo(eventKlass, handler, dat.method));
+				for (int i = 0; i < dat.handlerList.size(); i++) {
+					EventHandler handler = dat.handlerList.get(i);
+					EventHandlerTimings.HandlerTiming timing = this.handlerTimings == null ? null : this.handlerTimings.getTiming(handler);
+					info.add(new HandlerInfo(eventKlass, handler, dat.invokerList.get(i), timing));
 				}
 			}
 			klass = klass.getSuperclass();
 		} while (Event.class.isAssignableFrom(klass));
 
-		cache = info.toArray(new HandlerInfo[0]);
-		this.cacheHandlers.put(eventClass, cache);
+		HandlerInfo[] cache = info.toArray(new HandlerInfo[0]);
+		HandlerInfo[][] updated = Arrays.copyOf(cacheHandlers, Math.max(cacheHandlers.length, index + 1));
+		updated[index] = cache;
+		this.cacheHandlers = updated;
 		return cache;
 	}
 
-	// this method is purely for performance reasons and need not be implemented
-	private static boolean callHandlerFast(final Class<? extends Event> klass, final Event ev,
-			final EventHandler handler) {
-		if (klass == LinkLeaveEvent.class) {
-			((LinkLeaveEventHandler)handler).handleEvent((LinkLeaveEvent)ev);
-			return true;
-		} else if (klass == LinkEnterEvent.class) {
-			((LinkEnterEventHandler)handler).handleEvent((LinkEnterEvent)ev);
-			return true;
-		} else if (klass == VehicleEntersTrafficEvent.class) {
-			((VehicleEntersTrafficEventHandler) handler).handleEvent((VehicleEntersTrafficEvent) ev);
-			return true;
-		} else if (klass == VehicleLeavesTrafficEvent.class) {
-			((VehicleLeavesTrafficEventHandler) handler).handleEvent((VehicleLeavesTrafficEvent) ev);
-			return true;
-		} else if (klass == PersonArrivalEvent.class) {
-			((PersonArrivalEventHandler)handler).handleEvent((PersonArrivalEvent)ev);
-			return true;
-		} else if (klass == PersonDepartureEvent.class) {
-			((PersonDepartureEventHandler)handler).handleEvent((PersonDepartureEvent)ev);
-			return true;
-		} else if (klass == ActivityEndEvent.class) {
-			((ActivityEndEventHandler)handler).handleEvent((ActivityEndEvent)ev);
-			return true;
-		} else if (klass == ActivityStartEvent.class) {
-			((ActivityStartEventHandler)handler).handleEvent((ActivityStartEvent)ev);
-			return true;
-		} else if (klass == TransitDriverStartsEvent.class) {
-			((TransitDriverStartsEventHandler) handler).handleEvent((TransitDriverStartsEvent) ev);
-			return true;
-		} else if (klass == PersonStuckEvent.class) {
-			((PersonStuckEventHandler)handler).handleEvent((PersonStuckEvent)ev);
-			return true;
-		} else if (klass == PersonMoneyEvent.class) {
-			((PersonMoneyEventHandler)handler).handleEvent((PersonMoneyEvent)ev);
-			return true;
-		} else if (klass == AgentWaitingForPtEvent.class) {
-			((AgentWaitingForPtEventHandler)handler).handleEvent((AgentWaitingForPtEvent)ev);
-			return true;
-		} else if (klass == PersonEntersVehicleEvent.class) {
-			((PersonEntersVehicleEventHandler)handler).handleEvent((PersonEntersVehicleEvent)ev);
-			return true;
-		} else if (klass == PersonLeavesVehicleEvent.class) {
-			((PersonLeavesVehicleEventHandler)handler).handleEvent((PersonLeavesVehicleEvent)ev);
-			return true;
-		} else if (klass == VehicleDepartsAtFacilityEvent.class) {
-			((VehicleDepartsAtFacilityEventHandler) handler).handleEvent((VehicleDepartsAtFacilityEvent) ev);
-			return true;
-		} else if (klass == VehicleArrivesAtFacilityEvent.class) {
-			((VehicleArrivesAtFacilityEventHandler) handler).handleEvent((VehicleArrivesAtFacilityEvent) ev);
-			return true;
-		} else if (klass == Event.class) {
-			((BasicEventHandler)handler).handleEvent(ev);
-			return true;
-		}
-		return false;
-	}
-
 	public void printEventHandlers() {
 		log.info("currently registered event-handlers:");
 		for (HandlerData handlerType : this.handlerData) {
@@ -46,6 +46,13 @@ public final class EventsManagerModule extends AbstractModule {
 			bindEventsManager().to(SimStepParallelEventsManagerImpl.class).in(Singleton.class);
 		}
 		bind(EventHandlerRegistrator.class).asEagerSingleton();
+
+		int sampleInterval = getConfig().parallelEventHandling().getHandlerTimingsSampleInterval();
+		if (sampleInterval > 0) {
+			bind(EventHandlerTimings.class).toInstance(new EventHandlerTimings(sampleInterval));
+			bind(EventHandlerTimingsListener.class).asEagerSingleton();
+			addControlerListenerBinding().to(EventHandlerTimingsListener.class);
+		}
 	}
 
 	public static class EventHandlerRegistrator {
@@ -0,0 +1,314 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.internal.MatsimReader;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.events.algorithms.EventWriterColumnar;
+import org.matsim.vehicles.Vehicle;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Replays events written by {@link EventWriterColumnar}. The blocks of the file are memory-mapped, and only the events
+ * of the selected types are decoded, see {@link #setEventTypes(Set)}. Blocks which contain none of them are skipped
+ * without reading their columns.
+ * <br/>
+ * Link enter and leave events and persons entering and leaving vehicles are created directly from the id columns, all
+ * other events are created from their attributes in the same way as by {@link EventsReaderXMLv1}, including the custom
+ * event mappers.
+ */
+public final class EventsReaderColumnar implements MatsimReader {
+
+	private static final Logger log = LogManager.getLogger(EventsReaderColumnar.class);
+
+	private static final int PERSON = 0;
+	private static final int VEHICLE = 1;
+	private static final int LINK = 2;
+
+	private final EventsManager events;
+	private final EventsReaderXMLv1 attributesReader;
+	private Set<String> eventTypes = null;
+
+	// per file:
+	private String[] types;
+	private String[] keys;
+	private String[][] ids;
+	private Id<Person>[] personIds;
+	private Id<Vehicle>[] vehicleIds;
+	private Id<Link>[] linkIds;
+
+	public EventsReaderColumnar(final EventsManager events) {
+		this.events = events;
+		this.attributesReader = new EventsReaderXMLv1(events);
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.attributesReader.addCustomEventMapper(eventType, cem);
+	}
+
+	/**
+	 * Only the events of the given types are passed to the events manager, or all events if the types are null.
+	 */
+	public void setEventTypes(Set<String> eventTypes) {
+		this.eventTypes = eventTypes;
+	}
+
+	/**
+	 * Only the given attributes are copied into generic events, see {@link EventsReaderXMLv1#setAttributeNames(Set)}.
+	 */
+	public void setAttributeNames(Set<String> attributeNames) {
+		this.attributesReader.setAttributeNames(attributeNames);
+	}
+
+	@Override
+	public void readURL(final URL url) {
+		try {
+			readFile(Paths.get(url.toURI()));
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Columnar events can only be read from files, but not from " + url, e);
+		}
+	}
+
+	@Override
+	public void readFile(final String filename) {
+		readFile(Paths.get(filename));
+	}
+
+	@SuppressWarnings("unchecked")
+	public void readFile(final Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16).order(ByteOrder.LITTLE_ENDIAN);
+			byte[] magic = new byte[EventWriterColumnar.MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, EventWriterColumnar.MAGIC)) {
+				throw new IllegalArgumentException(path + " is not a columnar events file.");
+			}
+			int version = header.getInt();
+			if (version != EventWriterColumnar.VERSION) {
+				throw new IllegalArgumentException("Unsupported version " + version + " of columnar events file " + path);
+			}
+
+			long footerPosition = channel.map(FileChannel.MapMode.READ_ONLY, size - 8, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+			ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, footerPosition, size - 8 - footerPosition).order(ByteOrder.LITTLE_ENDIAN);
+			long[] blockPositions = new long[footer.getInt()];
+			for (int b = 0; b < blockPositions.length; b++) {
+				blockPositions[b] = footer.getLong();
+			}
+			this.types = readStrings(footer);
+			this.keys = readStrings(footer);
+			this.ids = new String[EventWriterColumnar.ID_COLUMNS.size()][];
+			for (int c = 0; c < this.ids.length; c++) {
+				this.ids[c] = readStrings(footer);
+			}
+			this.personIds = new Id[this.ids[PERSON].length];
+			this.vehicleIds = new Id[this.ids[VEHICLE].length];
+			this.linkIds = new Id[this.ids[LINK].length];
+
+			boolean[] selected = new boolean[this.types.length];
+			Kind[] kinds = new Kind[this.types.length];
+			for (int t = 0; t < this.types.length; t++) {
+				selected[t] = this.eventTypes == null || this.eventTypes.contains(this.types[t]);
+				kinds[t] = Kind.of(this.types[t]);
+			}
+
+			log.info("reading " + blockPositions.length + " blocks of columnar events from " + path);
+			for (int b = 0; b < blockPositions.length; b++) {
+				long end = b + 1 < blockPositions.length ? blockPositions[b + 1] : footerPosition;
+				ByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockPositions[b], end - blockPositions[b]).order(ByteOrder.LITTLE_ENDIAN);
+				readBlock(block, selected, kinds);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String[] readStrings(ByteBuffer buffer) {
+		String[] strings = new String[buffer.getInt()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = readString(buffer, buffer.getInt());
+		}
+		return strings;
+	}
+
+	private static String readString(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void readBlock(ByteBuffer block, boolean[] selected, Kind[] kinds) {
+		int n = block.getInt();
+		int extrasLength = block.getInt();
+		int numberOfTypes = block.getInt();
+		boolean any = false;
+		for (int t = 0; t < numberOfTypes; t++) {
+			any |= selected[block.getShort()];
+		}
+		if (!any) {
+			return;
+		}
+
+		int position = (12 + 2 * numberOfTypes + 7) & ~7;
+		DoubleBuffer time = slice(block, position).asDoubleBuffer();
+		position += 8 * n;
+		IntBuffer[] idColumns = new IntBuffer[this.ids.length];
+		for (int c = 0; c < idColumns.length; c++) {
+			idColumns[c] = slice(block, position).asIntBuffer();
+			position += 4 * n;
+		}
+		IntBuffer extraOffsets = slice(block, position).asIntBuffer();
+		position += 4 * (n + 1);
+		ShortBuffer type = slice(block, position).asShortBuffer();
+		position += 2 * n;
+		ByteBuffer extras = slice(block, position);
+		extras.limit(extrasLength);
+
+		for (int i = 0; i < n; i++) {
+			int t = type.get(i);
+			if (!selected[t]) {
+				continue;
+			}
+			double now = time.get(i);
+			switch (kinds[t]) {
+				case LINK_ENTER:
+					this.events.processEvent(new LinkEnterEvent(now, vehicleId(idColumns[VEHICLE].get(i)), linkId(idColumns[LINK].get(i))));
+					break;
+				case LINK_LEAVE:
+					this.events.processEvent(new LinkLeaveEvent(now, vehicleId(idColumns[VEHICLE].get(i)), linkId(idColumns[LINK].get(i))));
+					break;
+				case PERSON_ENTERS_VEHICLE:
+					this.events.processEvent(new PersonEntersVehicleEvent(now, personId(idColumns[PERSON].get(i)), vehicleId(idColumns[VEHICLE].get(i))));
+					break;
+				case PERSON_LEAVES_VEHICLE:
+					this.events.processEvent(new PersonLeavesVehicleEvent(now, personId(idColumns[PERSON].get(i)), vehicleId(idColumns[VEHICLE].get(i))));
+					break;
+				default:
+					AttributesImpl atts = new AttributesImpl();
+					addAttribute(atts, Event.ATTRIBUTE_TIME, Double.toString(now));
+					addAttribute(atts, Event.ATTRIBUTE_TYPE, this.types[t]);
+					for (int c = 0; c < idColumns.length; c++) {
+						int id = idColumns[c].get(i);
+						if (id != EventWriterColumnar.NO_ID) {
+							addAttribute(atts, EventWriterColumnar.ID_COLUMNS.get(c), this.ids[c][id]);
+						}
+					}
+					extras.position(extraOffsets.get(i));
+					while (extras.position() < extraOffsets.get(i + 1)) {
+						String key = this.keys[extras.getShort()];
+						addAttribute(atts, key, readString(extras, extras.getInt()));
+					}
+					this.attributesReader.startTag(EventsReaderXMLv1.EVENT, atts, null);
+			}
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer block, int position) {
+		return block.duplicate().position(position).slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static void addAttribute(AttributesImpl atts, String key, String value) {
+		atts.addAttribute("", key, key, "CDATA", value);
+	}
+
+	private Id<Person> personId(int index) {
+		if (index == EventWriterColumnar.NO_ID) {
+			return null;
+		}
+		Id<Person> id = this.personIds[index];
+		if (id == null) {
+			id = Id.createPersonId(this.ids[PERSON][index]);
+			this.personIds[index] = id;
+		}
+		return id;
+	}
+
+	private Id<Vehicle> vehicleId(int index) {
+		if (index == EventWriterColumnar.NO_ID) {
+			return null;
+		}
+		Id<Vehicle> id = this.vehicleIds[index];
+		if (id == null) {
+			id = Id.createVehicleId(this.ids[VEHICLE][index]);
+			this.vehicleIds[index] = id;
+		}
+		return id;
+	}
+
+	private Id<Link> linkId(int index) {
+		if (index == EventWriterColumnar.NO_ID) {
+			return null;
+		}
+		Id<Link> id = this.linkIds[index];
+		if (id == null) {
+			id = Id.createLinkId(this.ids[LINK][index]);
+			this.linkIds[index] = id;
+		}
+		return id;
+	}
+
+	/**
+	 * The event types which are created directly from the columns.
+	 */
+	private enum Kind {
+		LINK_ENTER, LINK_LEAVE, PERSON_ENTERS_VEHICLE, PERSON_LEAVES_VEHICLE, OTHER;
+
+		static Kind of(String type) {
+			if (LinkEnterEvent.EVENT_TYPE.equals(type)) {
+				return LINK_ENTER;
+			} else if (LinkLeaveEvent.EVENT_TYPE.equals(type)) {
+				return LINK_LEAVE;
+			} else if (PersonEntersVehicleEvent.EVENT_TYPE.equals(type)) {
+				return PERSON_ENTERS_VEHICLE;
+			} else if (PersonLeavesVehicleEvent.EVENT_TYPE.equals(type)) {
+				return PERSON_LEAVES_VEHICLE;
+			}
+			return OTHER;
+		}
+	}
+
+}
@@ -27,6 +27,7 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.logging.log4j.LogManager;
@@ -71,7 +72,9 @@ import org.matsim.pt.transitSchedule.api.TransitRoute;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
 import org.matsim.vehicles.Vehicle;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.luben.zstd.ZstdInputStream;
@@ -86,6 +89,8 @@ public final class EventsReaderJson {
 
 	private final EventsManager events;
 	private final Map<String, CustomEventMapper> customEventMappers = new HashMap<>();
+	private Set<String> eventTypes = null;
+	private Set<String> attributeNames = null;
 
 	public EventsReaderJson(final EventsManager events) {
 		this.events = events;
@@ -95,6 +100,26 @@ public final class EventsReaderJson {
 		this.customEventMappers.put(eventType, cem);
 	}
 
+	/**
+	 * Only events of the given types are created and passed to the events manager.  For all other events, only the
+	 * line up to their type is parsed.
+	 *
+	 * @param eventTypes the types to read, or null to read all events
+	 */
+	public void setEventTypes(Set<String> eventTypes) {
+		this.eventTypes = eventTypes;
+	}
+
+	/**
+	 * Only the given attributes are copied into generic events, and thus passed to the custom event mappers.  The time
+	 * and type are always set, and events of the core types are always created completely.
+	 *
+	 * @param attributeNames the attributes to keep, or null to keep all attributes
+	 */
+	public void setAttributeNames(Set<String> attributeNames) {
+		this.attributeNames = attributeNames;
+	}
+
 	void parse(final String filename) throws UncheckedIOException {
 		parse(IOUtils.getBufferedReader(filename), filename);
 	}
@@ -137,10 +162,33 @@ public final class EventsReaderJson {
 	}
 
 	private void parseLine(final String line) throws JsonProcessingException, IOException {
+		if (this.eventTypes != null && !this.eventTypes.contains(readEventType(line))) {
+			return;
+		}
 		JsonNode o = MAPPER.reader().readTree(line);
 		parseEvent(o);
 	}
 
+	/**
+	 * Reads only the fields of the event up to its type, without building the tree of the whole line.
+	 */
+	private static String readEventType(final String line) throws IOException {
+		try (JsonParser parser = MAPPER.getFactory().createParser(line)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				parser.nextToken();
+				if (name.equals("type")) {
+					return parser.getText();
+				}
+				parser.skipChildren();
+			}
+		}
+		return null;
+	}
+
 	private void parseEvent(JsonNode o) {
 		String eventType = o.get("type").asText();
 		double time = o.get("time").asDouble();
@@ -342,6 +390,9 @@ public final class EventsReaderJson {
 				if (key.equals("time") || key.equals("type")) {
 					continue;
 				}
+				if (this.attributeNames != null && !this.attributeNames.contains(key)) {
+					continue;
+				}
 				String value = e.getValue().asText(null);
 				event.getAttributes().put(key, value);
 			}
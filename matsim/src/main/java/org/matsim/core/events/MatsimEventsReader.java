@@ -21,10 +21,12 @@
 package org.matsim.core.events;
 
 import java.io.InputStream;
+import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 import org.apache.logging.log4j.LogManager;
@@ -50,6 +52,8 @@ public final class MatsimEventsReader implements MatsimReader {
 	private final EventsManager events;
 
 	private final Map<String, CustomEventMapper> customEventMappers = new LinkedHashMap<>();
+	private Set<String> eventTypes = null;
+	private Set<String> attributeNames = null;
 
 	public interface CustomEventMapper {
 		Event apply(GenericEvent event);
@@ -68,6 +72,27 @@ public final class MatsimEventsReader implements MatsimReader {
 		this.events = events;
 	}
 
+	/**
+	 * Only events of the given types, as written in the events file, are created and passed to the events manager.
+	 * The readers skip all other events as early as possible, before their ids and attributes are created, so
+	 * analyses which only need a few event types are much faster.
+	 *
+	 * @param eventTypes the types to read, e.g. <code>Set.of(LinkEnterEvent.EVENT_TYPE)</code>, or null to read all events
+	 */
+	public void setEventTypes(Set<String> eventTypes) {
+		this.eventTypes = eventTypes;
+	}
+
+	/**
+	 * Only the given attributes are copied into generic events, and thus passed to the custom event mappers.  The time
+	 * and type are always set, and events of the core types are always created completely.
+	 *
+	 * @param attributeNames the attributes to keep, or null to keep all attributes
+	 */
+	public void setAttributeNames(Set<String> attributeNames) {
+		this.attributeNames = attributeNames;
+	}
+
 	/**
 	 * Parses the specified events file.
 	 *
@@ -77,11 +102,13 @@ public final class MatsimEventsReader implements MatsimReader {
 	public void readFile(final String filename) {
 		String lcFilename = filename.toLowerCase(Locale.ROOT);
 		if (lcFilename.endsWith(".xml") || lcFilename.endsWith(".xml.gz") || lcFilename.endsWith(".xml.zst") || lcFilename.endsWith(".xml.lz4")) {
-			new XmlEventsReader(this.events, this.customEventMappers).readFile(filename );
+			createXmlReader().readFile(filename );
 		} else if (lcFilename.endsWith(".ndjson") || lcFilename.endsWith(".ndjson.gz") || lcFilename.endsWith(".ndjson.zst")) {
-			EventsReaderJson reader = new EventsReaderJson(this.events);
-			customEventMappers.forEach(reader::addCustomEventMapper);
-			reader.parse(filename);
+			createJsonReader().parse(filename);
+		} else if (lcFilename.endsWith(".columnar")) {
+			createColumnarReader().readFile(filename);
+		} else if (isPbFile(filename)) {
+			createPbReader().readFile(filename);
 		} else if (lcFilename.endsWith(".txt") || lcFilename.endsWith(".txt.gz")) {
 			throw new RuntimeException("text events are no longer supported. Please use MATSim 0.6.1 or earlier to read text events.");
 		} else {
@@ -91,33 +118,80 @@ public final class MatsimEventsReader implements MatsimReader {
 
 	@Deprecated // use readStream(InputStream, EventsFileFormat)
 	public void readStream(final InputStream stream) {
-		new XmlEventsReader(this.events, this.customEventMappers).parse(stream );
+		createXmlReader().parse(stream );
 	}
 
 	public void readStream(final InputStream stream, final ControlerConfigGroup.EventsFileFormat format) {
 		switch (format) {
 			case xml:
-				new XmlEventsReader(this.events, this.customEventMappers).parse(stream);
+				createXmlReader().parse(stream);
 				break;
 			case pb:
-				throw new UnsupportedOperationException(
-						"PB (Protobuf) is currently not supported to read from a stream");
+				MatsimReader pbReader = createPbReader();
+				try {
+					pbReader.getClass().getMethod("parse", InputStream.class).invoke(pbReader, stream);
+				} catch (ReflectiveOperationException e) {
+					throw new RuntimeException("Error using the PB reader.", e);
+				}
+				break;
 			case json:
-				EventsReaderJson reader = new EventsReaderJson(this.events);
-				customEventMappers.forEach(reader::addCustomEventMapper);
-				reader.parse(stream);
+				createJsonReader().parse(stream);
 				break;
+			case columnar:
+				throw new UnsupportedOperationException(
+						"Columnar events are memory-mapped, they can only be read from files");
 		}
 	}
 
 	@Override
 	public void readURL( final URL url ) {
 		if (url.getFile().contains(".xml")) {
-			new XmlEventsReader( this.events, this.customEventMappers).readURL( url );
+			createXmlReader().readURL( url );
 		} else if (url.getFile().contains(".ndjson")) {
-			EventsReaderJson reader = new EventsReaderJson(this.events);
-			customEventMappers.forEach(reader::addCustomEventMapper);
-			reader.parse(url);
+			createJsonReader().parse(url);
+		} else if (url.getFile().endsWith(".columnar")) {
+			createColumnarReader().readURL(url);
+		} else if (isPbFile(url.getPath())) {
+			createPbReader().readURL(url);
+		}
+	}
+
+	private static boolean isPbFile(String path) {
+		String lcPath = path.toLowerCase(Locale.ROOT);
+		return lcPath.endsWith(".pb") || lcPath.endsWith(".pb.gz") || lcPath.endsWith(".pb.zst");
+	}
+
+	private XmlEventsReader createXmlReader() {
+		return new XmlEventsReader(this.events, this.customEventMappers, this.eventTypes, this.attributeNames);
+	}
+
+	private EventsReaderJson createJsonReader() {
+		EventsReaderJson reader = new EventsReaderJson(this.events);
+		customEventMappers.forEach(reader::addCustomEventMapper);
+		reader.setEventTypes(this.eventTypes);
+		reader.setAttributeNames(this.attributeNames);
+		return reader;
+	}
+
+	private EventsReaderColumnar createColumnarReader() {
+		EventsReaderColumnar reader = new EventsReaderColumnar(this.events);
+		customEventMappers.forEach(reader::addCustomEventMapper);
+		reader.setEventTypes(this.eventTypes);
+		reader.setAttributeNames(this.attributeNames);
+		return reader;
+	}
+
+	private MatsimReader createPbReader() {
+		// The pb dependency is optional at the moment so we search it first
+		try {
+			Class<?> readerClass = ClassLoader.getSystemClassLoader().loadClass("org.matsim.contrib.protobuf.EventReaderPB");
+			Constructor<?> constructor = readerClass.getConstructor(EventsManager.class, Map.class);
+			MatsimReader reader = (MatsimReader) constructor.newInstance(this.events, this.customEventMappers);
+			readerClass.getMethod("setEventTypes", Set.class).invoke(reader, this.eventTypes);
+			readerClass.getMethod("setAttributeNames", Set.class).invoke(reader, this.attributeNames);
+			return reader;
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("Error using the PB reader. Please make sure protobuf contrib is on the classpath.", e);
 		}
 	}
 
@@ -128,10 +202,14 @@ public final class MatsimEventsReader implements MatsimReader {
 		private MatsimXmlEventsParser delegate = null;
 
 		private final Map<String, CustomEventMapper> map ;
+		private final Set<String> eventTypes;
+		private final Set<String> attributeNames;
 
-		private XmlEventsReader( final EventsManager events, Map<String, CustomEventMapper> map ) {
+		private XmlEventsReader( final EventsManager events, Map<String, CustomEventMapper> map, Set<String> eventTypes, Set<String> attributeNames ) {
 			this.events = events;
 			this.map = map;
+			this.eventTypes = eventTypes;
+			this.attributeNames = attributeNames;
 			this.setValidating(false); // events-files have no DTD, thus they cannot validate
 			setDoctype("events_v1.dtd"); // manually set a doctype, otherwise delegate would not be initialized
 		}
@@ -162,8 +240,11 @@ public final class MatsimEventsReader implements MatsimReader {
 			super.setDoctype(doctype);
 			// Currently the only events-type is v1
 			if (EVENTS_V1.equals(doctype)) {
-				this.delegate = new EventsReaderXMLv1(this.events);
-				map.forEach(delegate::addCustomEventMapper);
+				EventsReaderXMLv1 reader = new EventsReaderXMLv1(this.events);
+				map.forEach(reader::addCustomEventMapper);
+				reader.setEventTypes(this.eventTypes);
+				reader.setAttributeNames(this.attributeNames);
+				this.delegate = reader;
 				log.info("using events_v1-reader.");
 			} else {
 				throw new IllegalArgumentException("Doctype \"" + doctype + "\" not known.");
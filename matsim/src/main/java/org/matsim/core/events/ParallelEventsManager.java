@@ -38,7 +38,7 @@ import org.matsim.core.events.handler.EventHandler;
 /**
  * @author cdobler
  */
-public final class ParallelEventsManager implements EventsManager {
+public final class ParallelEventsManager implements BufferableEventsManager {
 
 	private final static Logger log = LogManager.getLogger(ParallelEventsManager.class);
 
@@ -56,6 +56,8 @@ public final class ParallelEventsManager implements EventsManager {
 	private final int eventsQueueSize;
 	//private final int eventsQueueSize = 1048576 * 32;
 	private final int eventsArraySize;
+	private EventHandlerTimings handlerTimings = null;
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
 
 	@Inject
 	ParallelEventsManager(Config config) {
@@ -87,6 +89,16 @@ public final class ParallelEventsManager implements EventsManager {
 		this.uncaughtExceptionHandler = new ExceptionHandler();
 	}
 
+	/**
+	 * The timings are only collected if the handlers share threads, not with one thread per handler.
+	 */
+	/*package*/ void setHandlerTimings(EventHandlerTimings handlerTimings) {
+		if (this.oneThreadPerHandler && handlerTimings != null) {
+			log.warn("the time spent in the event handlers is not collected with one thread per handler.");
+		}
+		this.handlerTimings = handlerTimings;
+	}
+
 	private void initialize() {
 		int numHandlers = oneThreadPerHandler ? this.eventsHandlers.size() : Math.min(this.numOfThreads, this.eventsHandlers.size());
 		this.distributor = new Distributor(new ArrayList<ProcessEventsRunnable>(), eventQueue);
@@ -100,7 +112,9 @@ public final class ParallelEventsManager implements EventsManager {
 		} else {
 			// TODO - check if this slow path is correct
 			for (int i = 0; i < this.numOfThreads; i++) {
-				this.eventsManagers.add(new EventsManagerImpl());
+				EventsManagerImpl eventsManager = new EventsManagerImpl();
+				eventsManager.setHandlerTimings(this.handlerTimings);
+				this.eventsManagers.add(eventsManager);
 			}
 			for (int i = 0; i < this.eventsHandlers.size(); i++) {
 				this.eventsManagers.get(i % numOfThreads).addHandler(this.eventsHandlers.get(i));
@@ -146,8 +160,17 @@ public final class ParallelEventsManager implements EventsManager {
 
 	}
 
+	@Override
+	public boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer) {
+		this.threadLocalEventsBuffer = buffer;
+		return true;
+	}
+
 	@Override
 	public void processEvent(final Event event) {
+		if (this.threadLocalEventsBuffer != null && this.threadLocalEventsBuffer.add(event)) {
+			return;
+		}
 		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
 
 		EventArray array = new EventArray(1);
@@ -19,6 +19,9 @@
 package org.matsim.core.events;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
@@ -26,7 +29,6 @@ import javax.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.events.Event;
-import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.events.handler.EventHandler;
 
@@ -54,11 +56,13 @@ import org.matsim.core.events.handler.EventHandler;
  * (not really needed, but can make performance slightly faster in larger
  * simulations).
  *
+ * Each event is only passed to the threads which have a handler for it.
+ *
  * @see <a href="http://www.matsim.org/node/238">http://www.matsim.org/node/238</a>
  * @author rashid_waraich
  *
  */
-public final class ParallelEventsManagerImpl implements EventsManager {
+public final class ParallelEventsManagerImpl implements BufferableEventsManager {
 
 	private boolean parallelMode = true;
 	private int numberOfThreads;
@@ -66,8 +70,13 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	private ProcessEventThread[] eventsProcessThread = null;
 	private Thread[] threads = null;
 	private int numberOfAddedEventsHandler = 0;
+	/**
+	 * The indices of the threads with handlers for each event class.
+	 */
+	private final Map<Class<? extends Event>, int[]> threadsForClass = new ConcurrentHashMap<>();
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
 	private final ExceptionHandler uncaughtExceptionHandler = new ExceptionHandler(hadException);
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
 
 	private final static Logger log = LogManager.getLogger(ParallelEventsManagerImpl.class);
 
@@ -108,25 +117,47 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		init(numberOfThreads);
 	}
 
+	@Override
+	public boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer) {
+		this.threadLocalEventsBuffer = buffer;
+		return true;
+	}
+
 	@Override
 	public void processEvent(final Event event) {
+		if (this.threadLocalEventsBuffer != null && this.threadLocalEventsBuffer.add(event)) {
+			return;
+		}
+		int[] threadIndices = threadsForClass.computeIfAbsent(event.getClass(), this::findThreadsForClass);
 		if (parallelMode) {
-			for (int i = 0; i < eventsProcessThread.length; i++) {
+			for (int i : threadIndices) {
 				eventsProcessThread[i].processEvent(event);
 			}
 		} else {
-			for (int i = 0; i < eventsProcessThread.length; i++) {
-				eventsProcessThread[i].getEvents().processEvent(event);
+			for (int i : threadIndices) {
+				events[i].processEvent(event);
 			}
 		}
 	}
 
+	private int[] findThreadsForClass(Class<? extends Event> eventClass) {
+		int[] threadIndices = new int[events.length];
+		int count = 0;
+		for (int i = 0; i < events.length; i++) {
+			if (events[i].hasHandlersForClass(eventClass)) {
+				threadIndices[count++] = i;
+			}
+		}
+		return Arrays.copyOf(threadIndices, count);
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		synchronized (this) {
 			log.info("adding Event-Handler " + handler.getClass().getName() + " to thread " + numberOfAddedEventsHandler);
 			events[numberOfAddedEventsHandler].addHandler(handler);
 			numberOfAddedEventsHandler = (numberOfAddedEventsHandler + 1) % numberOfThreads;
+			threadsForClass.clear();
 		}
 	}
 
@@ -145,6 +176,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 			for (int i = 0; i < events.length; i++) {
 				events[i].removeHandler(handler);
 			}
+			threadsForClass.clear();
 		}
 	}
 
@@ -168,6 +200,12 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	/*package*/ void setHandlerTimings(EventHandlerTimings handlerTimings) {
+		for (EventsManagerImpl eventsManager : this.events) {
+			eventsManager.setHandlerTimings(handlerTimings);
+		}
+	}
+
 	// When one simulation iteration is finish, it must call this method,
 	// so that it can communicate to the threads, that the simulation is
 	// finished and that it can await the event handler threads.
@@ -0,0 +1,324 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.internal.MatsimReader;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.utils.io.IOUtils;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Reads xml events files in parallel. One thread decompresses the file and splits it into chunks of event lines, the
+ * chunks are parsed on a pool of threads, and the events are passed to the {@link EventsManager} by the calling thread
+ * in the order of the file. The events are created in the same way as by {@link EventsReaderXMLv1}, including the
+ * custom event mappers, which must thus be thread-safe.
+ * <br/>
+ * The reader relies on the layout written by {@link org.matsim.core.events.algorithms.EventWriterXML}, i.e. each event
+ * is one <code>event</code> element that starts on its own line. Since the ids are created by several threads, ids
+ * that do not exist before reading the file may get different indices than with the serial reader.
+ */
+public final class ParallelEventsReaderXML implements MatsimReader {
+
+	private static final Logger log = LogManager.getLogger(ParallelEventsReaderXML.class);
+
+	private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	private static final String EVENT_TAG = "<" + EventsReaderXMLv1.EVENT;
+	private static final String EVENTS_TAG = "<events";
+
+	/**
+	 * Marks the end of the file in the queue of chunks.
+	 */
+	private static final Future<EventArray> END_OF_FILE = CompletableFuture.completedFuture(null);
+
+	private final EventsManager events;
+	private final int numberOfThreads;
+	private final int chunkSize;
+	private final Map<String, CustomEventMapper> customEventMappers = new LinkedHashMap<>();
+
+	public ParallelEventsReaderXML(final EventsManager events, final int numberOfThreads) {
+		this(events, numberOfThreads, DEFAULT_CHUNK_SIZE);
+	}
+
+	/*package*/ ParallelEventsReaderXML(final EventsManager events, final int numberOfThreads, final int chunkSize) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1, but is " + numberOfThreads);
+		}
+		this.events = events;
+		this.numberOfThreads = numberOfThreads;
+		this.chunkSize = chunkSize;
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.customEventMappers.put(eventType, cem);
+	}
+
+	@Override
+	public void readFile(final String filename) {
+		try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+			parse(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void readURL(final URL url) {
+		try (BufferedReader reader = IOUtils.getBufferedReader(url)) {
+			parse(reader);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads all events from the stream, which is not closed afterwards.
+	 */
+	public void parse(final InputStream stream) {
+		parse(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+	}
+
+	private void parse(final BufferedReader reader) {
+		log.info("reading events with " + this.numberOfThreads + " threads.");
+		AtomicInteger count = new AtomicInteger();
+		// one more thread, which reads the file
+		ExecutorService pool = Executors.newFixedThreadPool(this.numberOfThreads + 1, r -> {
+			Thread thread = new Thread(r, "EventsReaderThread_" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// bounds the number of events in memory, while keeping all threads busy
+		BlockingQueue<Future<EventArray>> chunks = new ArrayBlockingQueue<>(2 * this.numberOfThreads);
+		Map<String, CustomEventMapper> mappers = new LinkedHashMap<>(this.customEventMappers);
+
+		try {
+			pool.execute(() -> readChunks(reader, pool, chunks, mappers));
+			EventArray chunk;
+			while ((chunk = chunks.take().get()) != null) {
+				this.events.processEvents(chunk);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Splits the file into chunks of event elements and submits them for parsing, in the order of the file.
+	 */
+	private void readChunks(BufferedReader reader, ExecutorService pool, BlockingQueue<Future<EventArray>> chunks,
+							Map<String, CustomEventMapper> mappers) {
+		try {
+			try {
+				boolean isEventsFile = false;
+				List<String> lines = new ArrayList<>(this.chunkSize);
+				StringBuilder element = null;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (element != null) {
+						// an event element spanning several lines
+						element.append(' ').append(line);
+						if (endsElement(line)) {
+							lines.add(element.toString());
+							element = null;
+						}
+					} else {
+						int start = 0;
+						while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+							start++;
+						}
+						if (isTag(line, start, EVENT_TAG)) {
+							if (endsElement(line)) {
+								lines.add(line);
+							} else {
+								element = new StringBuilder(line);
+							}
+						} else if (isTag(line, start, EVENTS_TAG)) {
+							isEventsFile = true;
+						}
+					}
+
+					if (lines.size() == this.chunkSize) {
+						List<String> chunk = lines;
+						chunks.put(pool.submit(() -> parseChunk(chunk, mappers)));
+						lines = new ArrayList<>(this.chunkSize);
+					}
+				}
+				if (!isEventsFile) {
+					throw new IllegalArgumentException("The file does not contain an events element.");
+				}
+				if (!lines.isEmpty()) {
+					List<String> chunk = lines;
+					chunks.put(pool.submit(() -> parseChunk(chunk, mappers)));
+				}
+				chunks.put(END_OF_FILE);
+			} catch (IOException e) {
+				chunks.put(CompletableFuture.failedFuture(new UncheckedIOException(e)));
+			} catch (Throwable e) {
+				// also errors, as the consumer would wait for the end of the file otherwise
+				chunks.put(CompletableFuture.failedFuture(e));
+			}
+		} catch (InterruptedException e) {
+			// the reading was aborted by the consumer
+		}
+	}
+
+	private static boolean isTag(String line, int start, String tag) {
+		int end = start + tag.length();
+		return line.startsWith(tag, start) && (end == line.length() || Character.isWhitespace(line.charAt(end))
+				|| line.charAt(end) == '/' || line.charAt(end) == '>');
+	}
+
+	private static boolean endsElement(String line) {
+		int end = line.length() - 1;
+		while (end >= 0 && Character.isWhitespace(line.charAt(end))) {
+			end--;
+		}
+		return end >= 0 && line.charAt(end) == '>';
+	}
+
+	private static EventArray parseChunk(List<String> lines, Map<String, CustomEventMapper> mappers) {
+		EventArray chunk = new EventArray(lines.size());
+		EventsReaderXMLv1 delegate = new EventsReaderXMLv1(chunk::add);
+		mappers.forEach(delegate::addCustomEventMapper);
+
+		AttributesImpl atts = new AttributesImpl();
+		for (String line : lines) {
+			atts.clear();
+			parseAttributes(line, atts);
+			delegate.startTag(EventsReaderXMLv1.EVENT, atts, null);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Parses the attributes of one event element, including the escaping of xml.
+	 */
+	/*package*/ static void parseAttributes(String element, AttributesImpl atts) {
+		int pos = element.indexOf(EVENT_TAG) + EVENT_TAG.length();
+		int length = element.length();
+		while (true) {
+			while (pos < length && Character.isWhitespace(element.charAt(pos))) {
+				pos++;
+			}
+			if (pos >= length) {
+				throw new IllegalArgumentException("Unterminated event element: " + element);
+			}
+			char c = element.charAt(pos);
+			if (c == '/' || c == '>') {
+				return;
+			}
+
+			int nameStart = pos;
+			while (pos < length && element.charAt(pos) != '=' && !Character.isWhitespace(element.charAt(pos))) {
+				pos++;
+			}
+			String name = element.substring(nameStart, pos);
+			while (pos < length && Character.isWhitespace(element.charAt(pos))) {
+				pos++;
+			}
+			if (pos >= length || element.charAt(pos) != '=') {
+				throw new IllegalArgumentException("Missing value of attribute " + name + " in event element: " + element);
+			}
+			pos++;
+			while (pos < length && Character.isWhitespace(element.charAt(pos))) {
+				pos++;
+			}
+			char quote = pos < length ? element.charAt(pos) : ' ';
+			int valueEnd = quote == '"' || quote == '\'' ? element.indexOf(quote, pos + 1) : -1;
+			if (valueEnd < 0) {
+				throw new IllegalArgumentException("Malformed value of attribute " + name + " in event element: " + element);
+			}
+			atts.addAttribute("", name, name, "CDATA", unescape(element, pos + 1, valueEnd));
+			pos = valueEnd + 1;
+		}
+	}
+
+	private static String unescape(String element, int start, int end) {
+		int amp = element.indexOf('&', start);
+		if (amp < 0 || amp >= end) {
+			return element.substring(start, end);
+		}
+		StringBuilder value = new StringBuilder(end - start);
+		int pos = start;
+		while (amp >= 0 && amp < end) {
+			value.append(element, pos, amp);
+			int semicolon = element.indexOf(';', amp);
+			if (semicolon < 0 || semicolon >= end) {
+				throw new IllegalArgumentException("Unterminated entity in event element: " + element);
+			}
+			String entity = element.substring(amp + 1, semicolon);
+			if (entity.equals("lt")) {
+				value.append('<');
+			} else if (entity.equals("gt")) {
+				value.append('>');
+			} else if (entity.equals("amp")) {
+				value.append('&');
+			} else if (entity.equals("quot")) {
+				value.append('"');
+			} else if (entity.equals("apos")) {
+				value.append('\'');
+			} else if (entity.startsWith("#x")) {
+				value.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+			} else if (entity.startsWith("#")) {
+				value.appendCodePoint(Integer.parseInt(entity.substring(1)));
+			} else {
+				throw new IllegalArgumentException("Unknown entity &" + entity + "; in event element: " + element);
+			}
+			pos = semicolon + 1;
+			amp = element.indexOf('&', pos);
+		}
+		value.append(element, pos, end);
+		return value.toString();
+	}
+
+}
@@ -20,8 +20,6 @@ package org.matsim.core.events;
 
 import java.lang.InterruptedException;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -30,13 +28,19 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.gbl.Gbl;
 
 /**
- * The wrapper around the Events class for allowing parallelization.
+ * The wrapper around the Events class for allowing parallelization. The events are passed to the thread in arrays, so
+ * that the queue is only locked once per array.
  *
  * @author rashid_waraich
  */
 /*package*/ class ProcessEventThread implements Runnable {
-	private final List<Event> preInputBuffer;
-	private final BlockingQueue<Event> eventQueue;
+	/**
+	 * The arrays are not reused, so they are not allocated with the maximum length, which can be large.
+	 */
+	private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+	private EventArray preInputBuffer;
+	private final BlockingQueue<EventArray> eventQueue;
 	private final EventsManager events;
 	private final int preInputBufferMaxLength;
 
@@ -45,8 +49,12 @@ import org.matsim.core.gbl.Gbl;
 			final int preInputBufferMaxLength) {
 		this.events = events;
 		this.preInputBufferMaxLength = preInputBufferMaxLength;
-		eventQueue = new LinkedBlockingQueue<Event>();
-		preInputBuffer = new ArrayList<Event>( preInputBufferMaxLength + 1);
+		eventQueue = new LinkedBlockingQueue<EventArray>();
+		preInputBuffer = newPreInputBuffer();
+	}
+
+	private EventArray newPreInputBuffer() {
+		return new EventArray( Math.min( preInputBufferMaxLength + 1, MAX_INITIAL_CAPACITY ) );
 	}
 
 	public synchronized void processEvent(final Event event) {
@@ -61,8 +69,22 @@ import org.matsim.core.gbl.Gbl;
 	}
 
 	private void emptyPreBuffer() {
-		eventQueue.addAll( preInputBuffer );
-		preInputBuffer.clear();
+		if (preInputBuffer.size() > 0) {
+			eventQueue.add( preInputBuffer );
+			preInputBuffer = newPreInputBuffer();
+		}
+	}
+
+	/**
+	 * @return whether events were added after the LastEventOfIteration, which then was moved behind them
+	 */
+	private synchronized boolean postponeLastEvent(final Event lastEvent) {
+		if (eventQueue.isEmpty() && preInputBuffer.size() == 0) {
+			return false;
+		}
+		processEvent(lastEvent);
+		emptyPreBuffer();
+		return true;
 	}
 
 	@Override
@@ -73,22 +95,23 @@ import org.matsim.core.gbl.Gbl;
 				// take waits for an element to exist before returning:
 				//  - thread sleeps until there is an event to process
 				//  - we do not have to bother checking if the element exists
-				Event nextEvent = eventQueue.take();
-				if (nextEvent instanceof LastEventOfIteration) {
-					Gbl.printCurrentThreadCpuTime();
-					
-					// if there are more events generated after end of simulation 
-					// (generated in events handler), process them before stopping events handling.
-					// in order to do this, LastEventOfIteration is moved to the back of the queue.
-					if (eventQueue.size()>0){
-						processEvent(nextEvent);
-						emptyPreBuffer();
-						nextEvent = eventQueue.take();
-					} else {
+				EventArray nextEvents = eventQueue.take();
+				Event[] array = nextEvents.array();
+				for (int i = 0; i < nextEvents.size(); i++) {
+					Event nextEvent = array[i];
+					if (nextEvent instanceof LastEventOfIteration) {
+						Gbl.printCurrentThreadCpuTime();
+
+						// if there are more events generated after end of simulation
+						// (generated in events handler), process them before stopping events handling.
+						// in order to do this, LastEventOfIteration is moved to the back of the queue.
+						if (postponeLastEvent(nextEvent)) {
+							continue;
+						}
 						return;
 					}
+					getEvents().processEvent(nextEvent);
 				}
-				getEvents().processEvent(nextEvent);
 			}
 		}
 		catch ( InterruptedException e ) {
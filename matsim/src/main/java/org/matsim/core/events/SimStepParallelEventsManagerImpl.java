@@ -29,6 +29,8 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 
@@ -45,14 +47,23 @@ import org.matsim.core.gbl.Gbl;
  * When a Time Step of the QSim ends, all Events that have been created
  * in that Time Step are processed before the simulation can go on.
  * This is necessary e.g. when using Within-day Replanning.
+ * <p>
+ * The number of events waiting to be processed can be limited by
+ * {@link ParallelEventHandlingConfigGroup#getMaxBufferedEvents()}, which is
+ * not the case by default. With a limit, if the handlers fall behind, the mobsim thread waits until they have caught up,
+ * so the memory used by the events does not grow with the length of the
+ * peak hours. The high-water mark of the buffer and the time the mobsim
+ * waited are logged at the end of each iteration.
  *
  * @author cdobler
  */
-class SimStepParallelEventsManagerImpl implements EventsManager {
+class SimStepParallelEventsManagerImpl implements BufferableEventsManager {
 
 	private final static Logger log = LogManager.getLogger(SimStepParallelEventsManagerImpl.class);
 
 	private final int numOfThreads;
+	private final BufferedEvents bufferedEvents;
+	private Thread[] threads;
 	private CyclicBarrier simStepEndBarrier;
 	private CyclicBarrier iterationEndBarrier;
     private ProcessEventsRunnable[] runnables;
@@ -65,10 +76,11 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 	private AtomicLong counter;
 	private AtomicReference<Throwable> hadException = new AtomicReference<>();
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
 
 	@Inject
 	SimStepParallelEventsManagerImpl(ParallelEventHandlingConfigGroup config) {
-		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1);
+		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1, config.getMaxBufferedEvents());
 	}
 
     public SimStepParallelEventsManagerImpl() {
@@ -76,8 +88,16 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	}
 
 	public SimStepParallelEventsManagerImpl(int numOfThreads) {
+		this(numOfThreads, new ParallelEventHandlingConfigGroup().getMaxBufferedEvents());
+	}
+
+	/**
+	 * @param maxBufferedEvents the maximum number of events waiting to be processed, 0 for no limit
+	 */
+	public SimStepParallelEventsManagerImpl(int numOfThreads, int maxBufferedEvents) {
 		this.numOfThreads = numOfThreads;
-		log.info("number of threads=" + numOfThreads );
+		this.bufferedEvents = new BufferedEvents(maxBufferedEvents > 0 ? maxBufferedEvents : Long.MAX_VALUE);
+		log.info("number of threads=" + numOfThreads + ", max buffered events=" + (maxBufferedEvents > 0 ? maxBufferedEvents : "unlimited"));
 		init();
 	}
 
@@ -93,11 +113,29 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
 	}
 
+	@Override
+	public boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer) {
+		this.threadLocalEventsBuffer = buffer;
+		return true;
+	}
+
 	@Override
 	public void processEvent(final Event event) {
+		if (this.threadLocalEventsBuffer != null && this.threadLocalEventsBuffer.add(event)) {
+			return;
+		}
 		this.counter.incrementAndGet();
 
 		if (parallelMode) {
+			/*
+			 * Only the mobsim waits for the handlers to catch up. Events created by the handlers
+			 * themselves are always accepted, otherwise the events processing threads could block
+			 * each other.
+			 */
+			if (bufferedEvents.isFull() && !isEventsProcessingThread()) {
+				bufferedEvents.awaitCapacity(hadException);
+			}
+			bufferedEvents.added();
 			// pass it to the event queue of the first event processing thread, it will pass it further
 			runnables[0].processEvent(event);
 		} else {
@@ -157,14 +195,19 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 		hadException = new AtomicReference<>();
         ExceptionHandler uncaughtExceptionHandler = new ExceptionHandler(hadException, waitForEmptyQueuesBarrier,
-                simStepEndBarrier, iterationEndBarrier);
+                simStepEndBarrier, iterationEndBarrier, bufferedEvents);
 
+		bufferedEvents.reset();
 		runnables = new ProcessEventsRunnable[numOfThreads];
+		threads = new Thread[numOfThreads];
 		for (int i = 0; i < numOfThreads; i++) {
+			// the last thread removes the events from the buffer, as they are passed through all threads
 			ProcessEventsRunnable processEventsRunnable = new ProcessEventsRunnable(eventsManagers[i], processedEventsChecker,
-                    waitForEmptyQueuesBarrier, simStepEndBarrier, iterationEndBarrier, eventsQueues.get(i), eventsQueues.get(i + 1));
+                    waitForEmptyQueuesBarrier, simStepEndBarrier, iterationEndBarrier, eventsQueues.get(i), eventsQueues.get(i + 1),
+					i == numOfThreads - 1 ? bufferedEvents : null);
 			runnables[i] = processEventsRunnable;
 			Thread thread = new Thread(processEventsRunnable);
+			threads[i] = thread;
 			thread.setDaemon(true);
 			thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
 			thread.setName(ProcessEventsRunnable.class.toString() + i);
@@ -211,6 +254,9 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		delegate.finishProcessing();
 		for (EventsManager eventsManager : this.eventsManagers) eventsManager.finishProcessing();
 
+		log.info(String.format("buffered events: high-water mark %d events, mobsim waited %d times for %.3f s for the event handlers",
+				bufferedEvents.getHighWaterMark(), bufferedEvents.getStalls(), bufferedEvents.getStallNanos() / 1e9));
+
 		/*
 		 * After the simulation Events are processed in
 		 * the Main Thread.
@@ -247,6 +293,119 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		}
     }
 
+	/*package*/ void setHandlerTimings(EventHandlerTimings handlerTimings) {
+		this.delegate.setHandlerTimings(handlerTimings);
+		for (EventsManagerImpl eventsManager : this.eventsManagers) {
+			eventsManager.setHandlerTimings(handlerTimings);
+		}
+	}
+
+	private boolean isEventsProcessingThread() {
+		Thread current = Thread.currentThread();
+		for (Thread thread : this.threads) {
+			if (thread == current) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the maximum number of events which were waiting to be processed during the last iteration
+	 */
+	/*package*/ long getBufferHighWaterMark() {
+		return this.bufferedEvents.getHighWaterMark();
+	}
+
+	/**
+	 * @return the time in nanoseconds the mobsim waited for the event handlers during the last iteration
+	 */
+	/*package*/ long getBufferStallNanos() {
+		return this.bufferedEvents.getStallNanos();
+	}
+
+	/**
+	 * Counts the events between the mobsim and the last events processing thread, and lets the mobsim
+	 * wait if there are too many.
+	 */
+	private static class BufferedEvents {
+
+		private final long capacity;
+		private final AtomicLong size = new AtomicLong();
+		private final AtomicLong highWaterMark = new AtomicLong();
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition notFull = lock.newCondition();
+		private final AtomicLong stalls = new AtomicLong();
+		private final AtomicLong stallNanos = new AtomicLong();
+
+		BufferedEvents(long capacity) {
+			this.capacity = capacity;
+		}
+
+		void reset() {
+			this.size.set(0);
+			this.highWaterMark.set(0);
+			this.stalls.set(0);
+			this.stallNanos.set(0);
+		}
+
+		boolean isFull() {
+			return this.size.get() >= this.capacity;
+		}
+
+		void added() {
+			long size = this.size.incrementAndGet();
+			if (size > this.highWaterMark.get()) {
+				this.highWaterMark.accumulateAndGet(size, Math::max);
+			}
+		}
+
+		void removed() {
+			// only signal when the buffer is no longer full, not for every event
+			if (this.size.decrementAndGet() == this.capacity - 1) {
+				wakeUp();
+			}
+		}
+
+		void wakeUp() {
+			this.lock.lock();
+			try {
+				this.notFull.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		void awaitCapacity(AtomicReference<Throwable> hadException) {
+			long start = System.nanoTime();
+			this.lock.lock();
+			try {
+				while (isFull() && hadException.get() == null) {
+					this.notFull.await();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} finally {
+				this.lock.unlock();
+			}
+			this.stalls.incrementAndGet();
+			this.stallNanos.addAndGet(System.nanoTime() - start);
+		}
+
+		long getHighWaterMark() {
+			return this.highWaterMark.get();
+		}
+
+		long getStalls() {
+			return this.stalls.get();
+		}
+
+		long getStallNanos() {
+			return this.stallNanos.get();
+		}
+	}
+
 	private static class ProcessEventsRunnable implements Runnable {
 
 		private final EventsManager eventsManager;
@@ -256,11 +415,13 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		private final CyclicBarrier iterationEndBarrier;
 		private final Queue<Event> eventsQueue;
 		private final Queue<Event> nextEventsQueue;
+		private final BufferedEvents bufferedEvents;
 		private double lastEventTime = 0.0;
 
 		public ProcessEventsRunnable(EventsManager eventsManager, ProcessedEventsChecker processedEventsChecker,
 				CyclicBarrier waitForEmptyQueuesBarrier,CyclicBarrier simStepEndBarrier,
-				CyclicBarrier iterationEndBarrier, Queue<Event> eventsQueue, Queue<Event> nextEventsQueue) {
+				CyclicBarrier iterationEndBarrier, Queue<Event> eventsQueue, Queue<Event> nextEventsQueue,
+				BufferedEvents bufferedEvents) {
 			this.eventsManager = eventsManager;
 			this.processedEventsChecker = processedEventsChecker;
 			this.waitForEmptyQueuesBarrier = waitForEmptyQueuesBarrier;
@@ -268,6 +429,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 			this.iterationEndBarrier = iterationEndBarrier;
 			this.eventsQueue = eventsQueue;
 			this.nextEventsQueue = nextEventsQueue;
+			this.bufferedEvents = bufferedEvents;
 		}
 
 		@Override
@@ -284,6 +446,9 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 				lastEventTime = 0.0;
 				while (true) {
 					Event event = ((LinkedBlockingQueue<Event>) eventsQueue).take();
+					if (bufferedEvents != null) {
+						bufferedEvents.removed();
+					}
 
 					/*
 					 * Check whether the events are ordered chronologically.
@@ -419,10 +584,12 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		private final CyclicBarrier simStepEndBarrier;
 		private final CyclicBarrier iterationEndBarrier;
 		private final CyclicBarrier waitForEmptyQueuesBarrier;
+		private final BufferedEvents bufferedEvents;
 
 		public ExceptionHandler(final AtomicReference<Throwable> hadException, CyclicBarrier waitForEmptyQueuesBarrier,
-				CyclicBarrier simStepEndBarrier, CyclicBarrier iterationEndBarrier) {
+				CyclicBarrier simStepEndBarrier, CyclicBarrier iterationEndBarrier, BufferedEvents bufferedEvents) {
 			this.hadException = hadException;
+			this.bufferedEvents = bufferedEvents;
 			this.waitForEmptyQueuesBarrier = waitForEmptyQueuesBarrier;
 			this.simStepEndBarrier = simStepEndBarrier;
 			this.iterationEndBarrier = iterationEndBarrier;
@@ -446,6 +613,8 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 			this.simStepEndBarrier.reset();
 			this.iterationEndBarrier.reset();
 			this.waitForEmptyQueuesBarrier.reset();
+			// the mobsim may wait for the buffer, which will not be emptied anymore
+			this.bufferedEvents.wakeUp();
 		}
 
 	}
@@ -37,9 +37,10 @@ import org.matsim.core.events.handler.EventHandler;
  * @author dgrether
  *
  */
-class SynchronizedEventsManagerImpl implements EventsManager {
+class SynchronizedEventsManagerImpl implements BufferableEventsManager {
 
 	private final EventsManager delegate;
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
 
 	public SynchronizedEventsManagerImpl(EventsManager eventsManager){
 		this.delegate = eventsManager;
@@ -50,9 +51,26 @@ class SynchronizedEventsManagerImpl implements EventsManager {
 		this.delegate.addHandler(handler);
 	}
 
+	/**
+	 * Also installs the buffer into the delegate, as parts of the mobsim pass their events to the delegate directly.
+	 */
 	@Override
-	public synchronized void processEvent(Event event) {
-		this.delegate.processEvent(event);
+	public boolean setThreadLocalEventsBuffer(ThreadLocalEventsBuffer buffer) {
+		this.threadLocalEventsBuffer = buffer;
+		if (this.delegate instanceof BufferableEventsManager) {
+			return ((BufferableEventsManager) this.delegate).setThreadLocalEventsBuffer(buffer);
+		}
+		return false;
+	}
+
+	@Override
+	public void processEvent(Event event) {
+		if (this.threadLocalEventsBuffer != null && this.threadLocalEventsBuffer.add(event)) {
+			return;
+		}
+		synchronized (this) {
+			this.delegate.processEvent(event);
+		}
 	}
 	
 	@Override
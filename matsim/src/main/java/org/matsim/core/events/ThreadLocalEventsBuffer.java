@@ -0,0 +1,43 @@
+package org.matsim.core.events;
+
+import org.matsim.api.core.v01.events.Event;
+
+/**
+ * Lets the threads of a parallel mobsim keep the events they create to themselves for a while, instead of passing them
+ * to the shared events manager one by one.  The buffer is installed into an events manager that supports it (see
+ * {@link BufferableEventsManager}), and from then on, while a thread has set an {@link EventArray} here, the events
+ * manager only adds the events processed on that thread to the array.  The owner of the buffer is responsible for
+ * passing them on later, from a thread without an array and in an order of its choice, e.g. via {@link
+ * org.matsim.core.api.experimental.events.EventsManager#processEvents(EventArray)}.
+ */
+public final class ThreadLocalEventsBuffer {
+
+	private final ThreadLocal<EventArray> buffers = new ThreadLocal<>();
+
+	/**
+	 * From now on, events processed on the current thread end up in <code>buffer</code>.
+	 */
+	public void set(EventArray buffer) {
+		this.buffers.set(buffer);
+	}
+
+	/**
+	 * From now on, events processed on the current thread are handled directly again.
+	 */
+	public void remove() {
+		this.buffers.remove();
+	}
+
+	/**
+	 * @return true if the event was added to the array of the current thread, false if there is none
+	 */
+	public boolean add(Event event) {
+		EventArray buffer = this.buffers.get();
+		if (buffer == null) {
+			return false;
+		}
+		buffer.add(event);
+		return true;
+	}
+
+}
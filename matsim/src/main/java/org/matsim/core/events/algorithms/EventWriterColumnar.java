@@ -0,0 +1,270 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events.algorithms;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.HasLinkId;
+import org.matsim.api.core.v01.events.HasPersonId;
+import org.matsim.api.core.v01.events.HasVehicleId;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+/**
+ * Writes events in a columnar binary format, which can be memory-mapped by
+ * {@link org.matsim.core.events.EventsReaderColumnar} and replayed without parsing the events that are not needed.
+ * <br/>
+ * The events are written in blocks of up to {@link #BLOCK_SIZE} events. Each block stores the time, a type code and the
+ * indices of the person, vehicle and link ids of its events in separate columns, all other attributes of the events
+ * are written as key code and string value. The type codes, attribute keys and ids are written once, in dictionaries at
+ * the end of the file. All numbers are little-endian:
+ * <pre>
+ * file:   magic "MATSIMCE", int version, int 0, blocks, footer, long position of footer
+ * block:  int n, int length of extras, int number of types, short[] types in this block, padding to 8 bytes,
+ *         double[n] time, int[n] person, int[n] vehicle, int[n] link, int[n + 1] offset of extras,
+ *         short[n] type, byte[] extras, padding to 8 bytes
+ * extras: per attribute: short key, int length, utf-8 value
+ * footer: int number of blocks, long[] position of blocks,
+ *         dictionaries of types, keys, person ids, vehicle ids and link ids, each as int n and n times int length, utf-8 string
+ * </pre>
+ * Ids that an event does not have are written as {@link #NO_ID}. As the file is memory-mapped when read, it cannot be
+ * compressed.
+ */
+public final class EventWriterColumnar implements EventWriter, BasicEventHandler {
+
+	public static final byte[] MAGIC = "MATSIMCE".getBytes(StandardCharsets.US_ASCII);
+	public static final int VERSION = 1;
+	public static final int BLOCK_SIZE = 1 << 16;
+	public static final int NO_ID = -1;
+
+	/**
+	 * The attributes written as id columns, in the order of the columns.
+	 */
+	public static final List<String> ID_COLUMNS = List.of(HasPersonId.ATTRIBUTE_PERSON, HasVehicleId.ATTRIBUTE_VEHICLE, HasLinkId.ATTRIBUTE_LINK);
+
+	private final FileChannel channel;
+	private final List<Long> blockPositions = new ArrayList<>();
+	private long position;
+
+	private final Map<String, Integer> types = new LinkedHashMap<>();
+	private final Map<String, Integer> keys = new LinkedHashMap<>();
+	private final List<Map<String, Integer>> ids = new ArrayList<>();
+
+	private int count = 0;
+	private final double[] time = new double[BLOCK_SIZE];
+	private final short[] type = new short[BLOCK_SIZE];
+	private final int[][] idColumns = new int[ID_COLUMNS.size()][BLOCK_SIZE];
+	private final int[] extraOffsets = new int[BLOCK_SIZE + 1];
+	private ByteBuffer extras = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+	public EventWriterColumnar(final String filename) {
+		this(Paths.get(filename));
+	}
+
+	public EventWriterColumnar(final Path path) {
+		for (int i = 0; i < ID_COLUMNS.size(); i++) {
+			this.ids.add(new LinkedHashMap<>());
+		}
+		try {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+			header.put(MAGIC).putInt(VERSION).putInt(0);
+			write(header);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		Map<String, String> attributes = event.getAttributes();
+		int i = this.count;
+		this.time[i] = event.getTime();
+		this.type[i] = shortCode(this.types, event.getEventType());
+
+		for (int c = 0; c < ID_COLUMNS.size(); c++) {
+			String key = ID_COLUMNS.get(c);
+			this.idColumns[c][i] = attributes.containsKey(key) ? code(this.ids.get(c), String.valueOf(attributes.get(key))) : NO_ID;
+		}
+
+		for (Map.Entry<String, String> entry : attributes.entrySet()) {
+			String key = entry.getKey();
+			if (key.equals(Event.ATTRIBUTE_TIME) || key.equals(Event.ATTRIBUTE_TYPE) || ID_COLUMNS.contains(key)) {
+				continue;
+			}
+			// null values are written as "null", as in xml
+			byte[] value = String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8);
+			ensureExtrasCapacity(6 + value.length);
+			this.extras.putShort(shortCode(this.keys, key)).putInt(value.length).put(value);
+		}
+		this.extraOffsets[i + 1] = this.extras.position();
+
+		this.count++;
+		if (this.count == BLOCK_SIZE) {
+			writeBlock();
+		}
+	}
+
+	private static int code(Map<String, Integer> dictionary, String value) {
+		Integer code = dictionary.get(value);
+		if (code == null) {
+			code = dictionary.size();
+			dictionary.put(value, code);
+		}
+		return code;
+	}
+
+	/**
+	 * Types and keys are written as short.
+	 */
+	private static short shortCode(Map<String, Integer> dictionary, String value) {
+		int code = code(dictionary, value);
+		if (code > Short.MAX_VALUE) {
+			throw new IllegalStateException("Cannot write more than " + (Short.MAX_VALUE + 1) + " different event types or attribute keys.");
+		}
+		return (short) code;
+	}
+
+	private void ensureExtrasCapacity(int length) {
+		if (this.extras.remaining() < length) {
+			int capacity = Math.max(this.extras.capacity() * 2, this.extras.position() + length);
+			ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+			this.extras.flip();
+			larger.put(this.extras);
+			this.extras = larger;
+		}
+	}
+
+	private void writeBlock() {
+		int n = this.count;
+		boolean[] present = new boolean[this.types.size()];
+		int numberOfTypes = 0;
+		for (int i = 0; i < n; i++) {
+			if (!present[this.type[i]]) {
+				present[this.type[i]] = true;
+				numberOfTypes++;
+			}
+		}
+
+		int headerLength = pad(12 + 2 * numberOfTypes);
+		int extrasLength = this.extras.position();
+		int length = pad(headerLength + 8 * n + 4 * n * ID_COLUMNS.size() + 4 * (n + 1) + 2 * n + extrasLength);
+		ByteBuffer block = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+		block.putInt(n).putInt(extrasLength).putInt(numberOfTypes);
+		for (int t = 0; t < present.length; t++) {
+			if (present[t]) {
+				block.putShort((short) t);
+			}
+		}
+		block.position(headerLength);
+		block.asDoubleBuffer().put(this.time, 0, n);
+		block.position(block.position() + 8 * n);
+		for (int[] column : this.idColumns) {
+			block.asIntBuffer().put(column, 0, n);
+			block.position(block.position() + 4 * n);
+		}
+		block.asIntBuffer().put(this.extraOffsets, 0, n + 1);
+		block.position(block.position() + 4 * (n + 1));
+		block.asShortBuffer().put(this.type, 0, n);
+		block.position(block.position() + 2 * n);
+		this.extras.flip();
+		block.put(this.extras);
+		block.position(length);
+
+		this.blockPositions.add(this.position);
+		write(block);
+
+		this.count = 0;
+		this.extras.clear();
+	}
+
+	private static int pad(int length) {
+		return (length + 7) & ~7;
+	}
+
+	private void write(ByteBuffer buffer) {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				this.position += this.channel.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void closeFile() {
+		if (this.count > 0) {
+			writeBlock();
+		}
+
+		long footerPosition = this.position;
+		List<byte[]> strings = new ArrayList<>();
+		int length = 4 + 8 * this.blockPositions.size() + 8;
+		List<Map<String, Integer>> dictionaries = new ArrayList<>(List.of(this.types, this.keys));
+		dictionaries.addAll(this.ids);
+		for (Map<String, Integer> dictionary : dictionaries) {
+			length += 4;
+			for (String value : dictionary.keySet()) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				strings.add(bytes);
+				length += 4 + bytes.length;
+			}
+		}
+
+		ByteBuffer footer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		footer.putInt(this.blockPositions.size());
+		this.blockPositions.forEach(footer::putLong);
+		int s = 0;
+		for (Map<String, Integer> dictionary : dictionaries) {
+			footer.putInt(dictionary.size());
+			for (int i = 0; i < dictionary.size(); i++) {
+				byte[] bytes = strings.get(s++);
+				footer.putInt(bytes.length).put(bytes);
+			}
+		}
+		footer.putLong(footerPosition);
+		write(footer);
+
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iteration) {
+	}
+
+}
@@ -33,8 +33,33 @@ import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class EventWriterXML implements EventWriter, BasicEventHandler {
+
+	/*
+	 * Whether events of a type can be written with Event.writeAsXML. Not the case if the type overrides
+	 * getAttributes() below the class that implements writeAsXML(), e.g. if it extends one of the core event
+	 * types and only adds its attributes to getAttributes().
+	 */
+	private static final ClassValue<Boolean> WRITING_DIRECTLY = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				Class<?> attributesDeclaredBy = type.getMethod("getAttributes").getDeclaringClass();
+				Class<?> xmlDeclaredBy = type.getMethod("writeAsXML", StringBuilder.class).getDeclaringClass();
+				return attributesDeclaredBy.isAssignableFrom(xmlDeclaredBy);
+			} catch (NoSuchMethodException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	};
+
 	private final BufferedWriter out;
 
+	/*
+	 * Reused for every event, so that writing an event does not create any objects.
+	 */
+	private final StringBuilder eventXML = new StringBuilder(256);
+	private char[] chars = new char[256];
+
 	public EventWriterXML(final String outfilename) {
 		this.out = IOUtils.getBufferedWriter(outfilename);
 		this.writeHeader();
@@ -78,74 +103,29 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 
 	@Override
 	public void handleEvent(final Event event) {
-		try {
-			this.out.append("\t<event ");
-			Map<String, String> attr = event.getAttributes();
-			for (Map.Entry<String, String> entry : attr.entrySet()) {
-				this.out.append(entry.getKey());
-				this.out.append("=\"");
-				this.out.append(encodeAttributeValue(entry.getValue()));
-				this.out.append("\" ");
+		StringBuilder xml = this.eventXML;
+		xml.setLength(0);
+		xml.append("\t<event ");
+		if (WRITING_DIRECTLY.get(event.getClass())) {
+			event.writeAsXML(xml);
+		} else {
+			for (Map.Entry<String, String> entry : event.getAttributes().entrySet()) {
+				Event.writeXMLAttribute(entry.getKey(), entry.getValue(), xml);
 			}
-			this.out.append(" />\n");
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
-	}
+		xml.append(" />\n");
 
-	// the following method was taken from MatsimXmlWriter in order to correctly encode attributes, but
-	// to forego the overhead of using the full MatsimXmlWriter.
-	/**
-	 * Encodes the given string in such a way that it no longer contains
-	 * characters that have a special meaning in xml.
-	 * 
-	 * @see <a href="http://www.w3.org/International/questions/qa-escapes#use">http://www.w3.org/International/questions/qa-escapes#use</a>
-	 * @param attributeValue
-	 * @return String with some characters replaced by their xml-encoding.
-	 */
-	private String encodeAttributeValue(final String attributeValue) {
-		if (attributeValue == null) {
-			return null;
-		}
-		int len = attributeValue.length();
-		boolean encode = false;
-		for (int pos = 0; pos < len; pos++) {
-			char ch = attributeValue.charAt(pos);
-			if (ch == '<') {
-				encode = true;
-				break;
-			} else if (ch == '>') {
-				encode = true;
-				break;
-			} else if (ch == '\"') {
-				encode = true;
-				break;
-			} else if (ch == '&') {
-				encode = true;
-				break;
-			}
+		// (Writer.append(CharSequence) would create a String)
+		int length = xml.length();
+		if (length > this.chars.length) {
+			this.chars = new char[Math.max(length, 2 * this.chars.length)];
 		}
-		if (encode) {
-			StringBuilder bf = new StringBuilder(attributeValue.length() + 30);
-			for (int pos = 0; pos < len; pos++) {
-				char ch = attributeValue.charAt(pos);
-				if (ch == '<') {
-					bf.append("&lt;");
-				} else if (ch == '>') {
-					bf.append("&gt;");
-				} else if (ch == '\"') {
-					bf.append("&quot;");
-				} else if (ch == '&') {
-					bf.append("&amp;");
-				} else {
-					bf.append(ch);
-				}
-			}
-			
-			return bf.toString();
+		xml.getChars(0, length, this.chars, 0);
+		try {
+			this.out.write(this.chars, 0, length);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		return attributeValue;
-
 	}
 
 }
@@ -90,6 +90,23 @@ public abstract class MatsimRandom {
 		return r;
 	}
 
+	/** Returns an instance of a random number generator for the given stream.  Different from
+	 * {@link #getLocalInstance()}, it only depends on the seed and the stream id, but not on how many instances
+	 * were created before, e.g. by a varying number of threads.
+	 *
+	 * The stream id is multiplied by an odd constant and added to the global seed.  As {@link Random} only uses
+	 * the lower 48 bits of its seed, and the multiplication is a bijection on them, stream ids smaller than
+	 * 2<sup>48</sup> never share a seed.
+	 *
+	 * @param streamId identifies the stream, e.g. by the index of the id of the object using it
+	 * @return pseudo random number generator
+	 */
+	public static Random getLocalInstance(final long streamId) {
+		Random r = new Random(lastUsedSeed + streamId * 0x9E3779B97F4A7C15L);
+		prepareRNG(r);
+		return r;
+	}
+
 	/**
 	 * Draw some random numbers to better initialize the pseudo-random number generator.
 	 *
@@ -117,6 +117,9 @@ class Agent {
 
     private float storageCapacityPCUE = -1;
     private float flowCapacityPCUE = -1;
+    // Capacities at the start of the plan, restored when the encoded plan is simulated again.
+    private float initialStorageCapacityPCUE = -1;
+    private float initialFlowCapacityPCUE = -1;
 
     // Map of passengers per destination stop on this vehicle.
     private UpcomingStops passengersByStop;
@@ -342,6 +345,30 @@ class Agent {
         }
     }
 
+    /**
+     * Remembers the current state as the start of the encoded plan, see {@link #rewind()}.
+     */
+    public void markImported() {
+        initialStorageCapacityPCUE = storageCapacityPCUE;
+        initialFlowCapacityPCUE = flowCapacityPCUE;
+    }
+
+    /**
+     * Resets the simulation state but keeps the encoded plan and its events, so that the same plan can be simulated
+     * again. The events are reused as well, so their times are overwritten in the next simulation.
+     */
+    public void rewind() {
+        planIndex = 0;
+        eventsIndex = 0;
+        linkFinishTime = 0;
+        storageCapacityPCUE = initialStorageCapacityPCUE;
+        flowCapacityPCUE = initialFlowCapacityPCUE;
+        if (this.passengersByStop != null) {
+            passengersInside = 0;
+            this.passengersByStop.clear();
+        }
+    }
+
     public static long prepareLinkEntry(int eventid, int linkid, double velocity, int pcecategory) {
         long l = preparePlanEventEntry(LinkType, eventid, prepareLinkEntryElement(linkid, velocity, pcecategory));
         return l;
@@ -240,6 +240,35 @@ class HLink {
     	}
     }
 
+    /**
+     * Returns how many agents at the head of the queue could leave the link in the given time step if there is
+     * enough space downstream, i.e. how often {@link #flow(int, float)} would succeed. Does not change the link.
+     */
+    public int leavingAgents(int timestep) {
+        int leaving = 0;
+        float flowLeft = flowLeftInTimestep;
+        int update = lastUpdate;
+        int freeSlot = nextFreeFlowSlot;
+        for (Agent agent : queue) {
+            if (agent.linkFinishTime > timestep || timestep < freeSlot) {
+                break;
+            }
+            float requestedFlow = agent.getFlowCapacityPCUE();
+            if (update == timestep) {
+                if (flowLeft < 0) {
+                    break;
+                }
+                flowLeft -= requestedFlow;
+            } else {
+                flowLeft = flowLeft + flowCapacityPerS - requestedFlow;
+                update = timestep;
+            }
+            freeSlot = timestep + (int) Math.floor(requestedFlow / flowCapacityPerS);
+            leaving++;
+        }
+        return leaving;
+    }
+
     public int velocity() {
         return this.velocity;
     }
@@ -19,6 +19,7 @@
 package org.matsim.core.mobsim.hermes;
 
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.TransportMode;
@@ -63,11 +64,27 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     private static final String MAINMODESPARAMDESC = "[comma-separated list] Modes that are handled in the mobsim along links. By default: car";
     private Set<String> mainModes = Set.of(TransportMode.car);
 
+    private static final String NUMBER_OF_THREADS = "numberOfThreads";
+    private static final String NUMBER_OF_THREADS_DESC = "Number of threads used to move the agents. With more than one thread, the network is partitioned into "
+            + "contiguous regions, each simulated by its own realm shard. Moves across region boundaries are synchronized between the regions involved, "
+            + "so the events are exactly the same as with the single-threaded realm. 1 (default) runs the single-threaded realm.";
+
+    private static final String EVENTS_FLUSH_INTERVAL = "eventsFlushInterval";
+    private static final String EVENTS_FLUSH_INTERVAL_DESC = "Simulated time (in seconds) after which the buffered events are handed to the events manager while Hermes is still running. "
+            + "0 hands over all events at the end of the simulation.";
+    private static final String MAX_BUFFERED_EVENTS = "maxBufferedEvents";
+    private static final String MAX_BUFFERED_EVENTS_DESC = "Maximum number of events Hermes buffers before handing them to the events manager, even if the flush interval has not passed yet. "
+            + "Events are only handed over at the end of a time step, so the buffer may exceed this limit by the events of one time step. 0 means unbounded.";
+
+    private static final String REUSE_UNCHANGED_PLANS = "reuseUnchangedPlans";
+    private static final String REUSE_UNCHANGED_PLANS_DESC = "If true, Hermes keeps the encoded plans and events of persons whose selected plan did not change since "
+            + "the last iteration instead of re-encoding them. The event objects of these persons are reused, so event handlers must not keep references "
+            + "to events across iterations. Plans modified in place (without selecting another plan) are not detected.";
+
     private static final String DETPTDESC = "treats PT as deterministic. PT vehicles will run with a steady speed. Should be used with separate network layers for PT and other network modes.";
     private boolean deterministicPt = false;
     public static final boolean DEBUG_REALMS = false;
     public static final boolean DEBUG_EVENTS = false;
-    public static final boolean CONCURRENT_EVENT_PROCESSING = true;
 
     @Positive
     private double storageCapacityFactor = 1.0;
@@ -78,6 +95,17 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    @Positive
+    private int numberOfThreads = 1;
+
+    @PositiveOrZero
+    private int eventsFlushInterval = 3600;
+
+    private boolean reuseUnchangedPlans = false;
+
+    @PositiveOrZero
+    private int maxBufferedEvents = 0;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -124,6 +152,46 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(NUMBER_OF_THREADS)
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    @StringSetter(NUMBER_OF_THREADS)
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    @StringGetter(REUSE_UNCHANGED_PLANS)
+    public boolean isReuseUnchangedPlans() {
+        return reuseUnchangedPlans;
+    }
+
+    @StringSetter(REUSE_UNCHANGED_PLANS)
+    public void setReuseUnchangedPlans(boolean reuseUnchangedPlans) {
+        this.reuseUnchangedPlans = reuseUnchangedPlans;
+    }
+
+    @StringGetter(EVENTS_FLUSH_INTERVAL)
+    public int getEventsFlushInterval() {
+        return eventsFlushInterval;
+    }
+
+    @StringSetter(EVENTS_FLUSH_INTERVAL)
+    public void setEventsFlushInterval(int eventsFlushInterval) {
+        this.eventsFlushInterval = eventsFlushInterval;
+    }
+
+    @StringGetter(MAX_BUFFERED_EVENTS)
+    public int getMaxBufferedEvents() {
+        return maxBufferedEvents;
+    }
+
+    @StringSetter(MAX_BUFFERED_EVENTS)
+    public void setMaxBufferedEvents(int maxBufferedEvents) {
+        this.maxBufferedEvents = maxBufferedEvents;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -160,6 +228,10 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_DESC);
+        comments.put(EVENTS_FLUSH_INTERVAL, EVENTS_FLUSH_INTERVAL_DESC);
+        comments.put(REUSE_UNCHANGED_PLANS, REUSE_UNCHANGED_PLANS_DESC);
+        comments.put(MAX_BUFFERED_EVENTS, MAX_BUFFERED_EVENTS_DESC);
         return comments;
     }
 
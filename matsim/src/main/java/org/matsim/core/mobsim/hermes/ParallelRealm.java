@@ -0,0 +1,243 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+import org.matsim.core.utils.misc.Time;
+
+/**
+ * Multi-threaded variant of the {@link Realm} that produces exactly the same events, in the same order, as the serial
+ * realm. The links are partitioned into regions (see {@link RealmPartitioner}), each of which is simulated by a
+ * {@link RealmShard} on its own thread.
+ * <p>
+ * In every time step, the serial realm wakes up the delayed agents, adds the deterministic pt events and then moves the
+ * agents on the delayed links, each in the order they were delayed. This realm splits the same sequence into units of
+ * work: each agent to wake up and each link to move is one unit. A unit is assigned to the shard owning the link or
+ * stop it touches. Moving the agents on a link may also push agents onto links or serve stops of other shards; which
+ * ones is known in advance from the agents that can leave the link in this time step (see
+ * {@link HLink#leavingAgents(int)}). All shards a unit touches take part in it: they process their units in serial
+ * order, and a shared unit is only executed once all of them reached it. Units of different shards without a common
+ * link or stop do not depend on each other, so every link and stop sees its changes in the serial order. At the end of
+ * the time step, the events and the delayed agents and links recorded by the shards are merged in the serial order of
+ * the units.
+ */
+final class ParallelRealm extends Realm {
+
+	// shard of each link, indexed by the hermes link id
+	private final int[] partition;
+	// shard of each pt stop, indexed by the stop id
+	private final int[] stopPartition;
+	private final RealmShard[] shards;
+	// the other shards taking part in the link unit currently assigned
+	private final boolean[] participating;
+	private final int[] participants;
+
+	/**
+	 * Waking up an agent or moving the agents on a link within the current time step. The event and wake-up ranges are
+	 * written by the executing shard and read by the parallel realm after all shards finished the time step.
+	 */
+	static final class Unit {
+		final Agent agent;
+		final HLink link;
+		final int executor;
+		// only set if other shards take part in the unit
+		final CountDownLatch arrived;
+		final CountDownLatch done;
+		int eventsFrom;
+		int eventsTo;
+		int wakeupsFrom;
+		int wakeupsTo;
+
+		Unit(Agent agent, HLink link, int executor, int otherParticipants) {
+			this.agent = agent;
+			this.link = link;
+			this.executor = executor;
+			this.arrived = otherParticipants > 0 ? new CountDownLatch(otherParticipants) : null;
+			this.done = otherParticipants > 0 ? new CountDownLatch(1) : null;
+		}
+	}
+
+	ParallelRealm(ScenarioImporter scenario, EventsManager eventsManager, int[] partition, int[] stopPartition, int numberOfShards) {
+		super(scenario, eventsManager);
+		this.partition = partition;
+		this.stopPartition = stopPartition;
+		this.shards = new RealmShard[numberOfShards];
+		this.participating = new boolean[numberOfShards];
+		this.participants = new int[numberOfShards];
+		for (int i = 0; i < numberOfShards; i++) {
+			this.shards[i] = new RealmShard(scenario, eventsManager, i, this);
+		}
+	}
+
+	/**
+	 * @return the shard owning the link or stop the next plan entry of the agent touches, or -1 if it only touches the
+	 * agent itself.
+	 */
+	private int shardOfNextPlanEntry(Agent agent) {
+		if (agent.finished()) {
+			return -1;
+		}
+		long planentry = agent.plan.get(agent.planIndex + 1);
+		switch (Agent.getPlanHeader(planentry)) {
+			case Agent.LinkType:
+				return partition[Agent.getLinkPlanEntry(planentry)];
+			case Agent.WaitType:
+			case Agent.StopDepartType:
+				int stop = Agent.getStopPlanEntry(planentry);
+				return stop < stopPartition.length ? stopPartition[stop] : stop % shards.length;
+			default:
+				return -1;
+		}
+	}
+
+	private Unit agentUnit(Agent agent) {
+		int shard = shardOfNextPlanEntry(agent);
+		Unit unit = new Unit(agent, null, shard >= 0 ? shard : agent.id % shards.length, 0);
+		shards[unit.executor].addUnit(unit);
+		return unit;
+	}
+
+	private Unit linkUnit(HLink link) {
+		int executor = partition[link.id()];
+		int others = 0;
+		int leaving = link.leavingAgents(secs);
+		for (Agent agent : link.queue()) {
+			if (leaving-- == 0) {
+				break;
+			}
+			int shard = shardOfNextPlanEntry(agent);
+			if (shard >= 0 && shard != executor && !participating[shard]) {
+				participating[shard] = true;
+				participants[others++] = shard;
+			}
+		}
+		Unit unit = new Unit(null, link, executor, others);
+		shards[executor].addUnit(unit);
+		for (int i = 0; i < others; i++) {
+			participating[participants[i]] = false;
+			shards[participants[i]].addUnit(unit);
+		}
+		return unit;
+	}
+
+	@Override
+	public void run() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(shards.length, new NamedThreadFactory());
+		List<RealmShard> tasks = new ArrayList<>(shards.length);
+		List<Unit> units = new ArrayList<>();
+		try {
+			while (secs != HermesConfigGroup.SIM_STEPS) {
+				if (secs % 3600 == 0) {
+					log.info("Hermes running at " + Time.writeTime(secs));
+				}
+				ArrayDeque<Agent> agents = takeDelayedAgents();
+				int agentUnits = agents == null ? 0 : agents.size();
+				if (agents != null) {
+					for (Agent agent : agents) {
+						units.add(agentUnit(agent));
+					}
+				}
+				ArrayDeque<HLink> links = takeDelayedLinks();
+				if (links != null) {
+					for (HLink link : links) {
+						units.add(linkUnit(link));
+					}
+				}
+
+				tasks.clear();
+				for (RealmShard shard : shards) {
+					if (shard.hasUnits()) {
+						tasks.add(shard);
+					}
+				}
+				if (tasks.size() == 1) {
+					// nothing to wait for, no need to switch threads
+					tasks.get(0).call();
+				} else if (tasks.size() > 1) {
+					for (Future<Integer> future : pool.invokeAll(tasks)) {
+						future.get();
+					}
+				}
+
+				mergeUnits(units, agentUnits);
+				units.clear();
+				for (RealmShard shard : shards) {
+					shard.clear();
+				}
+				flushEvents();
+				secs += 1;
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Passes on the events and delayed agents and links of the units in serial order, with the deterministic pt events
+	 * between the agents and the links.
+	 */
+	private void mergeUnits(List<Unit> units, int agentUnits) {
+		EventArray sortedEvents = getSortedEvents();
+		for (int i = 0; i < units.size(); i++) {
+			if (i == agentUnits) {
+				processDeterministicPtEvents();
+			}
+			Unit unit = units.get(i);
+			RealmShard shard = shards[unit.executor];
+			EventArray shardEvents = shard.getSortedEvents();
+			for (int e = unit.eventsFrom; e < unit.eventsTo; e++) {
+				sortedEvents.add(shardEvents.get(e));
+			}
+			List<RealmShard.Wakeup> wakeups = shard.wakeups();
+			for (int w = unit.wakeupsFrom; w < unit.wakeupsTo; w++) {
+				RealmShard.Wakeup wakeup = wakeups.get(w);
+				if (wakeup.agent() != null) {
+					addDelayedAgent(wakeup.agent(), wakeup.until());
+				} else {
+					addDelayedLink(wakeup.link(), wakeup.until());
+				}
+			}
+		}
+		if (units.size() == agentUnits) {
+			processDeterministicPtEvents();
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private int count = 0;
+
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Thread(r, "Hermes_RealmShard_" + count++);
+		}
+	}
+}
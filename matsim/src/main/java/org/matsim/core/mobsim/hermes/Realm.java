@@ -59,8 +59,12 @@ class Realm {
     private EventArray sortedEvents;
     // MATSim event manager.
     private final EventsManager eventsManager;
+    // Simulated seconds between two hand-overs of events to the event manager (0 means only at the end).
+    private final int eventsFlushInterval;
+    // Number of buffered events that triggers a hand-over before the flush interval passed (0 means unbounded).
+    private final int maxBufferedEvents;
     // Current timestamp
-    private int secs;
+    protected int secs;
     Logger log = LogManager.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) {
@@ -74,29 +78,41 @@ class Realm {
         this.line_of_route = scenario.lineOfRoute;
         this.sortedEvents = new EventArray();
         this.eventsManager = eventsManager;
+        this.eventsFlushInterval = scenario.getHermesConfig().getEventsFlushInterval();
+        this.maxBufferedEvents = scenario.getHermesConfig().getMaxBufferedEvents();
 
         // the last position is to store events that will not happen...
+        // Buckets are allocated lazily, see bucket(). This keeps realm shards of the parallel realm cheap.
         for (int i = 0; i <= HermesConfigGroup.SIM_STEPS + 1; i++) {
-            delayedLinksByWakeupTime.add(new ArrayDeque<>());
-            delayedAgentsByWakeupTime.add(new ArrayDeque<>());
+            delayedLinksByWakeupTime.add(null);
+            delayedAgentsByWakeupTime.add(null);
         }
     }
 
+    private static <T> ArrayDeque<T> bucket(ArrayList<ArrayDeque<T>> buckets, int time) {
+        ArrayDeque<T> bucket = buckets.get(time);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.set(time, bucket);
+        }
+        return bucket;
+    }
+
     public void log(int time, String s) {
         if (HermesConfigGroup.DEBUG_REALMS) {
             log.debug(String.format("Hermes [ time = %d ] %s", time, s));
         }
     }
 
-    private void addDelayedAgent(Agent agent, int until) {
+    protected void addDelayedAgent(Agent agent, int until) {
         if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d", agent.id, until));
-        delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
+        bucket(delayedAgentsByWakeupTime, Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
     }
 
-    private void addDelayedLink(HLink link, int until) {
+    protected void addDelayedLink(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
-        delayedLinksByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
+        bucket(delayedLinksByWakeupTime, Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
     }
 
     private void advanceAgentandSetEventTime(Agent agent) {
@@ -315,44 +331,94 @@ class Realm {
         return routed;
     }
 
-    public void run() throws Exception {
+    /**
+     * Removes the agents to wake up in the current time step, in the order they were delayed.
+     *
+     * @return the agents, or null if there are none
+     */
+    ArrayDeque<Agent> takeDelayedAgents() {
+        ArrayDeque<Agent> agents = delayedAgentsByWakeupTime.get(secs);
+        delayedAgentsByWakeupTime.set(secs, null);
+        return agents;
+    }
+
+    /**
+     * Removes the links to process in the current time step, in the order they were delayed.
+     *
+     * @return the links, or null if there are none
+     */
+    ArrayDeque<HLink> takeDelayedLinks() {
+        ArrayDeque<HLink> links = delayedLinksByWakeupTime.get(secs);
+        delayedLinksByWakeupTime.set(secs, null);
+        return links;
+    }
+
+    protected int processDelayedAgents() {
         int routed = 0;
+        // nothing is ever delayed into the current time step, so the agents can be taken before processing them
+        ArrayDeque<Agent> agents = takeDelayedAgents();
         Agent agent;
-        HLink link;
-
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
+        while (agents != null && (agent = agents.poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing agent %d", agent.id));
             }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing agent %d", agent.id));
-                }
-                routed += processAgentActivities(agent);
+            routed += processAgentActivities(agent);
+        }
+        return routed;
+    }
 
+    protected void processDeterministicPtEvents() {
+        if (si.isDeterministicPt()) {
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                sortedEvents.add(e);
             }
-            delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
-                    sortedEvents.add(e);
-                }
-                si.getDeterministicPtEvents().get(secs).clear();
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
+    }
+
+    protected int processDelayedLinks() {
+        int routed = 0;
+        ArrayDeque<HLink> delayedLinks = takeDelayedLinks();
+        HLink link;
+        while (delayedLinks != null && (link = delayedLinks.poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing link %d", link.id()));
             }
+            routed += processLinks(link);
+        }
+        return routed;
+    }
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing link %d", link.id()));
-                }
-                routed += processLinks(link);
+    /**
+     * Hands the buffered events to the events manager. Events are appended in time order and all events of the current
+     * time step are complete at this point, so no re-sorting is necessary before handing them over.
+     */
+    protected void flushEvents() {
+        if (sortedEvents.size() == 0) {
+            return;
+        }
+        boolean intervalPassed = eventsFlushInterval > 0 && secs % eventsFlushInterval == 0;
+        boolean bufferFull = maxBufferedEvents > 0 && sortedEvents.size() >= maxBufferedEvents;
+        if (intervalPassed || bufferFull) {
+            eventsManager.processEvents(sortedEvents);
+            sortedEvents = new EventArray();
+        }
+    }
+
+    public void run() throws Exception {
+        int routed = 0;
+
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            if (secs % 3600 == 0) {
+                log.info("Hermes running at " + Time.writeTime(secs));
             }
-            delayedLinksByWakeupTime.set(secs, null);
+            routed += processDelayedAgents();
+            processDeterministicPtEvents();
+            routed += processDelayedLinks();
             if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
                 log(secs, String.format("Processed %d agents", routed));
             }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
-                eventsManager.processEvents(sortedEvents);
-                sortedEvents = new EventArray();
-            }
+            flushEvents();
 
             routed = 0;
             secs += 1;
@@ -400,12 +466,6 @@ class Realm {
         }
     }
 
-    ArrayList<ArrayDeque<HLink>> delayedLinks() { return this.delayedLinksByWakeupTime; }
-
-    ArrayList<ArrayDeque<Agent>> delayedAgents() {
-        return this.delayedAgentsByWakeupTime;
-    }
-
     EventArray getSortedEvents() {
         return this.sortedEvents;
     }
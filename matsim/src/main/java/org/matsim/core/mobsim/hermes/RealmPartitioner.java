@@ -0,0 +1,73 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.network.algorithms.RecursiveCoordinateBisection;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * Splits the Hermes links into contiguous regions with the same number of links using recursive coordinate bisection
+ * over the link midpoints, see {@link RecursiveCoordinateBisection}. Each region is simulated by one {@link RealmShard}.
+ */
+final class RealmPartitioner {
+
+	private RealmPartitioner() {
+	}
+
+	/**
+	 * @return the region of each link, indexed by the link id index. Unused positions are set to 0.
+	 */
+	static int[] partition(Network network, int numberOfLinks, int numberOfRegions) {
+		int[] partition = new int[numberOfLinks];
+		RecursiveCoordinateBisection.partition(network.getLinks().values(), link -> link.getId().index(),
+				RealmPartitioner::midpoint, link -> 0, numberOfRegions, partition);
+		return partition;
+	}
+
+	/**
+	 * Assigns each transit stop to the region of its link, so the vehicles serving the stop and the agents waiting at it
+	 * are usually handled by the same shard. Stops without a link are spread over the regions by their index.
+	 *
+	 * @return the region of each stop, indexed by the stop id index
+	 */
+	static int[] partitionStops(TransitSchedule schedule, int[] linkPartition, int numberOfRegions) {
+		int[] partition = new int[Id.getNumberOfIds(TransitStopFacility.class)];
+		for (TransitStopFacility stop : schedule.getFacilities().values()) {
+			int stopIndex = stop.getId().index();
+			Id<Link> linkId = stop.getLinkId();
+			if (linkId != null && linkId.index() < linkPartition.length) {
+				partition[stopIndex] = linkPartition[linkId.index()];
+			} else {
+				partition[stopIndex] = stopIndex % numberOfRegions;
+			}
+		}
+		return partition;
+	}
+
+	private static Coord midpoint(Link link) {
+		Coord from = link.getFromNode().getCoord();
+		Coord to = link.getToNode().getCoord();
+		return new Coord((from.getX() + to.getX()) / 2, (from.getY() + to.getY()) / 2);
+	}
+}
@@ -0,0 +1,123 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+
+/**
+ * One region of a {@link ParallelRealm}. In every time step, a shard executes the units of work (waking up an agent or
+ * moving the agents on a link) the parallel realm assigned to it, in their serial order. A unit that also touches
+ * links or stops of other shards is only executed once all these shards reached it in their own sequence, while they
+ * wait until it is done. The events and wake-ups caused by each unit are recorded, so the parallel realm can pass them
+ * on in the order of the serial {@link Realm}.
+ */
+final class RealmShard extends Realm implements Callable<Integer> {
+
+	private final int index;
+	private final ParallelRealm parent;
+	// Units of the current time step this shard executes or takes part in, in serial order.
+	private final ArrayList<ParallelRealm.Unit> units = new ArrayList<>();
+	// Agents and links delayed by the executed units, scheduled by the parallel realm after the time step.
+	private final ArrayList<Wakeup> wakeups = new ArrayList<>();
+
+	record Wakeup(Agent agent, HLink link, int until) {
+	}
+
+	RealmShard(ScenarioImporter scenario, EventsManager eventsManager, int index, ParallelRealm parent) {
+		super(scenario, eventsManager);
+		this.index = index;
+		this.parent = parent;
+	}
+
+	@Override
+	public Integer call() throws InterruptedException {
+		this.secs = parent.secs;
+		int routed = 0;
+		int i = 0;
+		try {
+			for (; i < units.size(); i++) {
+				ParallelRealm.Unit unit = units.get(i);
+				if (unit.arrived == null) {
+					routed += execute(unit);
+				} else if (unit.executor == index) {
+					unit.arrived.await();
+					routed += execute(unit);
+					unit.done.countDown();
+				} else {
+					unit.arrived.countDown();
+					unit.done.await();
+				}
+			}
+		} finally {
+			// only reached with units left if this shard failed, release the shards waiting for it
+			for (; i < units.size(); i++) {
+				ParallelRealm.Unit unit = units.get(i);
+				if (unit.arrived != null) {
+					unit.arrived.countDown();
+					unit.done.countDown();
+				}
+			}
+		}
+		return routed;
+	}
+
+	private int execute(ParallelRealm.Unit unit) {
+		unit.eventsFrom = getSortedEvents().size();
+		unit.wakeupsFrom = wakeups.size();
+		int routed = unit.agent != null ? processAgentActivities(unit.agent) : processLinks(unit.link);
+		unit.eventsTo = getSortedEvents().size();
+		unit.wakeupsTo = wakeups.size();
+		return routed;
+	}
+
+	@Override
+	protected void addDelayedAgent(Agent agent, int until) {
+		wakeups.add(new Wakeup(agent, null, until));
+	}
+
+	@Override
+	protected void addDelayedLink(HLink link, int until) {
+		wakeups.add(new Wakeup(null, link, until));
+	}
+
+	void addUnit(ParallelRealm.Unit unit) {
+		units.add(unit);
+	}
+
+	boolean hasUnits() {
+		return !units.isEmpty();
+	}
+
+	ArrayList<Wakeup> wakeups() {
+		return wakeups;
+	}
+
+	/**
+	 * Forgets the units, events and wake-ups of the last time step. Only called by the {@link ParallelRealm} while no
+	 * shard is running.
+	 */
+	void clear() {
+		units.clear();
+		wakeups.clear();
+		getSortedEvents().clear();
+	}
+}
@@ -76,6 +76,9 @@ class ScenarioImporter {
 	protected int[] routeOfRoute;
 	// Array of links that define the network.
 	protected HLink[] hermesLinks;
+	// Realm shard of each link (indexed by link id), only used with more than one hermes thread.
+	private int[] linkPartition;
+	private int[] stopPartition;
 
 	protected Realm realm;
 	private final boolean deterministicPt;
@@ -85,6 +88,12 @@ class ScenarioImporter {
 
 	private float[] flowCapacityPCEs;
 	private float[] storageCapacityPCEs;
+	// Selected plan of each person at the time its hermes plan was encoded (indexed by hermes id).
+	private Plan[] importedPlans;
+	// Statistics of the last import.
+	protected int lastEncodedPersonPlans;
+	protected int lastReusedPersonPlans;
+	protected long lastImportMillis;
 	// Array of agents that participate in the simulation.
 	// Note: in order to make MATSim Agent ids, some positions in the array might be null.
 	protected Agent[] hermesAgents;
@@ -145,7 +154,8 @@ class ScenarioImporter {
 	}
 
 	public void generate() throws Exception {
-		long time = System.currentTimeMillis();
+		long start = System.currentTimeMillis();
+		long time = start;
 
 		if (resetThread != null) {
 			resetThread.join();
@@ -154,10 +164,12 @@ class ScenarioImporter {
 		log.info(String.format("Hermes reset took %d ms  (%d agents %d links)", System.currentTimeMillis() - time, hermesAgents.length, hermesLinks.length));
 		time = System.currentTimeMillis();
 		generatePlans();
-		log.info(String.format("Hermes generatePlans took %d ms", System.currentTimeMillis() - time));
+		log.info(String.format("Hermes generatePlans took %d ms (%d person plans encoded, %d reused)",
+				System.currentTimeMillis() - time, lastEncodedPersonPlans, lastReusedPersonPlans));
 		time = System.currentTimeMillis();
 		generateRealms();
 		log.info(String.format("Hermes generateRealms took %d ms", System.currentTimeMillis() - time));
+		lastImportMillis = System.currentTimeMillis() - start;
 	}
 
 	public void reset() {
@@ -172,10 +184,16 @@ class ScenarioImporter {
 						link.reset();
 					}
 				}
-				// reset agent plans and events
-				for (Agent hermes_agent : hermesAgents) {
+				// reset agent plans and events, person plans might be reused in the next iteration
+				boolean reusePlans = scenario.getConfig().hermes().isReuseUnchangedPlans();
+				for (int i = 0; i < hermesAgents.length; i++) {
+					Agent hermes_agent = hermesAgents[i];
 					if (hermes_agent != null) {
-						hermes_agent.reset();
+						if (reusePlans && i < agentPersons) {
+							hermes_agent.rewind();
+						} else {
+							hermes_agent.reset();
+						}
 					}
 				}
 				// reset agent_stops
@@ -272,7 +290,16 @@ class ScenarioImporter {
 	}
 
 	private void generateRealms() {
-		realm = new Realm(this, eventsManager);
+		int realmThreads = scenario.getConfig().hermes().getNumberOfThreads();
+		if (realmThreads > 1) {
+			if (linkPartition == null) {
+				linkPartition = RealmPartitioner.partition(scenario.getNetwork(), hermesLinks.length, realmThreads);
+				stopPartition = RealmPartitioner.partitionStops(scenario.getTransitSchedule(), linkPartition, realmThreads);
+			}
+			realm = new ParallelRealm(this, eventsManager, linkPartition, stopPartition, realmThreads);
+		} else {
+			realm = new Realm(this, eventsManager);
+		}
 
 		// Put agents in their initial location (link or activity center)
 		for (Agent agent : hermesAgents) {
@@ -294,7 +321,7 @@ class ScenarioImporter {
 				case Agent.SleepForType:
 				case Agent.SleepUntilType:
 					int sleep = Agent.getSleepPlanEntry(planentry);
-					realm.delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
+					realm.addDelayedAgent(agent, sleep);
 					break;
 				default:
 					LogManager.getLogger(getClass()).error(String.format("ERROR -> unknown plan element type %d", type));
@@ -305,7 +332,7 @@ class ScenarioImporter {
 			if (link != null) {
 				int nextwakeup = link.nexttime();
 				if (nextwakeup > 0) {
-					realm.delayedLinks().get(nextwakeup).add(link);
+					realm.addDelayedLink(link, nextwakeup);
 				}
 			}
 		}
@@ -850,14 +877,27 @@ class ScenarioImporter {
 
 	private void generatePersonPlans() {
 		Population population = scenario.getPopulation();
-		population.getPersons().values().parallelStream().forEach((person) -> {
+		boolean reusePlans = scenario.getConfig().hermes().isReuseUnchangedPlans();
+		List<? extends Person> changed = population.getPersons().values().stream()
+				.filter(person -> !reusePlans || importedPlans[hermes_id(person.getId().index(), false)] != person.getSelectedPlan())
+				.toList();
+		changed.parallelStream().forEach((person) -> {
 			int hermes_id = hermes_id(person.getId().index(), false);
-			PlanArray plan = hermesAgents[hermes_id].plan();
-			EventArray events = hermesAgents[hermes_id].events();
+			Agent agent = hermesAgents[hermes_id];
+			if (reusePlans) {
+				// the reset thread only rewound this agent
+				agent.reset();
+			}
+			PlanArray plan = agent.plan();
+			EventArray events = agent.events();
 			for (PlanElement element : person.getSelectedPlan().getPlanElements()) {
-				processPlanElement(person, plan, events, element, hermesAgents[hermes_id]);
+				processPlanElement(person, plan, events, element, agent);
 			}
+			agent.markImported();
+			importedPlans[hermes_id] = person.getSelectedPlan();
 		});
+		lastEncodedPersonPlans = changed.size();
+		lastReusedPersonPlans = population.getPersons().size() - changed.size();
 	}
 
 	private void generateAgents() {
@@ -866,6 +906,7 @@ class ScenarioImporter {
 		agentPersons = Id.getNumberOfIds(Person.class);
 		int nagents = agentPersons + Id.getNumberOfIds(Vehicle.class);
 		hermesAgents = new Agent[nagents];
+		importedPlans = new Plan[agentPersons];
 
 		// Generate persons
 		for (Person person : population.getPersons().values()) {
@@ -917,6 +958,10 @@ class ScenarioImporter {
 		return deterministicPtEvents;
 	}
 
+	public HermesConfigGroup getHermesConfig() {
+		return scenario.getConfig().hermes();
+	}
+
 	public boolean isDeterministicPt() {
 		return deterministicPt;
 	}
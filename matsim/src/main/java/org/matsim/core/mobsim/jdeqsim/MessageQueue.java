@@ -85,6 +85,21 @@ public class MessageQueue {
 		return m;
 	}
 
+	/**
+	 * 
+	 * get the time stamp of the first message in the queue without removing it
+	 *
+	 * @return the time stamp, or Double.POSITIVE_INFINITY if the queue is empty
+	 */
+	public double getNextMessageArrivalTime() {
+		Message m;
+		// skip over dead messages, they have already been subtracted from queueSize
+		while ((m = queue1.peek()) != null && !m.isAlive()) {
+			queue1.poll();
+		}
+		return m == null ? Double.POSITIVE_INFINITY : m.getMessageArrivalTime();
+	}
+
 	public boolean isEmpty() {
 		return queue1.size() == 0;
 	}
@@ -40,6 +40,7 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.qsim.interfaces.NextSimStepTimeProvider;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.utils.collections.Tuple;
 import org.matsim.facilities.Facility;
@@ -50,7 +51,7 @@ import org.matsim.vis.snapshotwriters.TeleportationVisData;
  * Includes all agents that have transportation modes unknown to the
  * NetsimEngine (often all != "car") or have two activities on the same link
  */
-public final class DefaultTeleportationEngine implements TeleportationEngine {
+public final class DefaultTeleportationEngine implements TeleportationEngine, NextSimStepTimeProvider {
 	private static final Logger log = LogManager.getLogger( DefaultTeleportationEngine.class ) ;
 	
 	private final Queue<Tuple<Double, MobsimAgent>> teleportationList = new PriorityQueue<>(
@@ -132,6 +133,12 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		handleTeleportationArrivals(time);
 	}
 
+	@Override
+	public double getNextSimStepTime(double now) {
+		Tuple<Double, MobsimAgent> next = teleportationList.peek();
+		return next == null ? Double.POSITIVE_INFINITY : next.getFirst();
+	}
+
 	private void handleTeleportationArrivals(double now) {
 		while (!teleportationList.isEmpty()) {
 			Tuple<Double, MobsimAgent> entry = teleportationList.peek();
@@ -32,6 +32,8 @@ import org.matsim.core.mobsim.framework.listeners.*;
 import org.matsim.core.utils.misc.ClassUtils;
 
 import javax.swing.event.EventListenerList;
+import java.util.ArrayList;
+import java.util.List;
 
 class MobsimListenerManager implements MatsimManager {
 
@@ -100,6 +102,16 @@ class MobsimListenerManager implements MatsimManager {
         }
 	}
 
+	/**
+	 * @return the listeners that are notified before or after every sim step
+	 */
+	List<MobsimListener> getSimStepListeners() {
+		List<MobsimListener> listeners = new ArrayList<>();
+		listeners.addAll(List.of(this.listenerList.getListeners(MobsimBeforeSimStepListener.class)));
+		listeners.addAll(List.of(this.listenerList.getListeners(MobsimAfterSimStepListener.class)));
+		return listeners;
+	}
+
 	public void fireQueueSimulationBeforeSimStepEvent(double time) {
 		MobsimBeforeSimStepEvent<Mobsim> event = new MobsimBeforeSimStepEvent<>(sim, time);
 		MobsimBeforeSimStepListener[] listener = this.listenerList.getListeners(MobsimBeforeSimStepListener.class);
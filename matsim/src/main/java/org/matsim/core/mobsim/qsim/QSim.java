@@ -433,7 +433,11 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		}
 
 		if (doContinue) {
-			this.simTimer.incrementTime();
+			if (qsimConfigGroup.isSkippingIdleTimeSteps()) {
+				this.simTimer.setTime(getNextSimStepTime(now));
+			} else {
+				this.simTimer.incrementTime();
+			}
 		}
 
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startClockTime;
@@ -551,6 +555,45 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		return firstAgentStartTime;
 	}
 
+	/**
+	 * @return the next regular time step, or a later one if no engine and no sim step listener has anything to do before
+	 */
+	private double getNextSimStepTime(final double now) {
+		final double stepSize = this.simTimer.getSimTimestepSize();
+		final double nextStep = now + stepSize;
+
+		double nextSimStepTime = Double.POSITIVE_INFINITY;
+		List<Object> components = new ArrayList<>(this.mobsimEngines);
+		components.addAll(this.listenerManager.getSimStepListeners());
+		for (Object component : components) {
+			if (!(component instanceof NextSimStepTimeProvider)) {
+				return nextStep;
+			}
+			double componentTime = ((NextSimStepTimeProvider) component).getNextSimStepTime(now);
+			if (!(componentTime > nextStep)) {
+				// (also catches NaN)
+				return nextStep;
+			}
+			nextSimStepTime = Math.min(nextSimStepTime, componentTime);
+		}
+
+		// do not jump over the end of the simulation
+		final QSimConfigGroup qsimConfigGroup = this.scenario.getConfig().qsim();
+		if (qsimConfigGroup.getSimEndtimeInterpretation() == EndtimeInterpretation.onlyUseEndtime) {
+			nextSimStepTime = Math.min(nextSimStepTime, qsimConfigGroup.getEndTime().seconds());
+		} else {
+			nextSimStepTime = Math.min(nextSimStepTime, this.stopTime);
+		}
+		if (nextSimStepTime >= Double.MAX_VALUE) {
+			// nobody knows what happens next, so keep on stepping as usual
+			return nextStep;
+		}
+
+		// stay on the regular time steps, i.e. go to the first one not before nextSimStepTime
+		final double steps = Math.ceil((nextSimStepTime - now) / stepSize - 1e-9);
+		return now + Math.max(1, steps) * stepSize;
+	}
+
 	// ############################################################################################################################
 	// utility methods (presumably no state change)
 	// ############################################################################################################################
@@ -31,6 +31,7 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimElementAssignment;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.mobsim.framework.Mobsim;
 import org.matsim.core.mobsim.qsim.changeeventsengine.NetworkChangeEventsModule;
@@ -41,12 +42,15 @@ import org.matsim.core.mobsim.qsim.pt.SimpleTransitStopHandlerFactory;
 import org.matsim.core.mobsim.qsim.pt.TransitEngineModule;
 import org.matsim.core.mobsim.qsim.pt.TransitStopHandlerFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.DefaultQNetworkFactory;
+import org.matsim.core.mobsim.qsim.qnetsimengine.LastIterationLinkVolumes;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QLanesNetworkFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineModule;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetworkFactory;
 
 import com.google.inject.Key;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.OptionalBinder;
 import com.google.inject.name.Names;
 
 /**
@@ -110,6 +114,14 @@ public class QSimModule extends AbstractModule {
 		// I don't know why this is here.  kai, nov'18
 
 		bind(Mobsim.class).toProvider(QSimProvider.class);
+
+		// lives outside of the QSim scope so that the netsim engine of the next iteration can use the volumes of this one:
+		OptionalBinder<LastIterationLinkVolumes> linkVolumesBinder = OptionalBinder.newOptionalBinder(binder(), LastIterationLinkVolumes.class);
+		if ( getConfig().qsim().getNetsimElementAssignment() == NetsimElementAssignment.partitionByVolumes ) {
+			linkVolumesBinder.setBinding().to(LastIterationLinkVolumes.class);
+			bind(LastIterationLinkVolumes.class).in(Singleton.class);
+			addEventHandlerBinding().to(LastIterationLinkVolumes.class);
+		}
 		
 		// yyyy the following will eventually be moved to QSim scope, and into QNetsimEngineModule:
 //		if ( config.qsim().isUseLanes() ) {
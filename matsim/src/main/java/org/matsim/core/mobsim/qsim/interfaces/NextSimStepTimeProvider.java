@@ -0,0 +1,43 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.interfaces;
+
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.listeners.MobsimAfterSimStepListener;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+
+/**
+ * Implemented by {@link MobsimEngine}s and by {@link MobsimBeforeSimStepListener}s / {@link MobsimAfterSimStepListener}s
+ * that know when they have something to do next. If {@link QSimConfigGroup#isSkippingIdleTimeSteps()} is set and
+ * <i>all</i> engines and sim step listeners of the QSim implement this interface, the QSim jumps over the time steps in
+ * which none of them has anything to do. A single engine or listener not implementing it switches skipping off.
+ */
+public interface NextSimStepTimeProvider {
+
+	/**
+	 * Called after the time step at <code>now</code> has been simulated completely.
+	 *
+	 * @return the earliest time at which this component needs to be stepped (or notified) again. Any time up to the
+	 * next regular time step means that no time step must be skipped; {@link Double#POSITIVE_INFINITY} means that
+	 * there is nothing to do until some other component hands over new work.
+	 */
+	double getNextSimStepTime(double now);
+
+}
@@ -20,10 +20,15 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+import javax.inject.Inject;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,13 +36,17 @@ import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
 import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.QSimConfigGroup.LinkDynamics;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimElementAssignment;
 import org.matsim.core.config.groups.QSimConfigGroup.SnapshotStyle;
 import org.matsim.core.config.groups.QSimConfigGroup.VehicleBehavior;
+import org.matsim.core.events.BufferableEventsManager;
+import org.matsim.core.events.ThreadLocalEventsBuffer;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimDriverAgent;
@@ -47,6 +56,7 @@ import org.matsim.core.mobsim.qsim.QSim;
 import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimVehicle;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
+import org.matsim.core.mobsim.qsim.interfaces.NextSimStepTimeProvider;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
@@ -60,7 +70,7 @@ import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
  * @author dgrether
  * @author dstrippgen
  */
-abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI {
+abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI, NextSimStepTimeProvider {
 
 	private NetsimInternalInterface ii = new NetsimInternalInterface(){
 		@Override public QNetwork getNetsimNetwork() {
@@ -87,8 +97,14 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //	private final Set<QLinkI> linksToActivateInitially = new HashSet<>();
 	protected final int numOfThreads;
 	protected final QNetwork network;
+	private final NetsimElementAssignment elementAssignment;
+	private final boolean bufferingEvents;
+	private final boolean orderingEvents;
+	private ThreadLocalEventsBuffer eventsBuffer = null;
+	private LastIterationLinkVolumes lastIterationLinkVolumes = null;
 
 	private double infoTime = 0;
+	private long simStepNanos = 0;
 	private List<A> engines;
 	private InternalInterface internalInterface = null;
 	
@@ -131,6 +147,17 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		network.initialize(this, sim.getAgentCounter(), sim.getSimTimer() );
 
 		this.numOfThreads = sim.getScenario().getConfig().qsim().getNumberOfThreads();
+		this.elementAssignment = qSimConfigGroup.getNetsimElementAssignment();
+		this.bufferingEvents = qSimConfigGroup.isBufferingNetsimEvents();
+		this.orderingEvents = qSimConfigGroup.isDeterministicParallelism();
+	}
+
+	/**
+	 * Only bound if the network is partitioned by volumes, see {@link org.matsim.core.mobsim.qsim.QSimModule}.
+	 */
+	@Inject
+	/*package*/ final void setLastIterationLinkVolumes(Optional<LastIterationLinkVolumes> lastIterationLinkVolumes) {
+		this.lastIterationLinkVolumes = lastIterationLinkVolumes.orElse(null);
 	}
 	
 	static AbstractAgentSnapshotInfoBuilder createAgentSnapshotInfoBuilder(Scenario scenario, SnapshotLinkWidthCalculator linkWidthCalculator) {
@@ -164,10 +191,38 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		 */
 
 		this.engines = initQSimEngineRunners();
+		if (this.bufferingEvents || this.orderingEvents) {
+			this.eventsBuffer = installEventsBuffer(this.qsim.getEventsManager());
+		}
+		if (this.eventsBuffer != null) {
+			for (A engine : this.engines) {
+				if (this.orderingEvents) {
+					engine.setOrderingEvents(this.eventsBuffer);
+				} else {
+					engine.setBufferingEvents(this.eventsBuffer);
+				}
+			}
+		}
 		assignNetElementActivators();
 		initMultiThreading();
 	}
 	
+	/**
+	 * @return the buffer installed in <code>events</code>, or null if <code>events</code> does not support it
+	 */
+	private static ThreadLocalEventsBuffer installEventsBuffer(EventsManager events) {
+		ThreadLocalEventsBuffer buffer = new ThreadLocalEventsBuffer();
+		if (events instanceof BufferableEventsManager) {
+			if (((BufferableEventsManager) events).setThreadLocalEventsBuffer(buffer)) {
+				return buffer;
+			}
+			((BufferableEventsManager) events).setThreadLocalEventsBuffer(null);
+		}
+		log.warn("The events manager " + events.getClass().getName() + " does not support buffering the events of the netsim, "
+				+ "they are processed directly. Their order may thus depend on the scheduling of the threads.");
+		return null;
+	}
+
 	/** 
 	 * do everything necessary to start the threads for {@link AbstractQNetsimEngineRunner}
 	 */
@@ -186,6 +241,12 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		}
 
 		finishMultiThreading();
+		printRunnerBusyTimes();
+
+		if (this.eventsBuffer != null) {
+			((BufferableEventsManager) this.qsim.getEventsManager()).setThreadLocalEventsBuffer(null);
+			this.eventsBuffer = null;
+		}
 
 		/* Reset vehicles on ALL links. We cannot iterate only over the active links
 		 * (this.simLinksArray), because there may be links that have vehicles only
@@ -223,12 +284,33 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 	 */
 	@Override
 	public final void doSimStep(final double time) {
+		long start = System.nanoTime();
 		run(time);
+		if (this.eventsBuffer != null && this.orderingEvents) {
+			AbstractQNetsimEngineRunner.flushOrderedEvents(this.engines, this.qsim.getEventsManager());
+		} else if (this.eventsBuffer != null) {
+			// in the order of the runners, so that the events do not depend on the scheduling of the threads
+			for (A engine : this.engines) {
+				engine.flushBufferedEvents(this.qsim.getEventsManager());
+			}
+		}
+		this.simStepNanos += System.nanoTime() - start;
 		
 		this.printSimLog(time);
 	}
 
 	
+	@Override
+	public final double getNextSimStepTime(final double now) {
+		// vehicles in link buffers keep their to-node active, and waiting vehicles their link
+		for (AbstractQNetsimEngineRunner engine : this.engines) {
+			if (engine.hasActiveNetElements()) {
+				return now;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
 	@Override
 	public final void setInternalInterface( InternalInterface internalInterface) {
 		this.internalInterface = internalInterface;
@@ -353,6 +435,38 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		log.info("sum all run times / num threads: " + sum / this.numOfThreads);
 	}
 
+	/**
+	 * @return per runner, the time spent moving nodes and links, in nanoseconds
+	 */
+	/*package*/ final long[] getRunnerBusyNanos() {
+		long[] busy = new long[this.engines.size()];
+		for (int i = 0; i < busy.length; i++) {
+			busy[i] = this.engines.get(i).getBusyNanos();
+		}
+		return busy;
+	}
+
+	/**
+	 * @return per runner, the time of the sim steps during which it had no work, e.g. because it waited for the
+	 * other runners at the barrier, in nanoseconds
+	 */
+	/*package*/ final long[] getRunnerIdleNanos() {
+		long[] idle = getRunnerBusyNanos();
+		for (int i = 0; i < idle.length; i++) {
+			idle[i] = Math.max(0, this.simStepNanos - idle[i]);
+		}
+		return idle;
+	}
+
+	private void printRunnerBusyTimes() {
+		long[] busy = getRunnerBusyNanos();
+		long[] idle = getRunnerIdleNanos();
+		for (int i = 0; i < busy.length; i++) {
+			log.info("QNetsimEngineRunner #" + i + " was busy for " + busy[i] / 1_000_000 + " ms and idle for "
+					+ idle[i] / 1_000_000 + " ms");
+		}
+	}
+
 	@Override
 	public final NetsimInternalInterface getNetsimInternalInterface() {
 		return ii;
@@ -390,9 +504,11 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		int nodes[] = new int[this.engines.size()];
 		int links[] = new int[this.engines.size()];
 
+		int[] regions = partitionNetwork();
+
 		int roundRobin = 0;
 		for (QNodeI node : network.getNetsimNodes().values()) {
-			int i = roundRobin % this.engines.size();
+			int i = regions == null ? roundRobin % this.engines.size() : regions[node.getNode().getId().index()];
 			if( node instanceof AbstractQNode){
 				((AbstractQNode) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -427,10 +543,53 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		for (int i = 0; i < this.engines.size(); i++) {
 			log.info("Assigned " + nodes[i] + " nodes and " + links[i] + " links to QSimEngineRunner #" + i);
 		}
+		if (regions != null) {
+			int cutLinks = 0;
+			for (QLinkI link : network.getNetsimLinks().values()) {
+				if (regions[link.getLink().getFromNode().getId().index()] != regions[link.getLink().getToNode().getId().index()]) {
+					cutLinks++;
+				}
+			}
+			log.info(cutLinks + " links connect the regions of different QSimEngineRunners");
+		}
 
 //		this.linksToActivateInitially.clear();
 	}
 
+	/**
+	 * @return the runner of each node, indexed by the node id index, or <code>null</code> for round robin
+	 */
+	private int[] partitionNetwork() {
+		if (this.engines.size() == 1) {
+			return null;
+		}
+		ToDoubleFunction<Link> linkWeight;
+		switch (this.elementAssignment) {
+		case roundRobin:
+			return null;
+		case partitionByCapacity:
+			linkWeight = Link::getFlowCapacityPerSec;
+			break;
+		case partitionByVolumes:
+			if (this.lastIterationLinkVolumes != null && this.lastIterationLinkVolumes.hasVolumes()) {
+				// every link costs something, even if no vehicle used it
+				LastIterationLinkVolumes volumes = this.lastIterationLinkVolumes;
+				linkWeight = link -> 1 + volumes.getVolume(link.getId());
+			} else {
+				log.info("No link volumes of a previous iteration available, partitioning the network by capacity instead.");
+				linkWeight = Link::getFlowCapacityPerSec;
+			}
+			break;
+		default:
+			throw new RuntimeException("Unknown netsim element assignment: " + this.elementAssignment);
+		}
+		List<Node> nodes = new ArrayList<>();
+		for (QNodeI node : network.getNetsimNodes().values()) {
+			nodes.add(node.getNode());
+		}
+		return QNetworkPartitioner.partition(nodes, linkWeight, this.engines.size());
+	}
+
 	private final void arrangeNextAgentState(MobsimAgent pp) {
 		internalInterface.arrangeNextAgentState(pp);
 	}
@@ -20,6 +20,8 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -27,6 +29,9 @@ import java.util.ListIterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+import org.matsim.core.events.ThreadLocalEventsBuffer;
 import org.matsim.core.mobsim.qsim.QSim;
 
 /**
@@ -72,6 +77,37 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 
 	/*package*/ long[] runTimes;
 	private long startTime = 0;
+
+	/*
+	 * Wall clock time this runner spent inside its sim steps, i.e. not waiting
+	 * at the barriers. Always collected since it is cheap compared to the
+	 * analyzeRunTimes option.
+	 */
+	private long busyNanos = 0;
+
+	/*
+	 * Collects the events thrown while this runner is working, if events buffering
+	 * is switched on; null otherwise.  Reused in every time step.
+	 */
+	private EventArray eventsBuffer = null;
+
+	/*
+	 * Where the thread executing this runner sets the eventsBuffer, if events
+	 * buffering is switched on; null otherwise.
+	 */
+	private ThreadLocalEventsBuffer threadLocalEventsBuffer = null;
+
+	/*
+	 * If the buffered events are to be ordered by the net elements that threw them,
+	 * the sections of the eventsBuffer that belong to one node or link; null otherwise.
+	 */
+	private List<EventsSection> eventsSections = null;
+
+	/*
+	 * Sort keys of the sections: all nodes before all links, each by the index of their id.
+	 */
+	private static final long NODES_KEY = 0L;
+	private static final long LINKS_KEY = 1L << 32;
 	{	
 		if (QSim.analyzeRunTimes) runTimes = new long[QNetsimEngineWithThreadpool.numObservedTimeSteps];
 		else runTimes = null;
@@ -81,6 +117,134 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		time = t;
 	}
 
+	/*package*/ final double getTime() {
+		return time;
+	}
+
+	protected final void addBusyNanos(long nanos) {
+		this.busyNanos += nanos;
+	}
+
+	/*package*/ final long getBusyNanos() {
+		return this.busyNanos;
+	}
+
+	/**
+	 * Buffers the events in <code>threadLocalEventsBuffer</code>, which must be installed in the events manager.
+	 */
+	/*package*/ final void setBufferingEvents(ThreadLocalEventsBuffer threadLocalEventsBuffer) {
+		this.threadLocalEventsBuffer = threadLocalEventsBuffer;
+		this.eventsBuffer = new EventArray(1024);
+	}
+
+	/**
+	 * Buffers the events, and remembers which node or link threw them, see {@link #flushOrderedEvents}.
+	 */
+	/*package*/ final void setOrderingEvents(ThreadLocalEventsBuffer threadLocalEventsBuffer) {
+		setBufferingEvents(threadLocalEventsBuffer);
+		this.eventsSections = new ArrayList<>();
+	}
+
+	/**
+	 * To be called by the thread executing this runner before it moves nodes or links.
+	 */
+	protected final void startBufferingEvents() {
+		if (this.eventsBuffer != null) {
+			this.threadLocalEventsBuffer.set(this.eventsBuffer);
+		}
+	}
+
+	/**
+	 * To be called by the thread executing this runner when it is done, also in case of an exception.
+	 */
+	protected final void stopBufferingEvents() {
+		if (this.eventsBuffer != null) {
+			this.threadLocalEventsBuffer.remove();
+		}
+	}
+
+	/**
+	 * Passes the buffered events on to <code>events</code>.  Must not be called while the runner is working.
+	 */
+	/*package*/ final void flushBufferedEvents(EventsManager events) {
+		if (this.eventsBuffer == null || this.eventsBuffer.size() == 0) {
+			return;
+		}
+		// some events managers keep the array they are given, so the buffer itself is not handed out:
+		EventArray bufferedEvents = new EventArray(this.eventsBuffer.size());
+		for (int i = 0; i < this.eventsBuffer.size(); i++) {
+			bufferedEvents.add(this.eventsBuffer.get(i));
+		}
+		this.eventsBuffer.clear();
+		events.processEvents(bufferedEvents);
+	}
+
+	/**
+	 * Passes the events buffered by all <code>runners</code> on to <code>events</code>, ordered by the nodes
+	 * and links that threw them rather than by runner.  As every element is moved at most once per phase, the
+	 * order neither depends on the number of runners nor on which runner moved which element.  Must not be
+	 * called while the runners are working.
+	 */
+	/*package*/ static void flushOrderedEvents(List<? extends AbstractQNetsimEngineRunner> runners, EventsManager events) {
+		List<EventsSection> sections = new ArrayList<>();
+		int numberOfEvents = 0;
+		for (AbstractQNetsimEngineRunner runner : runners) {
+			sections.addAll(runner.eventsSections);
+			numberOfEvents += runner.eventsBuffer.size();
+		}
+		if (numberOfEvents == 0) {
+			return;
+		}
+		sections.sort(Comparator.comparingLong(EventsSection::key));
+		EventArray orderedEvents = new EventArray(numberOfEvents);
+		for (EventsSection section : sections) {
+			for (int i = section.start(); i < section.end(); i++) {
+				orderedEvents.add(section.buffer().get(i));
+			}
+		}
+		for (AbstractQNetsimEngineRunner runner : runners) {
+			runner.eventsBuffer.clear();
+			runner.eventsSections.clear();
+		}
+		events.processEvents(orderedEvents);
+	}
+
+	/**
+	 * Moves the node, and marks the events it throws if the events are ordered.
+	 */
+	protected final boolean moveNode(QNodeI node, double now) {
+		if (this.eventsSections == null) {
+			return node.doSimStep(now);
+		}
+		int start = this.eventsBuffer.size();
+		boolean remainsActive = node.doSimStep(now);
+		addEventsSection(NODES_KEY + node.getNode().getId().index(), start);
+		return remainsActive;
+	}
+
+	/**
+	 * Moves the link, and marks the events it throws if the events are ordered.
+	 */
+	protected final boolean moveLink(QLinkI link) {
+		if (this.eventsSections == null) {
+			return link.doSimStep();
+		}
+		int start = this.eventsBuffer.size();
+		boolean remainsActive = link.doSimStep();
+		addEventsSection(LINKS_KEY + link.getLink().getId().index(), start);
+		return remainsActive;
+	}
+
+	private void addEventsSection(long key, int start) {
+		int end = this.eventsBuffer.size();
+		if (end > start) {
+			this.eventsSections.add(new EventsSection(key, this.eventsBuffer, start, end));
+		}
+	}
+
+	private record EventsSection(long key, EventArray buffer, int start, int end) {
+	}
+
 	public abstract void afterSim() ;
 
 	protected void moveNodes() {
@@ -90,7 +254,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		Iterator<QNodeI> simNodes = this.nodesQueue.iterator();
 		while (simNodes.hasNext()) {
 			node = simNodes.next();
-			remainsActive = node.doSimStep(time);
+			remainsActive = moveNode(node, time);
 			if (!remainsActive) simNodes.remove();
 		}
 		this.lockNodes = false;
@@ -104,7 +268,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		while (simLinks.hasNext()) {
 			link = simLinks.next();
 
-			remainsActive = link.doSimStep();
+			remainsActive = moveLink(link);
 
 			if (!remainsActive) simLinks.remove();
 		}
@@ -117,13 +281,13 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	protected final void registerLinkAsActive(QLinkI link) {
+	protected void registerLinkAsActive(QLinkI link) {
 		if (!lockLinks) linksList.add(link);
 		else throw new RuntimeException("Tried to activate a QLink at a time where this was not allowed. Aborting!");
 	}
 
 	@Override
-	public final int getNumberOfSimulatedLinks() {
+	public int getNumberOfSimulatedLinks() {
 		return this.linksList.size();
 	}
 
@@ -133,11 +297,15 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	protected final void registerNodeAsActive(QNodeI node) {
+	protected void registerNodeAsActive(QNodeI node) {
 		if (!this.lockNodes) this.nodesQueue.add(node);
 		else throw new RuntimeException("Tried to activate a QNode at a time where this was not allowed. Aborting!");
 	}
 
+	/*package*/ boolean hasActiveNetElements() {
+		return !this.nodesQueue.isEmpty() || !this.linksList.isEmpty();
+	}
+
 	/*
 	 * Note that the size() method is O(n) for a ConcurrentLinkedQueue as used
 	 * for the nodesQueue. However, this method is only called once every simulated
@@ -145,7 +313,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	public final int getNumberOfSimulatedNodes() {
+	public int getNumberOfSimulatedNodes() {
 		return this.nodesQueue.size();
 	}
 
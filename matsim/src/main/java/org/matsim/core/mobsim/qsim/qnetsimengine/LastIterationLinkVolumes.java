@@ -0,0 +1,73 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+
+/**
+ * Counts the vehicles leaving each link and keeps the counts of the previous iteration, which are used to balance
+ * the network regions of the QNetsimEngine runners for
+ * {@link org.matsim.core.config.groups.QSimConfigGroup.NetsimElementAssignment#partitionByVolumes}.
+ * <p>
+ * Bound as a singleton outside of the QSim scope so that it survives from one mobsim run to the next.
+ */
+public final class LastIterationLinkVolumes implements LinkLeaveEventHandler {
+
+	private int[] currentVolumes = new int[0];
+	private int[] lastVolumes = null;
+
+	@Override
+	public void handleEvent(LinkLeaveEvent event) {
+		int index = event.getLinkId().index();
+		if (index >= this.currentVolumes.length) {
+			this.currentVolumes = Arrays.copyOf(this.currentVolumes, Math.max(index + 1, Id.getNumberOfIds(Link.class)));
+		}
+		this.currentVolumes[index]++;
+	}
+
+	@Override
+	public void reset(int iteration) {
+		// called before every iteration, so the counts collected so far belong to the previous one
+		if (Arrays.stream(this.currentVolumes).anyMatch(volume -> volume > 0)) {
+			this.lastVolumes = this.currentVolumes;
+		}
+		this.currentVolumes = new int[this.currentVolumes.length];
+	}
+
+	/**
+	 * @return whether volumes of a previous iteration are available
+	 */
+	public boolean hasVolumes() {
+		return this.lastVolumes != null;
+	}
+
+	/**
+	 * @return the number of vehicles that left the link in the previous iteration
+	 */
+	public int getVolume(Id<Link> linkId) {
+		int index = linkId.index();
+		return this.lastVolumes != null && index < this.lastVolumes.length ? this.lastVolumes[index] : 0;
+	}
+}
@@ -45,11 +45,18 @@ final class QNetsimEngineRunnerForThreadpool extends AbstractQNetsimEngineRunner
 			return false;
 		}
 
-		if (this.movingNodes) {
-			moveNodes();
-		} else {
-			moveLinks();
+		long start = System.nanoTime();
+		startBufferingEvents();
+		try {
+			if (this.movingNodes) {
+				moveNodes();
+			} else {
+				moveLinks();
+			}
+		} finally {
+			stopBufferingEvents();
 		}
+		addBusyNanos(System.nanoTime() - start);
 		return true ;
 	}
 
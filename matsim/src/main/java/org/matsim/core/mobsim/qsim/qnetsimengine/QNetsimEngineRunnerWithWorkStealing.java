@@ -0,0 +1,230 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.matsim.core.gbl.Gbl;
+
+/**
+ * Runner of the {@link QNetsimEngineWithWorkStealing}. Nodes and links are still assigned to the runners in the same
+ * way as for the {@link QNetsimEngineRunnerForThreadpool}, but a runner which is done with its own active nodes (or
+ * links) takes over chunks of the active nodes (or links) of the other runners instead of waiting at the barrier.
+ * <p>
+ * This does not change the results: the elements that are moved within one phase do not depend on each other, and
+ * every node has its own random number generator when running with more than one thread. With a single runner, the
+ * elements are moved in exactly the same order as by the {@link QNetsimEngineRunnerForThreadpool}.
+ */
+final class QNetsimEngineRunnerWithWorkStealing extends AbstractQNetsimEngineRunner implements Callable<Boolean> {
+
+	/*
+	 * Elements are claimed in chunks to keep the number of atomic operations low. Small enough that the
+	 * last chunks of a busy runner can still be spread over the idle ones.
+	 */
+	private static final int CHUNK_SIZE = 16;
+
+	private final WorkList<QNodeI> nodes = new WorkList<>();
+	private final WorkList<QLinkI> links = new WorkList<>();
+
+	private List<QNetsimEngineRunnerWithWorkStealing> runners = List.of(this);
+	private int index = 0;
+
+	private volatile boolean simulationRunning = true;
+	private boolean movingNodes = false;
+	private boolean movingLinks = false;
+	private long stolenElements = 0;
+
+	QNetsimEngineRunnerWithWorkStealing() {
+	}
+
+	/**
+	 * @param runners all runners of the engine, including this one, whose work may be taken over
+	 * @param index the position of this runner in <code>runners</code>
+	 */
+	/*package*/ void setRunners(List<QNetsimEngineRunnerWithWorkStealing> runners, int index) {
+		this.runners = runners;
+		this.index = index;
+	}
+
+	@Override
+	public Boolean call() {
+		if (!this.simulationRunning) {
+			Gbl.printCurrentThreadCpuTime();
+			return false;
+		}
+
+		long start = System.nanoTime();
+		final double time = getTime();
+		Predicate<QNodeI> moveNode = node -> moveNode(node, time);
+		Predicate<QLinkI> moveLink = this::moveLink;
+
+		// start with the own elements, then help the next runners
+		startBufferingEvents();
+		try {
+			int numberOfRunners = this.runners.size();
+			for (int i = 0; i < numberOfRunners; i++) {
+				QNetsimEngineRunnerWithWorkStealing runner = this.runners.get((this.index + i) % numberOfRunners);
+				int moved = this.movingNodes ? runner.nodes.process(moveNode) : runner.links.process(moveLink);
+				if (i > 0) {
+					this.stolenElements += moved;
+				}
+			}
+		} finally {
+			stopBufferingEvents();
+		}
+		addBusyNanos(System.nanoTime() - start);
+		return true;
+	}
+
+	@Override
+	public void afterSim() {
+		this.simulationRunning = false;
+	}
+
+	/**
+	 * Must be called by the engine while no runner is executing.
+	 */
+	/*package*/ void setMovingNodes(boolean movingNodes) {
+		if (movingNodes) this.nodes.prepare();
+		this.movingNodes = movingNodes;
+	}
+
+	/**
+	 * Must be called by the engine while no runner is executing.
+	 */
+	/*package*/ void setMovingLinks(boolean movingLinks) {
+		if (movingLinks) this.links.prepare();
+		this.movingLinks = movingLinks;
+	}
+
+	/*package*/ long getStolenElements() {
+		return this.stolenElements;
+	}
+
+	@Override
+	protected void registerLinkAsActive(QLinkI link) {
+		if (!this.movingLinks) this.links.activated.add(link);
+		else throw new RuntimeException("Tried to activate a QLink at a time where this was not allowed. Aborting!");
+	}
+
+	@Override
+	protected void registerNodeAsActive(QNodeI node) {
+		if (!this.movingNodes) this.nodes.activated.add(node);
+		else throw new RuntimeException("Tried to activate a QNode at a time where this was not allowed. Aborting!");
+	}
+
+	@Override
+	public int getNumberOfSimulatedLinks() {
+		return this.links.size();
+	}
+
+	@Override
+	public int getNumberOfSimulatedNodes() {
+		return this.nodes.size();
+	}
+
+	@Override
+	/*package*/ boolean hasActiveNetElements() {
+		return !this.nodes.isEmpty() || !this.links.isEmpty();
+	}
+
+	/**
+	 * The active elements of one runner. Elements may be activated concurrently from any runner, so they are
+	 * collected in a thread-safe queue and only appended to the array between the phases. While moving, the
+	 * runners claim chunks of the array through the cursor and null out the elements that became inactive.
+	 */
+	private static final class WorkList<E> {
+
+		private final Queue<E> activated = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger cursor = new AtomicInteger();
+		private Object[] elements = new Object[64];
+		private int size = 0;
+
+		/**
+		 * Removes the elements that became inactive in the last phase and appends the newly activated ones,
+		 * keeping the order of both.
+		 */
+		void prepare() {
+			int n = 0;
+			for (int i = 0; i < this.size; i++) {
+				if (this.elements[i] != null) {
+					this.elements[n++] = this.elements[i];
+				}
+			}
+			for (int i = n; i < this.size; i++) {
+				this.elements[i] = null;
+			}
+			this.size = n;
+
+			E element;
+			while ((element = this.activated.poll()) != null) {
+				if (this.size == this.elements.length) {
+					this.elements = Arrays.copyOf(this.elements, this.size * 2);
+				}
+				this.elements[this.size++] = element;
+			}
+			this.cursor.set(0);
+		}
+
+		/**
+		 * @return the number of elements moved by the calling thread
+		 */
+		@SuppressWarnings("unchecked")
+		int process(Predicate<E> simStep) {
+			int moved = 0;
+			int start;
+			while ((start = this.cursor.getAndAdd(CHUNK_SIZE)) < this.size) {
+				int end = Math.min(this.size, start + CHUNK_SIZE);
+				for (int i = start; i < end; i++) {
+					if (!simStep.test((E) this.elements[i])) {
+						this.elements[i] = null;
+					}
+				}
+				moved += end - start;
+			}
+			return moved;
+		}
+
+		boolean isEmpty() {
+			for (int i = 0; i < this.size; i++) {
+				if (this.elements[i] != null) return false;
+			}
+			return this.activated.isEmpty();
+		}
+
+		/*
+		 * Only used for the log messages, see AbstractQNetsimEngineRunner.getNumberOfSimulatedNodes()
+		 * on the cost of ConcurrentLinkedQueue.size().
+		 */
+		int size() {
+			int active = 0;
+			for (int i = 0; i < this.size; i++) {
+				if (this.elements[i] != null) active++;
+			}
+			return active + this.activated.size();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimLoadBalancing;
+import org.matsim.core.mobsim.qsim.QSim;
+
+/**
+ * Variant of the {@link QNetsimEngineWithThreadpool} for {@link NetsimLoadBalancing#workStealing}: runners that
+ * are done with their own nodes or links help the others, see {@link QNetsimEngineRunnerWithWorkStealing}. Useful
+ * if the active parts of the network are not spread evenly over the runners, e.g. a congested city center.
+ */
+final class QNetsimEngineWithWorkStealing extends AbstractQNetsimEngine<QNetsimEngineRunnerWithWorkStealing> {
+
+	private static final Logger log = LogManager.getLogger(QNetsimEngineWithWorkStealing.class);
+
+	private ExecutorService pool;
+
+	public QNetsimEngineWithWorkStealing(final QSim sim) {
+		this(sim, null);
+	}
+
+	@Inject
+	public QNetsimEngineWithWorkStealing(final QSim sim, QNetworkFactory netsimNetworkFactory) {
+		super(sim, netsimNetworkFactory);
+	}
+
+	@Override
+	protected void run(double time) {
+		List<QNetsimEngineRunnerWithWorkStealing> runners = this.getQnetsimEngineRunner();
+		for (QNetsimEngineRunnerWithWorkStealing runner : runners) {
+			runner.setTime(time);
+		}
+
+		try {
+			for (QNetsimEngineRunnerWithWorkStealing runner : runners) {
+				runner.setMovingNodes(true);
+			}
+			for (Future<Boolean> future : this.pool.invokeAll(runners)) {
+				future.get();
+			}
+			for (QNetsimEngineRunnerWithWorkStealing runner : runners) {
+				runner.setMovingNodes(false);
+			}
+			for (QNetsimEngineRunnerWithWorkStealing runner : runners) {
+				runner.setMovingLinks(true);
+			}
+			for (Future<Boolean> future : this.pool.invokeAll(runners)) {
+				future.get();
+			}
+			for (QNetsimEngineRunnerWithWorkStealing runner : runners) {
+				runner.setMovingLinks(false);
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	@Override
+	protected List<QNetsimEngineRunnerWithWorkStealing> initQSimEngineRunners() {
+		List<QNetsimEngineRunnerWithWorkStealing> runners = new ArrayList<>();
+		for (int i = 0; i < this.numOfThreads; i++) {
+			runners.add(new QNetsimEngineRunnerWithWorkStealing());
+		}
+		List<QNetsimEngineRunnerWithWorkStealing> allRunners = Collections.unmodifiableList(runners);
+		for (int i = 0; i < runners.size(); i++) {
+			runners.get(i).setRunners(allRunners, i);
+		}
+		return runners;
+	}
+
+	@Override
+	protected void initMultiThreading() {
+		AtomicInteger count = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(this.numOfThreads,
+				r -> new Thread(r, "QNetsimEngine_WorkStealingThread_" + count.getAndIncrement()));
+	}
+
+	@Override
+	protected void finishMultiThreading() {
+		this.pool.shutdown();
+		List<QNetsimEngineRunnerWithWorkStealing> runners = this.getQnetsimEngineRunner();
+		for (int i = 0; i < runners.size(); i++) {
+			log.info("QNetsimEngineRunner #" + i + " moved " + runners.get(i).getStolenElements()
+					+ " nodes and links of other runners");
+		}
+	}
+}
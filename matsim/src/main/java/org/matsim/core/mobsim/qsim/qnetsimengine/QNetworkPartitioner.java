@@ -0,0 +1,54 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Collection;
+import java.util.function.ToDoubleFunction;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.algorithms.RecursiveCoordinateBisection;
+
+/**
+ * Splits the network into contiguous regions of (roughly) equal weight using weighted recursive coordinate
+ * bisection over the nodes, see {@link RecursiveCoordinateBisection}. A node is weighted with the sum of the weights of
+ * its out-links, since these are moved by the same runner.
+ */
+final class QNetworkPartitioner {
+
+	private QNetworkPartitioner() {
+	}
+
+	/**
+	 * @return the region of each node, indexed by the node id index
+	 */
+	static int[] partition(Collection<? extends Node> nodes, ToDoubleFunction<Link> linkWeight, int numberOfRegions) {
+		int[] partition = new int[Id.getNumberOfIds(Node.class)];
+		RecursiveCoordinateBisection.partition(nodes, node -> node.getId().index(), Node::getCoord, node -> {
+			double weight = 0;
+			for (Link link : node.getOutLinks().values()) {
+				weight += linkWeight.applyAsDouble(link);
+			}
+			return weight;
+		}, numberOfRegions, partition);
+		return partition;
+	}
+}
@@ -111,7 +111,11 @@ final class QNodeImpl extends AbstractQNode {
 		int nofInLinks = n.getInLinks().size();
 		this.inLinksArrayCache = new QLinkI[nofInLinks];
 		this.tempLinks = new QLinkI[nofInLinks];
-		if (this.context.qsimConfig.getNumberOfThreads() > 1) {
+		if (this.context.qsimConfig.isDeterministicParallelism()) {
+			// does not depend on the number of threads, nor on the order in which the nodes are created.
+			// Unlike the hash codes of the ids, the indices of the ids are unique, so no two nodes share a stream:
+			this.random = MatsimRandom.getLocalInstance(n.getId().index());
+		} else if (this.context.qsimConfig.getNumberOfThreads() > 1) {
 			// This could just as well be the "normal" case. The second alternative
 			// is just there so some scenarios / test cases stay
 			// "event-file-compatible". Consider removing the second alternative.
@@ -53,6 +53,7 @@ import org.matsim.core.mobsim.qsim.qnetsimengine.flow_efficiency.FlowEfficiencyC
 import org.matsim.core.mobsim.qsim.qnetsimengine.linkspeedcalculator.LinkSpeedCalculator;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.FIFOVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.PassingVehicleQ;
+import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.RingBufferVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.VehicleQ;
 import org.matsim.lanes.Lane;
 import org.matsim.vehicles.Vehicle;
@@ -143,6 +144,11 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 	 * according to the free travel speed of the link
 	 */
 	private final VehicleQ<QVehicle> vehQueue;
+	/**
+	 * Same as {@link #vehQueue} if that is a {@link RingBufferVehicleQ}, otherwise null.  Allows to check the exit time of the
+	 * first vehicle without dereferencing it.
+	 */
+	private final RingBufferVehicleQ ringBufferVehQueue;
 
 	private double storageCapacity;
 	private double usedStorageCapacity;
@@ -206,6 +212,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		this.id = laneId ;
 		this.context = context ;
 		this.vehQueue = vehicleQueue ;
+		this.ringBufferVehQueue = vehicleQueue instanceof RingBufferVehicleQ ? (RingBufferVehicleQ) vehicleQueue : null;
 		this.length = length;
 		this.unscaledFlowCapacity_s = flowCapacity_s ;
 		this.effectiveNumberOfLanes = effectiveNumberOfLanes;
@@ -259,6 +266,10 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
         QVehicle veh;
         while ((veh = peekFromVehQueue()) != null) {
             //we have an original QueueLink behaviour
+            if (ringBufferVehQueue != null && ringBufferVehQueue.peekEarliestLinkExitTime() > now) {
+                // (the recorded exit time is a lower bound of the actual one)
+                return;
+            }
             if (veh.getEarliestLinkExitTime() > now) {
                 return;
             }
@@ -1078,6 +1089,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
             if (context.qsimConfig.getLinkDynamics() == QSimConfigGroup.LinkDynamics.PassingQ ||
                     context.qsimConfig.getLinkDynamics() == QSimConfigGroup.LinkDynamics.SeepageQ) {
                 this.vehicleQueue = new PassingVehicleQ();
+            } else if (context.qsimConfig.getFifoVehicleQueue() == QSimConfigGroup.FifoVehicleQueue.ringBuffer) {
+                this.vehicleQueue = new RingBufferVehicleQ();
             }
         }
 
@@ -0,0 +1,184 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
+
+/**
+ * FIFO vehicle queue backed by a ring buffer.  Next to the vehicles, the earliest link exit times are kept in a parallel
+ * primitive array, so that the link can find out whether its first vehicle may leave without touching the vehicle object.
+ * <br/>
+ * The exit times are recorded when a vehicle is added.  They are therefore only a lower bound if the exit time of a
+ * vehicle is increased while it is in the queue (as done by transit stops); the vehicle itself needs to be asked once
+ * the recorded time has passed.
+ */
+public final class RingBufferVehicleQ extends AbstractQueue<QVehicle> implements VehicleQ<QVehicle> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private QVehicle[] vehicles = new QVehicle[INITIAL_CAPACITY];
+	private double[] earliestLinkExitTimes = new double[INITIAL_CAPACITY];
+	private int mask = INITIAL_CAPACITY - 1;
+
+	private int head = 0;
+	private int size = 0;
+
+	@Override
+	public boolean offer(QVehicle veh) {
+		Objects.requireNonNull(veh);
+		ensureCapacity();
+		set((head + size) & mask, veh);
+		size++;
+		return true;
+	}
+
+	@Override
+	public void addFirst(QVehicle veh) {
+		Objects.requireNonNull(veh);
+		ensureCapacity();
+		head = (head - 1) & mask;
+		set(head, veh);
+		size++;
+	}
+
+	@Override
+	public QVehicle peek() {
+		return size == 0 ? null : vehicles[head];
+	}
+
+	@Override
+	public QVehicle poll() {
+		if (size == 0) {
+			return null;
+		}
+		QVehicle veh = vehicles[head];
+		vehicles[head] = null;
+		head = (head + 1) & mask;
+		size--;
+		return veh;
+	}
+
+	/**
+	 * @return the earliest link exit time of the first vehicle at the time it was added, or
+	 * {@link Double#POSITIVE_INFINITY} if the queue is empty
+	 */
+	public double peekEarliestLinkExitTime() {
+		return size == 0 ? Double.POSITIVE_INFINITY : earliestLinkExitTimes[head];
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		for (int i = 0; i < size; i++) {
+			if (vehicles[(head + i) & mask].equals(o)) {
+				removeAt(i);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(vehicles, null);
+		head = 0;
+		size = 0;
+	}
+
+	@Override
+	public Iterator<QVehicle> iterator() {
+		return new Iterator<>() {
+			private int next = 0;
+			private int lastReturned = -1;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public QVehicle next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				lastReturned = next++;
+				return vehicles[(head + lastReturned) & mask];
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned < 0) {
+					throw new IllegalStateException();
+				}
+				removeAt(lastReturned);
+				next = lastReturned;
+				lastReturned = -1;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void set(int slot, QVehicle veh) {
+		vehicles[slot] = veh;
+		earliestLinkExitTimes[slot] = veh.getEarliestLinkExitTime();
+	}
+
+	/**
+	 * Removes the element at the given position (counted from the head) by moving the elements behind it one slot ahead.
+	 */
+	private void removeAt(int position) {
+		for (int i = position; i < size - 1; i++) {
+			int slot = (head + i) & mask;
+			int nextSlot = (head + i + 1) & mask;
+			vehicles[slot] = vehicles[nextSlot];
+			earliestLinkExitTimes[slot] = earliestLinkExitTimes[nextSlot];
+		}
+		vehicles[(head + size - 1) & mask] = null;
+		size--;
+	}
+
+	private void ensureCapacity() {
+		if (size < vehicles.length) {
+			return;
+		}
+		int capacity = vehicles.length * 2;
+		QVehicle[] newVehicles = new QVehicle[capacity];
+		double[] newExitTimes = new double[capacity];
+		// unroll the ring so that the head is at index 0 again:
+		int firstPart = vehicles.length - head;
+		System.arraycopy(vehicles, head, newVehicles, 0, firstPart);
+		System.arraycopy(vehicles, 0, newVehicles, firstPart, head);
+		System.arraycopy(earliestLinkExitTimes, head, newExitTimes, 0, firstPart);
+		System.arraycopy(earliestLinkExitTimes, 0, newExitTimes, firstPart, head);
+		vehicles = newVehicles;
+		earliestLinkExitTimes = newExitTimes;
+		mask = capacity - 1;
+		head = 0;
+	}
+
+}
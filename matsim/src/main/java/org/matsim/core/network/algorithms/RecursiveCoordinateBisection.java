@@ -0,0 +1,113 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.network.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+import org.matsim.api.core.v01.Coord;
+
+/**
+ * Splits network elements (e.g. nodes or links) into contiguous regions of (roughly) equal weight using weighted
+ * recursive coordinate bisection: the elements are sorted along the longer side of their bounding box and cut where
+ * half of the weight is reached, recursively until there is one region per part. Compared to a multilevel graph
+ * partitioner, the cuts are not minimal, but for road networks cutting along coordinates already keeps most links
+ * within one region, and it is cheap even for large networks. The result only depends on the coordinates, the weights
+ * and the indices of the elements, so it is the same in every run.
+ */
+public final class RecursiveCoordinateBisection {
+
+	private RecursiveCoordinateBisection() {
+	}
+
+	/**
+	 * @param elements        the elements to partition
+	 * @param index           a unique index of each element, e.g. the index of its id
+	 * @param coord           the location of each element
+	 * @param weight          the weight of each element. If all weights are 0, the regions get the same number of elements.
+	 * @param numberOfRegions the number of regions
+	 * @param partition       receives the region of each element at its index, must be large enough for all indices
+	 */
+	public static <T> void partition(Collection<? extends T> elements, ToIntFunction<? super T> index, Function<? super T, Coord> coord,
+			ToDoubleFunction<? super T> weight, int numberOfRegions, int[] partition) {
+		double[] x = new double[partition.length];
+		double[] y = new double[partition.length];
+		double[] weights = new double[partition.length];
+		List<T> sorted = new ArrayList<>(elements);
+		for (T element : sorted) {
+			int i = index.applyAsInt(element);
+			Coord c = coord.apply(element);
+			x[i] = c.getX();
+			y[i] = c.getY();
+			weights[i] = weight.applyAsDouble(element);
+		}
+		bisect(sorted, index, 0, sorted.size(), 0, numberOfRegions, x, y, weights, partition);
+	}
+
+	private static <T> void bisect(List<T> elements, ToIntFunction<? super T> index, int from, int to, int firstRegion, int regions,
+			double[] x, double[] y, double[] weights, int[] partition) {
+		if (regions == 1 || to - from <= 1) {
+			for (int i = from; i < to; i++) {
+				partition[index.applyAsInt(elements.get(i))] = firstRegion;
+			}
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		double totalWeight = 0;
+		for (int i = from; i < to; i++) {
+			int idx = index.applyAsInt(elements.get(i));
+			minX = Math.min(minX, x[idx]);
+			maxX = Math.max(maxX, x[idx]);
+			minY = Math.min(minY, y[idx]);
+			maxY = Math.max(maxY, y[idx]);
+			totalWeight += weights[idx];
+		}
+		// cut across the longer side of the bounding box, ties are broken by index to keep the partition deterministic
+		double[] along = (maxX - minX >= maxY - minY) ? x : y;
+		Comparator<T> byCoord = Comparator.comparingDouble(e -> along[index.applyAsInt(e)]);
+		elements.subList(from, to).sort(byCoord.thenComparingInt(index));
+
+		int leftRegions = regions / 2;
+		int split;
+		if (totalWeight > 0) {
+			double leftWeight = totalWeight * leftRegions / regions;
+			double weight = 0;
+			split = from;
+			while (split < to && weight < leftWeight) {
+				weight += weights[index.applyAsInt(elements.get(split))];
+				split++;
+			}
+		} else {
+			split = from + (int) ((long) (to - from) * leftRegions / regions);
+		}
+		// every region should get at least one element if possible
+		int minSplit = from + Math.min(leftRegions, to - from - 1);
+		int maxSplit = to - Math.min(regions - leftRegions, to - from - 1);
+		split = Math.max(minSplit, Math.min(split, maxSplit));
+		bisect(elements, index, from, split, firstRegion, leftRegions, x, y, weights, partition);
+		bisect(elements, index, split, to, firstRegion + leftRegions, regions - leftRegions, x, y, weights, partition);
+	}
+}
@@ -0,0 +1,309 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * A bounded cache of network routes, shared by all {@link NetworkRoutingModule}s. Routes are cached per from-link,
+ * to-link, mode and departure time bin. Only the links of a route are cached: the travel time and cost are calculated
+ * again for every departure that uses it. The least recently used routes are evicted once the cache is full.
+ * <p>
+ * The cache is cleared whenever one of the {@link TravelTimeCalculator}s starts to collect new travel times (see
+ * {@link TravelTimeCalculator#getVersion()}), so replanning only reuses routes based on the same travel times. As all
+ * persons get the same route, the travel disutilities must not depend on the person, e.g. there must be no
+ * routingRandomness.
+ * <p>
+ * At the end of every iteration, the hit rate and the approximate memory usage are logged.
+ * <p>
+ * This class is thread-safe. The routes are split into several stripes with a lock each, so routing threads rarely
+ * wait for each other. Each stripe evicts its least recently used routes on its own.
+ */
+public final class NetworkRouteCache implements IterationEndsListener {
+
+	private static final Logger log = LogManager.getLogger(NetworkRouteCache.class);
+
+	// rough estimate of the memory used per entry besides the link indices: key, value, map entry and array header
+	private static final int ENTRY_BYTES = 144;
+	private static final int STRIPES_COUNT = 16;
+	// small caches use fewer stripes, so the least recently used routes are still evicted first
+	private static final int MIN_STRIPE_SIZE = 1024;
+
+	private final double timeBinSize;
+	private final Collection<TravelTimeCalculator> travelTimeCalculators;
+	private final Stripe[] stripes;
+	private volatile int travelTimesVersion;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	public NetworkRouteCache(int maxSize, double timeBinSize, Collection<TravelTimeCalculator> travelTimeCalculators) {
+		this.timeBinSize = timeBinSize;
+		this.travelTimeCalculators = new ArrayList<>(travelTimeCalculators);
+		this.travelTimesVersion = getTravelTimesVersion();
+		int stripesCount = Math.max(1, Math.min(STRIPES_COUNT, maxSize / MIN_STRIPE_SIZE));
+		this.stripes = new Stripe[stripesCount];
+		for (int i = 0; i < stripesCount; i++) {
+			// distribute maxSize, so the stripes together never hold more routes
+			this.stripes[i] = new Stripe(maxSize / stripesCount + (i < maxSize % stripesCount ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @return the links of the cached route, without the from- and to-link, or <code>null</code> if there is none
+	 */
+	public List<Id<Link>> get(Id<Link> fromLinkId, Id<Link> toLinkId, String mode, double departureTime) {
+		checkTravelTimesVersion();
+		RouteKey key = new RouteKey(fromLinkId, toLinkId, mode, getTimeBin(departureTime));
+		Stripe stripe = getStripe(key);
+		CachedRoute route;
+		synchronized (stripe) {
+			route = stripe.get(key);
+		}
+		if (route == null) {
+			this.misses.increment();
+			return null;
+		}
+		this.hits.increment();
+		return route.getLinkIds();
+	}
+
+	/**
+	 * @param linkIds the links of the route, without the from- and to-link
+	 */
+	public void put(Id<Link> fromLinkId, Id<Link> toLinkId, String mode, double departureTime, List<Id<Link>> linkIds) {
+		checkTravelTimesVersion();
+		RouteKey key = new RouteKey(fromLinkId, toLinkId, mode, getTimeBin(departureTime));
+		CachedRoute route = new CachedRoute(linkIds);
+		Stripe stripe = getStripe(key);
+		synchronized (stripe) {
+			CachedRoute previous = stripe.put(key, route);
+			stripe.memory += route.getMemory();
+			if (previous != null) {
+				stripe.memory -= previous.getMemory();
+			}
+		}
+	}
+
+	public void clear() {
+		for (Stripe stripe : this.stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+				stripe.memory = 0;
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : this.stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	private long getMemory() {
+		long memory = 0;
+		for (Stripe stripe : this.stripes) {
+			synchronized (stripe) {
+				memory += stripe.memory;
+			}
+		}
+		return memory;
+	}
+
+	private Stripe getStripe(RouteKey key) {
+		return this.stripes[Math.floorMod(key.hash, this.stripes.length)];
+	}
+
+	private int getTimeBin(double departureTime) {
+		return (int) Math.floor(departureTime / this.timeBinSize);
+	}
+
+	private int getTravelTimesVersion() {
+		int version = 0;
+		for (TravelTimeCalculator calculator : this.travelTimeCalculators) {
+			version += calculator.getVersion();
+		}
+		return version;
+	}
+
+	private void checkTravelTimesVersion() {
+		int version = getTravelTimesVersion();
+		if (version != this.travelTimesVersion) {
+			synchronized (this) {
+				if (version != this.travelTimesVersion) {
+					this.travelTimesVersion = version;
+					if (size() > 0) {
+						this.invalidations.increment();
+						clear();
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		long hits = this.hits.sumThenReset();
+		long lookups = hits + this.misses.sumThenReset();
+		double hitRate = lookups == 0 ? 0 : 100.0 * hits / lookups;
+		log.info(String.format("route cache: %d lookups, hit rate %.1f%%, %d invalidations, %d cached routes using approx. %.1f MB",
+				lookups, hitRate, this.invalidations.sumThenReset(), size(), getMemory() / 1024.0 / 1024.0));
+	}
+
+	/**
+	 * The routes of one stripe, least recently used first. Only accessed while holding its lock.
+	 */
+	private static final class Stripe extends LinkedHashMap<RouteKey, CachedRoute> {
+		private final int maxSize;
+		private long memory = 0;
+
+		Stripe(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RouteKey, CachedRoute> eldest) {
+			if (size() > this.maxSize) {
+				this.memory -= eldest.getValue().getMemory();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private static final class CachedRoute {
+		private final int[] linkIndices;
+
+		private CachedRoute(List<Id<Link>> linkIds) {
+			this.linkIndices = new int[linkIds.size()];
+			for (int i = 0; i < this.linkIndices.length; i++) {
+				this.linkIndices[i] = linkIds.get(i).index();
+			}
+		}
+
+		private List<Id<Link>> getLinkIds() {
+			List<Id<Link>> linkIds = new ArrayList<>(this.linkIndices.length);
+			for (int linkIndex : this.linkIndices) {
+				linkIds.add(Id.get(linkIndex, Link.class));
+			}
+			return linkIds;
+		}
+
+		private long getMemory() {
+			return ENTRY_BYTES + 4L * this.linkIndices.length;
+		}
+	}
+
+	private static final class RouteKey {
+		private final Id<Link> fromLinkId;
+		private final Id<Link> toLinkId;
+		private final String mode;
+		private final int timeBin;
+		private final int hash;
+
+		RouteKey(Id<Link> fromLinkId, Id<Link> toLinkId, String mode, int timeBin) {
+			this.fromLinkId = fromLinkId;
+			this.toLinkId = toLinkId;
+			this.mode = mode;
+			this.timeBin = timeBin;
+			this.hash = Objects.hash(fromLinkId.index(), toLinkId.index(), mode, timeBin);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof RouteKey)) {
+				return false;
+			}
+			RouteKey other = (RouteKey) o;
+			return this.fromLinkId == other.fromLinkId && this.toLinkId == other.toLinkId && this.timeBin == other.timeBin
+					&& this.mode.equals(other.mode);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+	/**
+	 * Creates the cache with the settings of the {@link PlansCalcRouteConfigGroup}, clearing it whenever one of the
+	 * bound {@link TravelTimeCalculator}s starts to collect new travel times.
+	 */
+	static final class NetworkRouteCacheProvider implements Provider<NetworkRouteCache> {
+
+		@Inject Injector injector;
+		@Inject PlansCalcRouteConfigGroup plansCalcRouteConfigGroup;
+		@Inject TravelTimeCalculatorConfigGroup travelTimeCalculatorConfigGroup;
+
+		@Override
+		public NetworkRouteCache get() {
+			List<TravelTimeCalculator> calculators = new ArrayList<>();
+			if (this.travelTimeCalculatorConfigGroup.getSeparateModes()) {
+				for (String mode : this.plansCalcRouteConfigGroup.getNetworkModes()) {
+					addCalculator(Key.get(TravelTimeCalculator.class, Names.named(mode)), calculators);
+				}
+			} else {
+				addCalculator(Key.get(TravelTimeCalculator.class), calculators);
+			}
+			if (calculators.isEmpty()) {
+				log.warn("No TravelTimeCalculator is bound, so the route cache is never cleared.");
+			}
+			return new NetworkRouteCache(this.plansCalcRouteConfigGroup.getRouteCacheSize(),
+					this.plansCalcRouteConfigGroup.getRouteCacheTimeBinSize(), calculators);
+		}
+
+		private void addCalculator(Key<TravelTimeCalculator> key, List<TravelTimeCalculator> calculators) {
+			Binding<TravelTimeCalculator> binding = this.injector.getExistingBinding(key);
+			if (binding != null) {
+				calculators.add(binding.getProvider().get());
+			}
+		}
+	}
+
+}
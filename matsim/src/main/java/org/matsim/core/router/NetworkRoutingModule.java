@@ -35,6 +35,8 @@ import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.RouteUtils;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
 import org.matsim.facilities.Facility;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleUtils;
@@ -54,6 +56,9 @@ public final class NetworkRoutingModule implements RoutingModule {
 
 	private final Network network;
 	private final LeastCostPathCalculator routeAlgo;
+	private final NetworkRouteCache routeCache;
+	private final TravelTime travelTime;
+	private final TravelDisutility travelDisutility;
 
 
 	 public NetworkRoutingModule(
@@ -61,6 +66,22 @@ public final class NetworkRoutingModule implements RoutingModule {
 			final PopulationFactory populationFactory,
 			final Network network,
 			final LeastCostPathCalculator routeAlgo) {
+		 this(mode, populationFactory, network, routeAlgo, null, null, null);
+	}
+
+	/**
+	 * @param routeCache may be <code>null</code>, otherwise routes are looked up in and added to this cache
+	 * @param travelTime the travel times used by the routeAlgo, to calculate the travel time of cached routes
+	 * @param travelDisutility the travel disutilities used by the routeAlgo, to calculate the travel cost of cached routes
+	 */
+	 public NetworkRoutingModule(
+			final String mode,
+			final PopulationFactory populationFactory,
+			final Network network,
+			final LeastCostPathCalculator routeAlgo,
+			final NetworkRouteCache routeCache,
+			final TravelTime travelTime,
+			final TravelDisutility travelDisutility) {
 		 Gbl.assertNotNull(network);
 //		 Gbl.assertIf( network.getLinks().size()>0 ) ; // otherwise network for mode probably not defined
 		 // makes many tests fail.  
@@ -68,35 +89,30 @@ public final class NetworkRoutingModule implements RoutingModule {
 		 this.routeAlgo = routeAlgo;
 		 this.mode = mode;
 		 this.populationFactory = populationFactory;
+		 this.routeCache = routeCache;
+		 this.travelTime = travelTime;
+		 this.travelDisutility = travelDisutility;
+		 if (routeCache != null) {
+			 Gbl.assertNotNull(travelTime);
+			 Gbl.assertNotNull(travelDisutility);
+		 }
 	}
 
 	@Override
 	public List<? extends PlanElement> calcRoute(RoutingRequest request) {
-		final Facility fromFacility = request.getFromFacility();
-		final Facility toFacility = request.getToFacility();
 		final double departureTime = request.getDepartureTime();
 		final Person person = request.getPerson();
-		
-		Leg newLeg = this.populationFactory.createLeg( this.mode );
 
-		Gbl.assertNotNull(fromFacility);
-		Gbl.assertNotNull(toFacility);
+		Link fromLink = getLink(request.getFromFacility());
+		Link toLink = getLink(request.getToFacility());
 
-		Link fromLink = this.network.getLinks().get(fromFacility.getLinkId());
-		if ( fromLink==null ) {
-			Gbl.assertNotNull( fromFacility.getCoord() ) ;
-			fromLink = NetworkUtils.getNearestLink( network, fromFacility.getCoord()) ;
-		}
-		Link toLink = this.network.getLinks().get(toFacility.getLinkId());
-		if ( toLink==null ) {
-			Gbl.assertNotNull( toFacility.getCoord() ) ;
-			toLink = NetworkUtils.getNearestLink(network, toFacility.getCoord());
-		}
-		Gbl.assertNotNull(fromLink);
-		Gbl.assertNotNull(toLink);
-		
+		Path path = null;
 		if (toLink != fromLink) {
 			// (a "true" route)
+			List<Id<Link>> cachedLinkIds = getCachedRoute(fromLink, toLink, departureTime);
+			if (cachedLinkIds != null) {
+				return Arrays.asList( createCachedLeg(fromLink, toLink, departureTime, person, cachedLinkIds) );
+			}
 			Node startNode = fromLink.getToNode(); // start at the end of the "current" link
 			Node endNode = toLink.getFromNode(); // the target is the start of the link
 
@@ -105,28 +121,83 @@ public final class NetworkRoutingModule implements RoutingModule {
 			 * So i don't add it here (yet), in order not to break anything. But probably should be done in future.
 			 * ts, june '21
 			 */
-			Path path = this.routeAlgo.calcLeastCostPath(startNode, endNode, departureTime, person, null);
+			path = this.routeAlgo.calcLeastCostPath(startNode, endNode, departureTime, person, null);
+		}
+		Leg leg = createLeg(fromLink, toLink, departureTime, path);
+		cacheRoute(fromLink, toLink, departureTime, leg);
+		return Arrays.asList( leg );
+	}
+
+	private List<Id<Link>> getCachedRoute(Link fromLink, Link toLink, double departureTime) {
+		if (this.routeCache == null) {
+			return null;
+		}
+		return this.routeCache.get(fromLink.getId(), toLink.getId(), this.mode, departureTime);
+	}
+
+	private void cacheRoute(Link fromLink, Link toLink, double departureTime, Leg leg) {
+		if (this.routeCache != null && toLink != fromLink) {
+			NetworkRoute route = (NetworkRoute) leg.getRoute();
+			this.routeCache.put(fromLink.getId(), toLink.getId(), this.mode, departureTime, route.getLinkIds());
+		}
+	}
+
+	/**
+	 * Creates the leg of a cached route, with the travel time and cost of this departure, in the same way as the
+	 * least cost path calculators do: along the links between the from- and the to-link.
+	 */
+	private Leg createCachedLeg(Link fromLink, Link toLink, double departureTime, Person person, List<Id<Link>> linkIds) {
+		double time = departureTime;
+		double travelCost = 0;
+		for (Id<Link> linkId : linkIds) {
+			Link link = this.network.getLinks().get(linkId);
+			travelCost += this.travelDisutility.getLinkTravelDisutility(link, time, person, null);
+			time += this.travelTime.getLinkTravelTime(link, time, person, null);
+		}
+		return createLeg(fromLink, toLink, departureTime, linkIds, time - departureTime, travelCost);
+	}
+
+	private Link getLink(Facility facility) {
+		Gbl.assertNotNull(facility);
+
+		Link link = this.network.getLinks().get(facility.getLinkId());
+		if ( link==null ) {
+			Gbl.assertNotNull( facility.getCoord() ) ;
+			link = NetworkUtils.getNearestLink( network, facility.getCoord()) ;
+		}
+		Gbl.assertNotNull(link);
+		return link;
+	}
+
+	private Leg createLeg(Link fromLink, Link toLink, double departureTime, Path path) {
+		if (toLink != fromLink) {
 			if (path == null)
-				throw new RuntimeException("No route found from node " + startNode.getId() + " to node " + endNode.getId() + " by mode " + this.mode + ".");
-			NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromLink.getId(), toLink.getId());
-			route.setLinkIds(fromLink.getId(), NetworkUtils.getLinkIds(path.links), toLink.getId());
-			route.setTravelTime(path.travelTime);
-			route.setTravelCost(path.travelCost);
-			route.setDistance(RouteUtils.calcDistance(route, 1.0, 1.0, this.network));
-			newLeg.setRoute(route);
-			newLeg.setTravelTime(path.travelTime);
-		} else {
-			// create an empty route == staying on place if toLink == endLink
-			// note that we still do a route: someone may drive from one location to another on the link. kai, dec'15
-			NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromLink.getId(), toLink.getId());
-			route.setTravelTime(0);
-			route.setDistance(0.0);
-			newLeg.setRoute(route);
-			newLeg.setTravelTime(0);
+				throw new RuntimeException("No route found from node " + fromLink.getToNode().getId() + " to node " + toLink.getFromNode().getId() + " by mode " + this.mode + ".");
+			return createLeg(fromLink, toLink, departureTime, NetworkUtils.getLinkIds(path.links), path.travelTime, path.travelCost);
 		}
+		// create an empty route == staying on place if toLink == endLink
+		// note that we still do a route: someone may drive from one location to another on the link. kai, dec'15
+		Leg newLeg = this.populationFactory.createLeg( this.mode );
+		NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromLink.getId(), toLink.getId());
+		route.setTravelTime(0);
+		route.setDistance(0.0);
+		newLeg.setRoute(route);
+		newLeg.setTravelTime(0);
 		newLeg.setDepartureTime(departureTime);
+		return newLeg;
+	}
 
-		return Arrays.asList( newLeg );
+	private Leg createLeg(Link fromLink, Link toLink, double departureTime, List<Id<Link>> linkIds, double travelTime, double travelCost) {
+		Leg newLeg = this.populationFactory.createLeg( this.mode );
+		NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromLink.getId(), toLink.getId());
+		route.setLinkIds(fromLink.getId(), linkIds, toLink.getId());
+		route.setTravelTime(travelTime);
+		route.setTravelCost(travelCost);
+		route.setDistance(RouteUtils.calcDistance(route, 1.0, 1.0, this.network));
+		newLeg.setRoute(route);
+		newLeg.setTravelTime(travelTime);
+		newLeg.setDepartureTime(departureTime);
+		return newLeg;
 	}
 
 	@Override
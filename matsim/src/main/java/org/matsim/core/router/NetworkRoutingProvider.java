@@ -34,6 +34,7 @@ import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.timing.TimeInterpretation;
 
@@ -61,6 +62,7 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 	@Inject Scenario scenario ;
 	@Inject TimeInterpretation timeInterpretation;
 	@Inject MultimodalLinkChooser multimodalLinkChooser;
+	@com.google.inject.Inject(optional = true) NetworkRouteCache routeCache;
 	@Inject
 	@Named(TransportMode.walk)
 	private RoutingModule walkRouter;
@@ -122,10 +124,11 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 		if (travelTime == null) {
 			throw new RuntimeException("No TravelTime bound for mode "+routingMode+".");
 		}
+		TravelDisutility travelDisutility = travelDisutilityFactory.createTravelDisutility(travelTime);
 		LeastCostPathCalculator routeAlgo =
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
-						travelDisutilityFactory.createTravelDisutility(travelTime),
+						travelDisutility,
 						travelTime);
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
@@ -143,7 +146,9 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 			}
 			
 		} else {
-			return DefaultRoutingModules.createPureNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo);
+			// cached routes are only shared per mode, so they must not be mixed up with those of another routing mode
+			NetworkRouteCache cache = mode.equals(routingMode) ? routeCache : null;
+			return DefaultRoutingModules.createPureNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo, cache, travelTime, travelDisutility);
 		}
 	}
 }
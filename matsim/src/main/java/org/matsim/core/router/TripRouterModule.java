@@ -29,6 +29,8 @@ import org.matsim.core.network.algorithms.NetworkTurnInfoBuilderI;
 import org.matsim.pt.config.TransitConfigGroup.TransitRoutingAlgorithmType;
 import org.matsim.pt.router.TransitRouterModule;
 
+import com.google.inject.Singleton;
+
 
 public class TripRouterModule extends AbstractModule {
 
@@ -64,6 +66,10 @@ public class TripRouterModule extends AbstractModule {
         if (linkToLinkRouting) {
             bind(NetworkTurnInfoBuilderI.class).to(NetworkTurnInfoBuilder.class) ;
         }
+        if (routeConfigGroup.getRouteCacheSize() > 0) {
+            bind(NetworkRouteCache.class).toProvider(NetworkRouteCache.NetworkRouteCacheProvider.class).in(Singleton.class);
+            addControlerListenerBinding().to(NetworkRouteCache.class);
+        }
         for (String mode : routeConfigGroup.getNetworkModes()) {
             addRoutingModuleBinding(mode).toProvider(linkToLinkRouting ? //
                     new LinkToLinkRouting(mode) : new NetworkRoutingProvider(mode));
@@ -17,6 +17,8 @@ import com.google.common.base.Preconditions;
  * <p>
  * In some limited tests, this resulted in a speed-up of at least a factor 2.5 compared to MATSim's default LeastCostPathTree.
  * <p>
+ * All node indices are the ones of the graph, see {@link SpeedyGraph#getNodeIndex(org.matsim.api.core.v01.network.Node)}.
+ * <p>
  * The implementation does not allocate any memory in the {@link #calculate(int, double, Person, Vehicle)} method. All required memory is pre-allocated in the constructor. This makes the
  * implementation NOT thread-safe.
  *
@@ -92,8 +92,8 @@ public class SpeedyALT implements LeastCostPathCalculator {
 			Arrays.fill(this.iterationIds, this.currentIteration);
 			this.currentIteration = Integer.MIN_VALUE;
 		}
-		int startNodeIndex = startNode.getId().index();
-		int endNodeIndex = endNode.getId().index();
+		int startNodeIndex = this.graph.getNodeIndex(startNode);
+		int endNodeIndex = this.graph.getNodeIndex(endNode);
 
 		int startDeadend = this.astarData.getNodeDeadend(startNodeIndex);
 		int endDeadend = this.astarData.getNodeDeadend(endNodeIndex);
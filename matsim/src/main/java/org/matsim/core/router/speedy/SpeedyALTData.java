@@ -29,12 +29,19 @@ class SpeedyALTData {
 	final SpeedyGraph graph;
 	private final int landmarksCount;
 	private final TravelDisutility travelCosts;
-	private final int[] landmarksNodeIndices;
-	private final double[] nodesData; // for each node: 2 values per landmark
+	final int[] landmarksNodeIndices;
+	final double[] nodesData; // for each node: 2 values per landmark
 	private final int[] deadendData;
 	private final double minTravelCostPerLength;
 
 	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		this(graph, landmarksCount, travelCosts, 4);
+	}
+
+	/**
+	 * @param numberOfThreads the number of threads calculating the least cost path trees from and to the landmarks
+	 */
+	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts, int numberOfThreads) {
 		this.graph = graph;
 		this.landmarksCount = landmarksCount;
 		this.travelCosts = travelCosts;
@@ -43,7 +50,22 @@ class SpeedyALTData {
 		this.deadendData = new int[graph.nodeCount];
 
 		this.findDeadEnds();
-		this.calcLandmarks();
+		this.calcLandmarks(Math.max(1, numberOfThreads));
+		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
+	}
+
+	/**
+	 * Uses previously calculated landmarks, see {@link SpeedyALTDataIO}.
+	 */
+	SpeedyALTData(SpeedyGraph graph, TravelDisutility travelCosts, int[] landmarksNodeIndices, double[] nodesData) {
+		this.graph = graph;
+		this.landmarksCount = landmarksNodeIndices.length;
+		this.travelCosts = travelCosts;
+		this.landmarksNodeIndices = landmarksNodeIndices;
+		this.nodesData = nodesData;
+		this.deadendData = new int[graph.nodeCount];
+
+		this.findDeadEnds();
 		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
 	}
 
@@ -128,45 +150,42 @@ class SpeedyALTData {
 		return otherNodeIndex;
 	}
 
-	private void calcLandmarks() {
-		LOG.info("calculate landmarks...");
-		Node firstNode = null;
+	private void calcLandmarks(int numberOfThreads) {
+		LOG.info("calculate landmarks using " + numberOfThreads + " threads...");
+		int firstNodeIndex = -1;
 		for (int i = 0; i < this.graph.nodeCount; i++) {
-			firstNode = this.graph.getNode(i);
-			if (firstNode != null) {
+			if (this.graph.getNode(i) != null) {
+				firstNodeIndex = i;
 				break;
 			}
 		}
-		if (firstNode == null) {
+		if (firstNodeIndex < 0) {
 			LOG.warn("Network does not contain any nodes!");
 			return;
 		}
 
-		Future<double[]>[] trees = new Future[this.landmarksCount * 2];
-		ExecutorService executor = Executors.newFixedThreadPool(4);
-
-		int firstLandmarkIndex = firstNode.getId().index();
-		this.landmarksNodeIndices[0] = firstLandmarkIndex;
-		trees[0] = executor.submit(() -> calculateTreeForward(firstLandmarkIndex));
-		trees[1] = executor.submit(() -> calculateTreeBackward(firstLandmarkIndex));
-
-		for (int i = 1; i < this.landmarksCount; i++) {
-			int nextLandmark = calculateNextLandmark(i);
-			this.landmarksNodeIndices[i] = nextLandmark;
-
-			trees[i * 2] = executor.submit(() -> calculateTreeForward(nextLandmark));
-			trees[i * 2 + 1] = executor.submit(() -> calculateTreeBackward(nextLandmark));
-		}
+		// the next landmark only depends on the previous ones, so the trees are calculated while the landmarks are chosen
+		Future<?>[] trees = new Future[this.landmarksCount * 2];
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			for (int i = 0; i < this.landmarksCount; i++) {
+				int landmark = i == 0 ? firstNodeIndex : calculateNextLandmark(i);
+				this.landmarksNodeIndices[i] = landmark;
+
+				int forwardOffset = i * 2;
+				int backwardOffset = i * 2 + 1;
+				trees[forwardOffset] = executor.submit(() -> setNodeData(calculateTreeForward(landmark), forwardOffset));
+				trees[backwardOffset] = executor.submit(() -> setNodeData(calculateTreeBackward(landmark), backwardOffset));
+			}
 
-		for (int i = 0; i < trees.length; i++) {
-			try {
-				double[] data = trees[i].get();
-				setNodeData(data, i);
-			} catch (InterruptedException | ExecutionException e) {
-				LOG.error(e);
+			for (Future<?> tree : trees) {
+				tree.get();
 			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Could not calculate the landmarks.", e);
+		} finally {
+			executor.shutdown();
 		}
-		executor.shutdown();
 	}
 
 	private double calcMinTravelCostPerLength() {
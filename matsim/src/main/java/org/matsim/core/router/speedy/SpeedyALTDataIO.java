@@ -0,0 +1,212 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Stores the landmarks of {@link SpeedyALTData} in files, so repeated runs on the same network do not need to
+ * calculate them again.
+ * <p>
+ * Each file is named after a hash of everything the landmarks depend on: the nodes and links of the graph with their
+ * indices, the minimal travel disutility of every link and the number of landmarks. If any of these changes, a
+ * different file is used. The hash is also stored in the file and compared when loading it.
+ */
+final class SpeedyALTDataIO {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyALTDataIO.class);
+
+	private static final int MAGIC = 0x53414C54; // "SALT"
+	private static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private SpeedyALTDataIO() {
+	}
+
+	/**
+	 * Loads the landmarks from the directory if they were stored for the same graph and travel disutility before,
+	 * otherwise calculates and stores them.
+	 */
+	static SpeedyALTData loadOrCalculate(Path directory, SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts, int numberOfThreads) {
+		byte[] hash = calcHash(graph, landmarksCount, travelCosts);
+		Path file = directory.resolve("speedyALT-" + toHex(hash) + ".landmarks");
+		if (Files.exists(file)) {
+			try {
+				SpeedyALTData data = read(file, hash, graph, travelCosts);
+				if (data != null) {
+					LOG.info("loaded landmarks from " + file);
+					return data;
+				}
+				LOG.warn("landmarks in " + file + " do not match the network, calculating them again.");
+			} catch (IOException e) {
+				LOG.warn("could not read landmarks from " + file + ", calculating them again.", e);
+			}
+		}
+		SpeedyALTData data = new SpeedyALTData(graph, landmarksCount, travelCosts, numberOfThreads);
+		try {
+			Files.createDirectories(directory);
+			// write to a temporary file first, so concurrent runs never read incomplete data
+			Path tmpFile = Files.createTempFile(directory, "speedyALT-", ".tmp");
+			write(tmpFile, hash, data);
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			LOG.info("stored landmarks in " + file);
+		} catch (IOException e) {
+			LOG.warn("could not store landmarks in " + file, e);
+		}
+		return data;
+	}
+
+	static byte[] calcHash(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.putInt(VERSION).putInt(landmarksCount).putInt(graph.nodeCount).putInt(graph.linkCount);
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			Node node = graph.getNode(nodeIdx);
+			putString(digest, buffer, node == null ? null : node.getId().toString());
+		}
+		for (int linkIdx = 0; linkIdx < graph.linkCount; linkIdx++) {
+			Link link = graph.getLink(linkIdx);
+			putString(digest, buffer, link == null ? null : link.getId().toString());
+			if (link != null) {
+				ensureRemaining(digest, buffer, 16);
+				buffer.putInt(graph.getNodeIndex(link.getFromNode()));
+				buffer.putInt(graph.getNodeIndex(link.getToNode()));
+				buffer.putDouble(travelCosts.getLinkMinimumTravelDisutility(link));
+			}
+		}
+		buffer.flip();
+		digest.update(buffer);
+		return digest.digest();
+	}
+
+	private static void putString(MessageDigest digest, ByteBuffer buffer, String value) {
+		if (value == null) {
+			ensureRemaining(digest, buffer, 4);
+			buffer.putInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length + 4 > buffer.capacity()) {
+			ensureRemaining(digest, buffer, buffer.capacity());
+			digest.update(bytes);
+			return;
+		}
+		ensureRemaining(digest, buffer, bytes.length + 4);
+		buffer.putInt(bytes.length).put(bytes);
+	}
+
+	private static void ensureRemaining(MessageDigest digest, ByteBuffer buffer, int bytes) {
+		if (buffer.remaining() < bytes) {
+			buffer.flip();
+			digest.update(buffer);
+			buffer.clear();
+		}
+	}
+
+	static void write(Path file, byte[] hash, SpeedyALTData data) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(hash.length).put(hash);
+			buffer.putInt(data.graph.nodeCount).putInt(data.landmarksNodeIndices.length);
+			for (int landmark : data.landmarksNodeIndices) {
+				flushIfFull(channel, buffer, 4);
+				buffer.putInt(landmark);
+			}
+			for (double value : data.nodesData) {
+				flushIfFull(channel, buffer, 8);
+				buffer.putDouble(value);
+			}
+			flushIfFull(channel, buffer, buffer.capacity());
+		}
+	}
+
+	private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * @return the landmarks, or <code>null</code> if the file was written for another graph or travel disutility
+	 */
+	static SpeedyALTData read(Path file, byte[] hash, SpeedyGraph graph, TravelDisutility travelCosts) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			buffer.flip();
+			fill(channel, buffer, 12);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			byte[] storedHash = new byte[buffer.getInt()];
+			if (storedHash.length != hash.length) {
+				return null;
+			}
+			fill(channel, buffer, storedHash.length + 8);
+			buffer.get(storedHash);
+			if (!Arrays.equals(hash, storedHash) || buffer.getInt() != graph.nodeCount) {
+				return null;
+			}
+			int[] landmarks = new int[buffer.getInt()];
+			for (int i = 0; i < landmarks.length; i++) {
+				fill(channel, buffer, 4);
+				landmarks[i] = buffer.getInt();
+			}
+			double[] nodesData = new double[graph.nodeCount * landmarks.length * 2];
+			for (int i = 0; i < nodesData.length; i++) {
+				fill(channel, buffer, 8);
+				nodesData[i] = buffer.getDouble();
+			}
+			return new SpeedyALTData(graph, travelCosts, landmarks, nodesData);
+		}
+	}
+
+	private static void fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			buffer.compact();
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException();
+				}
+			}
+			buffer.flip();
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder str = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			str.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return str.toString();
+	}
+
+}
@@ -1,11 +1,16 @@
 package org.matsim.core.router.speedy;
 
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
+import javax.inject.Inject;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -14,19 +19,60 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 
+	private static final int LANDMARKS_COUNT = 16;
+
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
 	private final Map<SpeedyGraph, SpeedyALTData> landmarksData = new ConcurrentHashMap<>();
+	private final boolean compactGraphs;
+	private final int numberOfThreads;
+	private final Path landmarksDirectory;
+
+	public SpeedyALTFactory() {
+		this(false);
+	}
+
+	/**
+	 * @param compactGraphs whether the graphs only allocate memory for the nodes and links of each network, see
+	 * {@link SpeedyGraph#SpeedyGraph(Network, boolean)}
+	 */
+	public SpeedyALTFactory(boolean compactGraphs) {
+		this(compactGraphs, 4, null);
+	}
+
+	/**
+	 * Used by the injector. The graphs are not compact, compact graphs are only available by creating the factory
+	 * directly, e.g. with {@link #SpeedyALTFactory(boolean)}.
+	 */
+	@Inject
+	public SpeedyALTFactory(GlobalConfigGroup globalConfigGroup, ControlerConfigGroup controlerConfigGroup) {
+		this(false, globalConfigGroup.getNumberOfThreads(), controlerConfigGroup.getLandmarksDirectory());
+	}
+
+	/**
+	 * @param numberOfThreads the number of threads calculating the landmarks
+	 * @param landmarksDirectory the directory to store and load the landmarks, so later runs on the same network do not
+	 * need to calculate them again. May be <code>null</code> to always calculate them.
+	 */
+	public SpeedyALTFactory(boolean compactGraphs, int numberOfThreads, String landmarksDirectory) {
+		this.compactGraphs = compactGraphs;
+		this.numberOfThreads = numberOfThreads;
+		this.landmarksDirectory = landmarksDirectory == null ? null : Paths.get(landmarksDirectory);
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
 		SpeedyGraph graph = this.graphs.get(network);
 		if (graph == null) {
-			graph = new SpeedyGraph(network);
+			graph = new SpeedyGraph(network, this.compactGraphs);
 			this.graphs.put(network, graph);
 		}
 		SpeedyALTData landmarks = this.landmarksData.get(graph);
 		if (landmarks == null) {
-			landmarks = new SpeedyALTData(graph, 16, travelCosts);
+			if (this.landmarksDirectory == null) {
+				landmarks = new SpeedyALTData(graph, LANDMARKS_COUNT, travelCosts, this.numberOfThreads);
+			} else {
+				landmarks = SpeedyALTDataIO.loadOrCalculate(this.landmarksDirectory, graph, LANDMARKS_COUNT, travelCosts, this.numberOfThreads);
+			}
 			this.landmarksData.put(graph, landmarks);
 		}
 		return new SpeedyALT(landmarks, travelTimes, travelCosts);
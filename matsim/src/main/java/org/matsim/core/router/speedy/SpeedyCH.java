@@ -0,0 +1,226 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least cost path calculator based on customizable contraction hierarchies, see {@link SpeedyCHData}.
+ * <p>
+ * The hierarchy is customized for time slices of a fixed duration: all queries departing within the same slice use the
+ * travel disutilities at the middle of the slice. Each instance gets the customization of a slice on its first query
+ * from the {@link SpeedyCHData}, which shares it between all instances and only customizes the hierarchy again if the
+ * travel disutilities changed. An instance keeps the customizations it got, new instances thus automatically use the
+ * latest travel times. The travel time and cost of the returned path are calculated along the found links with the
+ * actual departure time. As the metric does not depend on the person, travel disutilities that randomize per person
+ * cannot be used, so this is an opt-in alternative to {@link SpeedyALT}, see {@link SpeedyCHFactory}.
+ * <p>
+ * This implementation is not thread-safe. In the case of multi-threading, every thread should use
+ * a separate instance. (But the used {@link SpeedyCHData} is thread-safe and can be shared by multiple
+ * instances).
+ */
+public class SpeedyCH implements LeastCostPathCalculator {
+
+	private final SpeedyCHData data;
+	private final SpeedyGraph graph;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final double timeSliceSize;
+	private final Map<Integer, SpeedyCHData.Metric> metrics = new HashMap<>();
+	private final double[] forwardCost;
+	private final double[] backwardCost;
+	private final int[] forwardEdge;
+	private final int[] backwardEdge;
+	private int currentIteration = Integer.MIN_VALUE;
+	private final int[] forwardIterationIds;
+	private final int[] backwardIterationIds;
+	private final DAryMinHeap forwardPQ;
+	private final DAryMinHeap backwardPQ;
+
+	public SpeedyCH(SpeedyCHData data, TravelTime tt, TravelDisutility td, double timeSliceSize) {
+		this.data = data;
+		this.graph = data.graph;
+		this.tt = tt;
+		this.td = td;
+		this.timeSliceSize = timeSliceSize;
+		this.forwardCost = new double[this.graph.nodeCount];
+		this.backwardCost = new double[this.graph.nodeCount];
+		this.forwardEdge = new int[this.graph.nodeCount];
+		this.backwardEdge = new int[this.graph.nodeCount];
+		this.forwardIterationIds = new int[this.graph.nodeCount];
+		this.backwardIterationIds = new int[this.graph.nodeCount];
+		this.forwardPQ = new DAryMinHeap(this.graph.nodeCount, 6);
+		this.backwardPQ = new DAryMinHeap(this.graph.nodeCount, 6);
+	}
+
+	private SpeedyCHData.Metric getMetric(double time) {
+		// undefined times use the first slice, huge and infinite times all share the last one
+		int slice = time > 0 ? (int) (time / this.timeSliceSize) : 0;
+		SpeedyCHData.Metric metric = this.metrics.get(slice);
+		if (metric == null) {
+			metric = this.data.getMetric(this.td, slice, (slice + 0.5) * this.timeSliceSize);
+			this.metrics.put(slice, metric);
+		}
+		return metric;
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		this.currentIteration++;
+		if (this.currentIteration == Integer.MAX_VALUE) {
+			// reset iteration as we overflow
+			Arrays.fill(this.forwardIterationIds, this.currentIteration);
+			Arrays.fill(this.backwardIterationIds, this.currentIteration);
+			this.currentIteration = Integer.MIN_VALUE;
+		}
+
+		SpeedyCHData.Metric metric = getMetric(startTime);
+		int startNodeIndex = this.graph.getNodeIndex(startNode);
+		int endNodeIndex = this.graph.getNodeIndex(endNode);
+
+		this.forwardPQ.clear();
+		this.backwardPQ.clear();
+		setForward(startNodeIndex, 0, -1);
+		this.forwardPQ.insert(startNodeIndex, 0);
+		setBackward(endNodeIndex, 0, -1);
+		this.backwardPQ.insert(endNodeIndex, 0);
+
+		double bestCost = Double.POSITIVE_INFINITY;
+		int meetingNode = -1;
+
+		while (true) {
+			boolean forwardDone = this.forwardPQ.isEmpty() || this.forwardCost[this.forwardPQ.peek()] >= bestCost;
+			boolean backwardDone = this.backwardPQ.isEmpty() || this.backwardCost[this.backwardPQ.peek()] >= bestCost;
+			if (forwardDone && backwardDone) {
+				break;
+			}
+			boolean forward = backwardDone || (!forwardDone && this.forwardCost[this.forwardPQ.peek()] <= this.backwardCost[this.backwardPQ.peek()]);
+
+			if (forward) {
+				int nodeIdx = this.forwardPQ.poll();
+				double currCost = this.forwardCost[nodeIdx];
+				if (this.backwardIterationIds[nodeIdx] == this.currentIteration && currCost + this.backwardCost[nodeIdx] < bestCost) {
+					bestCost = currCost + this.backwardCost[nodeIdx];
+					meetingNode = nodeIdx;
+				}
+				for (int edge = this.data.upFirst[nodeIdx]; edge < this.data.upFirst[nodeIdx + 1]; edge++) {
+					double newCost = currCost + metric.forward[edge];
+					if (newCost == Double.POSITIVE_INFINITY) continue;
+					int toNode = this.data.upHead[edge];
+					if (this.forwardIterationIds[toNode] == this.currentIteration) {
+						if (newCost < this.forwardCost[toNode]) {
+							this.forwardPQ.decreaseKey(toNode, newCost);
+							setForward(toNode, newCost, edge);
+						}
+					} else {
+						setForward(toNode, newCost, edge);
+						this.forwardPQ.insert(toNode, newCost);
+					}
+				}
+			} else {
+				int nodeIdx = this.backwardPQ.poll();
+				double currCost = this.backwardCost[nodeIdx];
+				if (this.forwardIterationIds[nodeIdx] == this.currentIteration && currCost + this.forwardCost[nodeIdx] < bestCost) {
+					bestCost = currCost + this.forwardCost[nodeIdx];
+					meetingNode = nodeIdx;
+				}
+				for (int edge = this.data.upFirst[nodeIdx]; edge < this.data.upFirst[nodeIdx + 1]; edge++) {
+					double newCost = currCost + metric.backward[edge];
+					if (newCost == Double.POSITIVE_INFINITY) continue;
+					int toNode = this.data.upHead[edge];
+					if (this.backwardIterationIds[toNode] == this.currentIteration) {
+						if (newCost < this.backwardCost[toNode]) {
+							this.backwardPQ.decreaseKey(toNode, newCost);
+							setBackward(toNode, newCost, edge);
+						}
+					} else {
+						setBackward(toNode, newCost, edge);
+						this.backwardPQ.insert(toNode, newCost);
+					}
+				}
+			}
+		}
+
+		if (meetingNode < 0) {
+			return null;
+		}
+		return constructPath(metric, meetingNode, startNode, startTime, person, vehicle);
+	}
+
+	private void setForward(int nodeIndex, double cost, int edge) {
+		this.forwardCost[nodeIndex] = cost;
+		this.forwardEdge[nodeIndex] = edge;
+		this.forwardIterationIds[nodeIndex] = this.currentIteration;
+	}
+
+	private void setBackward(int nodeIndex, double cost, int edge) {
+		this.backwardCost[nodeIndex] = cost;
+		this.backwardEdge[nodeIndex] = edge;
+		this.backwardIterationIds[nodeIndex] = this.currentIteration;
+	}
+
+	private Path constructPath(SpeedyCHData.Metric metric, int meetingNode, Node startNode, double startTime, Person person, Vehicle vehicle) {
+		List<Link> links = new ArrayList<>();
+
+		// upwards from the start node to the meeting node
+		List<Integer> forwardEdges = new ArrayList<>();
+		int edge = this.forwardEdge[meetingNode];
+		while (edge >= 0) {
+			forwardEdges.add(edge);
+			edge = this.forwardEdge[this.data.upTail[edge]];
+		}
+		for (int i = forwardEdges.size() - 1; i >= 0; i--) {
+			unpack(metric, forwardEdges.get(i), true, links);
+		}
+
+		// downwards from the meeting node to the end node
+		edge = this.backwardEdge[meetingNode];
+		while (edge >= 0) {
+			unpack(metric, edge, false, links);
+			edge = this.backwardEdge[this.data.upTail[edge]];
+		}
+
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(startNode);
+		double time = startTime;
+		double travelCost = 0;
+		for (Link link : links) {
+			travelCost += this.td.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.tt.getLinkTravelTime(link, time, person, vehicle);
+			nodes.add(link.getToNode());
+		}
+
+		return new Path(nodes, links, time - startTime, travelCost);
+	}
+
+	/**
+	 * Adds the links represented by the edge, either traversed upwards from its tail to its head or downwards.
+	 */
+	private void unpack(SpeedyCHData.Metric metric, int edge, boolean upwards, List<Link> links) {
+		int via = upwards ? metric.forwardVia[edge] : metric.backwardVia[edge];
+		if (via < 0) {
+			links.add(this.graph.getLink(-via - 1));
+			return;
+		}
+		int lowerEdge = this.data.findEdge(via, this.data.upTail[edge]);
+		int higherEdge = this.data.findEdge(via, this.data.upHead[edge]);
+		if (upwards) {
+			unpack(metric, lowerEdge, false, links);
+			unpack(metric, higherEdge, true, links);
+		} else {
+			unpack(metric, higherEdge, false, links);
+			unpack(metric, lowerEdge, true, links);
+		}
+	}
+
+}
@@ -0,0 +1,368 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metric-independent preprocessing for the customizable contraction hierarchies used by {@link SpeedyCH}.
+ * <p>
+ * All nodes are contracted in a minimum-degree order, which only depends on the topology of the graph. As no witness
+ * searches are done, every pair of neighbours of a contracted node is connected by an edge, so the resulting hierarchy
+ * stays correct for every metric. The travel disutilities are only applied afterwards by
+ * {@link #getMetric(TravelDisutility, int, double)}, which is cheap compared to the contraction and is rerun whenever the
+ * travel disutilities change.
+ * <p>
+ * Each edge of the hierarchy is stored once at its lower-ranked node, pointing upwards. It has a forward weight (from the
+ * lower to the higher node) and a backward weight (from the higher to the lower node).
+ * <p>
+ * Each customization holds four arrays over all edges of the hierarchy plus the travel disutilities of all links, so
+ * only a bounded number of them is kept: at most {@link #MAX_METRICS_PER_SLICE} per time slice and at most
+ * {@code maxMetrics} in total over all slices. The least recently used ones are evicted first, which in an iterative
+ * simulation are the ones of previous iterations.
+ * <p>
+ * Based on "Customizable Contraction Hierarchies" by Julian Dibbelt, Ben Strasser and Dorothea Wagner, 2016.
+ * <p>
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHData.class);
+
+	// customizations kept per time slice, e.g. for two modes with different travel disutilities on the same network
+	private static final int MAX_METRICS_PER_SLICE = 2;
+	// if not given explicitly, the kept customizations may use up to this fraction of the maximum heap
+	private static final int MAX_HEAP_FRACTION = 4;
+
+	final SpeedyGraph graph;
+	final int[] rank;
+	private final int[] order; // nodes by rank
+	final int[] upFirst; // for each node, the first of its upward edges, the edges of a node are sorted by head
+	final int[] upHead;
+	final int[] upTail;
+	final int edgeCount;
+	private final int maxMetrics;
+	private final LinkedList<Metric> metrics = new LinkedList<>(); // most recently used first
+	private final Map<Integer, Object> sliceLocks = new ConcurrentHashMap<>();
+
+	SpeedyCHData(SpeedyGraph graph) {
+		this(graph, -1);
+	}
+
+	/**
+	 * @param maxMetrics the maximum number of customizations kept over all time slices, or a negative value to derive it
+	 *                   from the maximum heap size
+	 */
+	SpeedyCHData(SpeedyGraph graph, int maxMetrics) {
+		this.graph = graph;
+		this.rank = new int[graph.nodeCount];
+		this.order = new int[graph.nodeCount];
+
+		LOG.info("contract " + graph.nodeCount + " nodes...");
+		int[][] up = contract();
+
+		this.upFirst = new int[graph.nodeCount + 1];
+		int edgeCount = 0;
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			this.upFirst[nodeIdx] = edgeCount;
+			edgeCount += up[nodeIdx].length;
+		}
+		this.upFirst[graph.nodeCount] = edgeCount;
+		this.edgeCount = edgeCount;
+		this.upHead = new int[edgeCount];
+		this.upTail = new int[edgeCount];
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			int[] heads = up[nodeIdx];
+			Arrays.sort(heads);
+			System.arraycopy(heads, 0, this.upHead, this.upFirst[nodeIdx], heads.length);
+			Arrays.fill(this.upTail, this.upFirst[nodeIdx], this.upFirst[nodeIdx + 1], nodeIdx);
+			up[nodeIdx] = null;
+		}
+		LOG.info("contraction done, " + edgeCount + " edges in the hierarchy.");
+
+		if (maxMetrics < 0) {
+			long bytesPerMetric = 24L * edgeCount + 8L * graph.linkCount;
+			maxMetrics = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / MAX_HEAP_FRACTION / Math.max(1, bytesPerMetric));
+		}
+		this.maxMetrics = Math.max(1, maxMetrics);
+		LOG.info("keeping at most " + this.maxMetrics + " customizations of the hierarchy.");
+	}
+
+	/**
+	 * Contracts the nodes in minimum-degree order, adding the fill-in edges.
+	 *
+	 * @return for each node its neighbours that are contracted after it
+	 */
+	private int[][] contract() {
+		int nodeCount = this.graph.nodeCount;
+		int[][] adjacency = new int[nodeCount][];
+		int[] degree = new int[nodeCount];
+		int[] mark = new int[nodeCount];
+		Arrays.fill(mark, -1);
+		for (int nodeIdx = 0; nodeIdx < nodeCount; nodeIdx++) {
+			adjacency[nodeIdx] = new int[4];
+		}
+
+		LinkIterator outLI = this.graph.getOutLinkIterator();
+		for (int nodeIdx = 0; nodeIdx < nodeCount; nodeIdx++) {
+			// only mark the neighbours already added by lower nodes, so each edge is added once
+			for (int i = 0; i < degree[nodeIdx]; i++) {
+				mark[adjacency[nodeIdx][i]] = nodeIdx;
+			}
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				int toNode = outLI.getToNodeIndex();
+				if (toNode != nodeIdx && mark[toNode] != nodeIdx) {
+					mark[toNode] = nodeIdx;
+					addEdge(adjacency, degree, nodeIdx, toNode);
+				}
+			}
+		}
+
+		// lazy priority queue, entries with an outdated degree are skipped
+		PriorityQueue<Long> pq = new PriorityQueue<>(nodeCount);
+		for (int nodeIdx = 0; nodeIdx < nodeCount; nodeIdx++) {
+			pq.add(key(degree[nodeIdx], nodeIdx));
+		}
+
+		boolean[] contracted = new boolean[nodeCount];
+		int[][] up = new int[nodeCount][];
+		Arrays.fill(mark, -1);
+		int nextRank = 0;
+		while (!pq.isEmpty()) {
+			long key = pq.poll();
+			int nodeIdx = (int) key;
+			if (contracted[nodeIdx] || (int) (key >>> 32) != degree[nodeIdx]) {
+				continue;
+			}
+			int[] neighbours = Arrays.copyOf(adjacency[nodeIdx], degree[nodeIdx]);
+			contracted[nodeIdx] = true;
+			this.rank[nodeIdx] = nextRank;
+			this.order[nextRank] = nodeIdx;
+			nextRank++;
+			up[nodeIdx] = neighbours;
+			adjacency[nodeIdx] = null;
+
+			for (int a : neighbours) {
+				removeEdge(adjacency, degree, a, nodeIdx);
+			}
+			// connect all remaining neighbours with each other
+			for (int i = 0; i < neighbours.length; i++) {
+				int a = neighbours[i];
+				for (int k = 0; k < degree[a]; k++) {
+					mark[adjacency[a][k]] = a;
+				}
+				for (int j = i + 1; j < neighbours.length; j++) {
+					int b = neighbours[j];
+					if (mark[b] != a) {
+						addEdge(adjacency, degree, a, b);
+					}
+				}
+			}
+			for (int a : neighbours) {
+				pq.add(key(degree[a], a));
+			}
+		}
+		return up;
+	}
+
+	private static long key(int degree, int nodeIdx) {
+		return ((long) degree << 32) | nodeIdx;
+	}
+
+	private static void addEdge(int[][] adjacency, int[] degree, int a, int b) {
+		addNeighbour(adjacency, degree, a, b);
+		addNeighbour(adjacency, degree, b, a);
+	}
+
+	private static void addNeighbour(int[][] adjacency, int[] degree, int nodeIdx, int neighbour) {
+		int[] neighbours = adjacency[nodeIdx];
+		if (degree[nodeIdx] == neighbours.length) {
+			neighbours = Arrays.copyOf(neighbours, neighbours.length * 2);
+			adjacency[nodeIdx] = neighbours;
+		}
+		neighbours[degree[nodeIdx]++] = neighbour;
+	}
+
+	private static void removeEdge(int[][] adjacency, int[] degree, int nodeIdx, int neighbour) {
+		int[] neighbours = adjacency[nodeIdx];
+		for (int i = 0; i < degree[nodeIdx]; i++) {
+			if (neighbours[i] == neighbour) {
+				neighbours[i] = neighbours[--degree[nodeIdx]];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the edge from the lower to the higher node, or -1 if there is no such edge
+	 */
+	int findEdge(int lowerNodeIdx, int higherNodeIdx) {
+		int edge = Arrays.binarySearch(this.upHead, this.upFirst[lowerNodeIdx], this.upFirst[lowerNodeIdx + 1], higherNodeIdx);
+		return edge < 0 ? -1 : edge;
+	}
+
+	/**
+	 * Returns the weights of all edges for the travel disutilities at the given time. The weights are shared by all
+	 * callers: a previous customization of the time slice is reused as long as every link still has the same travel
+	 * disutility, otherwise the hierarchy is customized again. Callers of the same slice wait for a running
+	 * customization instead of doing it themselves. An evicted customization stays valid for callers still holding it.
+	 */
+	Metric getMetric(TravelDisutility td, int slice, double time) {
+		double[] linkCosts = new double[this.graph.linkCount];
+		for (int linkIdx = 0; linkIdx < this.graph.linkCount; linkIdx++) {
+			Link link = this.graph.getLink(linkIdx);
+			if (link != null) { // not all indices might be in use
+				linkCosts[linkIdx] = td.getLinkTravelDisutility(link, time, null, null);
+			}
+		}
+
+		// only customizations of the same slice wait for each other, the list of kept ones is locked only briefly
+		Object sliceLock = this.sliceLocks.computeIfAbsent(slice, s -> new Object());
+		synchronized (sliceLock) {
+			synchronized (this.metrics) {
+				for (Iterator<Metric> iter = this.metrics.iterator(); iter.hasNext(); ) {
+					Metric metric = iter.next();
+					if (metric.slice == slice && Arrays.equals(metric.linkCosts, linkCosts)) {
+						iter.remove();
+						this.metrics.addFirst(metric);
+						return metric;
+					}
+				}
+			}
+			Metric metric = customize(slice, linkCosts);
+			synchronized (this.metrics) {
+				this.metrics.addFirst(metric);
+				evict(slice);
+			}
+			return metric;
+		}
+	}
+
+	/**
+	 * Removes the least recently used customizations beyond the limits, must be called while holding the lock on
+	 * {@link #metrics}.
+	 */
+	private void evict(int slice) {
+		int sliceCount = 0;
+		int count = 0;
+		for (Iterator<Metric> iter = this.metrics.iterator(); iter.hasNext(); ) {
+			Metric metric = iter.next();
+			boolean sameSlice = metric.slice == slice;
+			if (count == this.maxMetrics || (sameSlice && sliceCount == MAX_METRICS_PER_SLICE)) {
+				iter.remove();
+			} else {
+				count++;
+				if (sameSlice) {
+					sliceCount++;
+				}
+			}
+		}
+	}
+
+	int getMetricCount() {
+		synchronized (this.metrics) {
+			return this.metrics.size();
+		}
+	}
+
+	/**
+	 * Calculates the weights of all edges for the given travel disutilities of the links.
+	 */
+	private Metric customize(int slice, double[] linkCosts) {
+		Metric metric = new Metric(this.edgeCount, slice, linkCosts);
+
+		// original links
+		for (int linkIdx = 0; linkIdx < this.graph.linkCount; linkIdx++) {
+			Link link = this.graph.getLink(linkIdx);
+			if (link == null) continue; // not all indices might be in use
+
+			int fromNode = this.graph.getNodeIndex(link.getFromNode());
+			int toNode = this.graph.getNodeIndex(link.getToNode());
+			if (fromNode == toNode) continue;
+
+			double cost = linkCosts[linkIdx];
+			if (this.rank[fromNode] < this.rank[toNode]) {
+				int edge = findEdge(fromNode, toNode);
+				if (cost < metric.forward[edge]) {
+					metric.forward[edge] = cost;
+					metric.forwardVia[edge] = -linkIdx - 1;
+				}
+			} else {
+				int edge = findEdge(toNode, fromNode);
+				if (cost < metric.backward[edge]) {
+					metric.backward[edge] = cost;
+					metric.backwardVia[edge] = -linkIdx - 1;
+				}
+			}
+		}
+
+		// lower triangles, in rank order so the edges of lower nodes are already final
+		for (int r = 0; r < this.order.length; r++) {
+			int w = this.order[r];
+			int first = this.upFirst[w];
+			int last = this.upFirst[w + 1];
+			for (int e1 = first; e1 < last; e1++) {
+				int a = this.upHead[e1];
+				for (int e2 = e1 + 1; e2 < last; e2++) {
+					int b = this.upHead[e2];
+					int lower = e1;
+					int higher = e2;
+					if (this.rank[a] > this.rank[b]) {
+						lower = e2;
+						higher = e1;
+					}
+					int edge = findEdge(this.upHead[lower], this.upHead[higher]);
+
+					// lower -> w -> higher
+					double cost = metric.backward[lower] + metric.forward[higher];
+					if (cost < metric.forward[edge]) {
+						metric.forward[edge] = cost;
+						metric.forwardVia[edge] = w;
+					}
+					// higher -> w -> lower
+					cost = metric.backward[higher] + metric.forward[lower];
+					if (cost < metric.backward[edge]) {
+						metric.backward[edge] = cost;
+						metric.backwardVia[edge] = w;
+					}
+				}
+			}
+		}
+		return metric;
+	}
+
+	/**
+	 * Edge weights of one customization, never modified once calculated. A non-negative via value is the middle node of
+	 * a shortcut, a negative value encodes the original link as {@code -linkIndex - 1}.
+	 */
+	static final class Metric {
+		final double[] forward;
+		final double[] backward;
+		final int[] forwardVia;
+		final int[] backwardVia;
+		private final int slice;
+		private final double[] linkCosts;
+
+		private Metric(int edgeCount, int slice, double[] linkCosts) {
+			this.slice = slice;
+			this.linkCosts = linkCosts;
+			this.forward = new double[edgeCount];
+			this.backward = new double[edgeCount];
+			this.forwardVia = new int[edgeCount];
+			this.backwardVia = new int[edgeCount];
+			Arrays.fill(this.forward, Double.POSITIVE_INFINITY);
+			Arrays.fill(this.backward, Double.POSITIVE_INFINITY);
+		}
+	}
+
+}
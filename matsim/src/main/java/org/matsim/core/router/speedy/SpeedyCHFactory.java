@@ -0,0 +1,57 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates {@link SpeedyCH} instances. The contraction of each network is only done once. The customization for the
+ * current travel disutilities is shared by all instances of a network and only redone when the travel disutilities
+ * change. The graphs are compact, see {@link SpeedyGraph#SpeedyGraph(Network, boolean)}.
+ * <p>
+ * SpeedyCH is opt-in only and not a replacement for {@link SpeedyALTFactory}: it cannot be used with
+ * {@code routingRandomness}, which the default configuration sets, and the contraction in minimum-degree order pays off
+ * only for some networks, e.g. on grid networks the queries are slower than with SpeedyALT (see
+ * {@code SpeedyCHBenchmark}). Measure it for the network at hand before switching.
+ */
+public class SpeedyCHFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, SpeedyCHData> chData = new ConcurrentHashMap<>();
+	private final double timeSliceSize;
+	private final int maxMetrics;
+
+	public SpeedyCHFactory() {
+		this(3600.0);
+	}
+
+	/**
+	 * @param timeSliceSize duration in seconds of the time slices the hierarchy is customized for
+	 */
+	public SpeedyCHFactory(double timeSliceSize) {
+		this(timeSliceSize, -1);
+	}
+
+	/**
+	 * @param timeSliceSize duration in seconds of the time slices the hierarchy is customized for
+	 * @param maxMetrics    the maximum number of customizations kept per network over all time slices, or a negative
+	 *                      value to keep as many as fit into a quarter of the maximum heap
+	 */
+	public SpeedyCHFactory(double timeSliceSize, int maxMetrics) {
+		this.timeSliceSize = timeSliceSize;
+		this.maxMetrics = maxMetrics;
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, n -> new SpeedyGraph(n, true));
+		SpeedyCHData data = this.chData.computeIfAbsent(graph, g -> new SpeedyCHData(g, this.maxMetrics));
+		return new SpeedyCH(data, travelTimes, travelCosts, this.timeSliceSize);
+	}
+
+}
@@ -73,8 +73,8 @@ public class SpeedyDijkstra implements LeastCostPathCalculator {
 			this.currentIteration = Integer.MIN_VALUE;
 		}
 
-		int startNodeIndex = startNode.getId().index();
-		int endNodeIndex = endNode.getId().index();
+		int startNodeIndex = this.graph.getNodeIndex(startNode);
+		int endNodeIndex = this.graph.getNodeIndex(endNode);
 
 		this.comingFrom[startNodeIndex] = -1;
 		setData(startNodeIndex, 0, startTime, 0);
@@ -15,12 +15,25 @@ import java.util.concurrent.ConcurrentHashMap;
 public class SpeedyDijkstraFactory implements LeastCostPathCalculatorFactory {
 
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final boolean compactGraphs;
+
+	public SpeedyDijkstraFactory() {
+		this(false);
+	}
+
+	/**
+	 * @param compactGraphs whether the graphs only allocate memory for the nodes and links of each network, see
+	 * {@link SpeedyGraph#SpeedyGraph(Network, boolean)}
+	 */
+	public SpeedyDijkstraFactory(boolean compactGraphs) {
+		this.compactGraphs = compactGraphs;
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
 		SpeedyGraph graph = graphs.get(network);
 		if (graph == null) {
-			graph = new SpeedyGraph(network);
+			graph = new SpeedyGraph(network, this.compactGraphs);
 			graphs.put(network, graph);
 		}
 		return new SpeedyDijkstra(graph, travelTimes, travelCosts);
@@ -6,6 +6,7 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 
 import java.util.Arrays;
+import java.util.Collection;
 
 /**
  * Implements a highly optimized data structure for representing a MATSim network. Optimized to use as little memory as possible, and thus to fit as much memory as possible into CPU caches for high
@@ -18,6 +19,12 @@ import java.util.Arrays;
  * We use simple int-arrays (int[]) to store the data. This should provide fast and thread-safe read-only access, but limits the number of nodes and links in the network to (Integer.MAX_VALUE/2 =
  * 1.073.741.823) nodes and (Integer.MAX_VALUE/6 = 357.913.941) links. I hope that for the foreseeable future, these limits are high enough.
  * <p>
+ * By default, nodes and links are stored at the index of their id, so all arrays are sized by the total number of node and
+ * link ids, even if the network only contains a few of them. In compact mode, nodes are numbered densely in breadth-first
+ * order, so nodes that are close to each other in the network are also close in memory, and links are numbered by their
+ * from-node. Algorithms working on the graph must then get the indices from {@link #getNodeIndex(Node)} and
+ * {@link #getLinkIndex(Link)}, which look them up by binary search in arrays sized by the network.
+ * <p>
  * This class is thread-safe, allowing a single graph to be used by multiple threads.
  *
  * @author mrieser
@@ -54,10 +61,37 @@ public class SpeedyGraph {
     private final int[] linkData;
     private final Link[] links;
     private final Node[] nodes;
+    // only in compact mode: the id indices of the nodes and links, sorted, and their graph indices at the same positions
+    private final int[] nodeIds;
+    private final int[] nodeIndices;
+    private final int[] linkIds;
+    private final int[] linkIndices;
 
     public SpeedyGraph(Network network) {
-        this.nodeCount = Id.getNumberOfIds(Node.class);
-        this.linkCount = Id.getNumberOfIds(Link.class);
+        this(network, false);
+    }
+
+    /**
+     * @param compact if true, the graph only allocates memory for the nodes and links of the network, see {@link SpeedyGraph}
+     */
+    public SpeedyGraph(Network network, boolean compact) {
+        if (compact) {
+            this.nodeCount = network.getNodes().size();
+            this.linkCount = network.getLinks().size();
+            this.nodeIds = sortedIdIndices(network.getNodes().keySet());
+            this.linkIds = sortedIdIndices(network.getLinks().keySet());
+            this.nodeIndices = new int[this.nodeCount];
+            this.linkIndices = new int[this.linkCount];
+            Arrays.fill(this.nodeIndices, -1);
+            Arrays.fill(this.linkIndices, -1);
+        } else {
+            this.nodeCount = Id.getNumberOfIds(Node.class);
+            this.linkCount = Id.getNumberOfIds(Link.class);
+            this.nodeIds = null;
+            this.nodeIndices = null;
+            this.linkIds = null;
+            this.linkIndices = null;
+        }
 
         this.nodeData = new int[nodeCount * NODE_SIZE];
         this.linkData = new int[linkCount * LINK_SIZE];
@@ -67,18 +101,90 @@ public class SpeedyGraph {
         Arrays.fill(this.nodeData, -1);
         Arrays.fill(this.linkData, -1);
 
-        for (Node node : network.getNodes().values()) {
-            this.nodes[node.getId().index()] = node;
+        if (compact) {
+            numberNodesBreadthFirst(network);
+            numberLinksByFromNode(network);
+        } else {
+            for (Node node : network.getNodes().values()) {
+                this.nodes[node.getId().index()] = node;
+            }
         }
         for (Link link : network.getLinks().values()) {
             addLink(link);
         }
     }
 
+    private static int[] sortedIdIndices(Collection<? extends Id<?>> ids) {
+        int[] indices = new int[ids.size()];
+        int i = 0;
+        for (Id<?> id : ids) {
+            indices[i++] = id.index();
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    private static int find(int[] ids, Id<?> id) {
+        int pos = Arrays.binarySearch(ids, id.index());
+        return pos < 0 ? -1 : pos;
+    }
+
+    private void numberNodesBreadthFirst(Network network) {
+        int nextIndex = 0;
+        int head = 0;
+        for (Node start : network.getNodes().values()) {
+            int pos = find(this.nodeIds, start.getId());
+            if (this.nodeIndices[pos] >= 0) {
+                continue;
+            }
+            this.nodeIndices[pos] = nextIndex;
+            this.nodes[nextIndex++] = start;
+            // the nodes array itself serves as queue
+            while (head < nextIndex) {
+                Node node = this.nodes[head++];
+                for (Link link : node.getOutLinks().values()) {
+                    nextIndex = visit(network, link.getToNode(), nextIndex);
+                }
+                for (Link link : node.getInLinks().values()) {
+                    nextIndex = visit(network, link.getFromNode(), nextIndex);
+                }
+            }
+        }
+    }
+
+    private int visit(Network network, Node node, int nextIndex) {
+        int pos = find(this.nodeIds, node.getId());
+        if (pos >= 0 && this.nodeIndices[pos] < 0 && network.getNodes().get(node.getId()) == node) {
+            this.nodeIndices[pos] = nextIndex;
+            this.nodes[nextIndex] = node;
+            return nextIndex + 1;
+        }
+        return nextIndex;
+    }
+
+    private void numberLinksByFromNode(Network network) {
+        int nextIndex = 0;
+        for (Node node : this.nodes) {
+            for (Link link : node.getOutLinks().values()) {
+                int pos = find(this.linkIds, link.getId());
+                if (pos >= 0 && this.linkIndices[pos] < 0 && network.getLinks().get(link.getId()) == link) {
+                    this.linkIndices[pos] = nextIndex++;
+                }
+            }
+        }
+        // links that are not registered as out-link of their from-node
+        for (Link link : network.getLinks().values()) {
+            int pos = find(this.linkIds, link.getId());
+            if (this.linkIndices[pos] < 0) {
+                this.linkIndices[pos] = nextIndex++;
+            }
+        }
+    }
+
     private void addLink(Link link) {
-        int fromNodeIdx = link.getFromNode().getId().index();
-        int toNodeIdx = link.getToNode().getId().index();
-        int linkIdx = link.getId().index();
+        int fromNodeIdx = getNodeIndex(link.getFromNode());
+        int toNodeIdx = getNodeIndex(link.getToNode());
+        int linkIdx = getLinkIndex(link);
 
         int base = linkIdx * LINK_SIZE;
         this.linkData[base + 2] = fromNodeIdx;
@@ -130,6 +236,28 @@ public class SpeedyGraph {
         return new InLinkIterator(this);
     }
 
+    /**
+     * @return the index of the node in this graph, or -1 if a compact graph does not contain the node
+     */
+    public int getNodeIndex(Node node) {
+        if (this.nodeIds == null) {
+            return node.getId().index();
+        }
+        int pos = find(this.nodeIds, node.getId());
+        return pos < 0 ? -1 : this.nodeIndices[pos];
+    }
+
+    /**
+     * @return the index of the link in this graph, or -1 if a compact graph does not contain the link
+     */
+    public int getLinkIndex(Link link) {
+        if (this.linkIds == null) {
+            return link.getId().index();
+        }
+        int pos = find(this.linkIds, link.getId());
+        return pos < 0 ? -1 : this.linkIndices[pos];
+    }
+
     Link getLink(int index) {
         return this.links[index];
     }
@@ -102,6 +102,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	private TravelTimeDataFactory ttDataFactory = null;
 
+	private volatile int version = 0;
+
 	@Inject private QSimConfigGroup qsimConfig ;
 	TravelTimeGetter travelTimeGetter ;
 
@@ -435,6 +437,15 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 		this.linkEnterEvents.clear();
 		this.vehiclesToIgnore.clear();
+		this.version++;
+	}
+
+	/**
+	 * The version changes whenever the calculator starts to collect a new set of travel times, i.e. at the start of
+	 * every mobsim. Results based on the travel times of an older version, like cached routes, may be outdated.
+	 */
+	public int getVersion() {
+		return this.version;
 	}
 
 	/**
@@ -153,6 +153,22 @@ public class ConfigConsistencyCheckerImplTest {
 	}
 
 
+	@Test
+	public void testRouteCacheRequiresNoRoutingRandomness() {
+		Config config = ConfigUtils.createConfig();
+		config.plansCalcRoute().setRouteCacheSize(1000);
+		config.plansCalcRoute().setRoutingRandomness(0.);
+		new ConfigConsistencyCheckerImpl().checkConsistency(config);
+
+		config.plansCalcRoute().setRoutingRandomness(3.);
+		try {
+			new ConfigConsistencyCheckerImpl().checkConsistency(config);
+			Assert.fail("expected an exception as the route cache gives all persons the same route");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage().contains("routingRandomness"));
+		}
+	}
+
 	@Test
 	public void checkConsistencyBetweenRouterAndTravelTimeCalculatorTest(){
 		{
@@ -0,0 +1,124 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class EventHandlerTimingsTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testEventsManagerImpl() throws IOException {
+		EventsManagerImpl events = new EventsManagerImpl();
+		EventHandlerTimings timings = new EventHandlerTimings(1);
+		events.setHandlerTimings(timings);
+		processEvents(events, 10);
+		assertTimings(timings);
+
+		String filename = utils.getOutputDirectory() + "timings.csv";
+		timings.writeCsv(filename, ";");
+		List<String> lines = Files.readAllLines(Path.of(filename));
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).isEqualTo("handler;events;sampledEvents;sampledTime_ms;estimatedTime_ms");
+		// sorted by time, the slow handler comes first
+		assertThat(lines.get(1)).startsWith(SlowLinkEnterHandler.class.getName() + ";10;10;");
+
+		timings.reset();
+		assertThat(timings.getEventCount(SlowLinkEnterHandler.class)).isZero();
+	}
+
+	@Test
+	public void testSimStepParallelEventsManager() {
+		SimStepParallelEventsManagerImpl events = new SimStepParallelEventsManagerImpl(2);
+		EventHandlerTimings timings = new EventHandlerTimings(1);
+		events.setHandlerTimings(timings);
+		processEvents(events, 10);
+		assertTimings(timings);
+	}
+
+	@Test
+	public void testSampling() {
+		EventsManagerImpl events = new EventsManagerImpl();
+		EventHandlerTimings timings = new EventHandlerTimings(4);
+		events.setHandlerTimings(timings);
+		processEvents(events, 100);
+
+		// all events are counted, but only some are timed
+		assertThat(timings.getEventCount(SlowLinkEnterHandler.class)).isEqualTo(100);
+		assertThat(timings.getEventCount(LinkLeaveCounter.class)).isEqualTo(200);
+		assertThat(timings.getEstimatedNanos(SlowLinkEnterHandler.class)).isGreaterThan(100 * 1e6);
+	}
+
+	private static void processEvents(EventsManager events, int n) {
+		events.addHandler(new SlowLinkEnterHandler());
+		events.addHandler(new LinkLeaveCounter());
+		events.initProcessing();
+		for (int i = 0; i < n; i++) {
+			events.processEvent(new LinkEnterEvent(i, Id.createVehicleId(i), Id.createLinkId(0)));
+			events.processEvent(new LinkLeaveEvent(i, Id.createVehicleId(i), Id.createLinkId(0)));
+			events.processEvent(new LinkLeaveEvent(i, Id.createVehicleId(i), Id.createLinkId(1)));
+			events.afterSimStep(i);
+		}
+		events.finishProcessing();
+	}
+
+	private static void assertTimings(EventHandlerTimings timings) {
+		assertThat(timings.getEventCount(SlowLinkEnterHandler.class)).isEqualTo(10);
+		assertThat(timings.getEventCount(LinkLeaveCounter.class)).isEqualTo(20);
+		// the slow handler sleeps at least 10 ms in total
+		assertThat(timings.getEstimatedNanos(SlowLinkEnterHandler.class)).isGreaterThan(10 * 1e6);
+		assertThat(timings.getEstimatedNanos(LinkLeaveCounter.class)).isLessThan(timings.getEstimatedNanos(SlowLinkEnterHandler.class));
+	}
+
+	private static class SlowLinkEnterHandler implements LinkEnterEventHandler {
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static class LinkLeaveCounter implements LinkLeaveEventHandler {
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+		}
+	}
+
+}
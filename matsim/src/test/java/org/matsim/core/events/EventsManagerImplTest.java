@@ -61,11 +61,43 @@ public class EventsManagerImplTest {
 			manager.processEvent(new MyEvent(123.45));
 			manager.finishProcessing();
 			Assert.fail("expected exception, but got none.");
-		} catch (final RuntimeException e) {
+		} catch (final ArithmeticException e) {
 			log.info("Catched expected exception.", e);
 
 			Assert.assertEquals(1, handler.counter);
-			Assert.assertTrue(e.getCause() instanceof ArithmeticException);
+		}
+	}
+
+	@Test
+	public void testProcessEvent_HandlerInterfacesForSameEvent() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		CountingMyEventHandler handler = new CountingMyEventHandler();
+		OtherMyEventHandler otherHandler = new OtherMyEventHandler();
+		manager.addHandler(handler);
+		manager.addHandler(otherHandler);
+		manager.initProcessing();
+		manager.processEvent(new MyEvent(123.45));
+		manager.processEvent(new MyEvent(234.56));
+		manager.finishProcessing();
+		Assert.assertEquals(2, handler.counter);
+		Assert.assertEquals(2, otherHandler.counter);
+
+		manager.removeHandler(handler);
+		manager.processEvent(new MyEvent(345.67));
+		Assert.assertEquals(2, handler.counter);
+		Assert.assertEquals(3, otherHandler.counter);
+	}
+
+	@Test
+	public void testReflectiveInvoker_ExceptionInEventHandler() throws NoSuchMethodException {
+		EventHandlerInvoker invoker = EventHandlerInvoker.Factory.reflective(MyEventHandler.class.getMethod("handleEvent", MyEvent.class));
+		CrashingMyEventHandler handler = new CrashingMyEventHandler();
+		try {
+			invoker.invoke(handler, new MyEvent(123.45));
+			Assert.fail("expected exception, but got none.");
+		} catch (final ArithmeticException e) {
+			log.info("Catched expected exception.", e);
+			Assert.assertEquals(1, handler.counter);
 		}
 	}
 
@@ -83,6 +115,22 @@ public class EventsManagerImplTest {
 		public void handleEvent(final MyEvent e);
 	}
 
+	/*package*/ static interface OtherMyEventHandlerI extends EventHandler {
+		public void handleEvent(final MyEvent e);
+	}
+
+	/*package*/ static class OtherMyEventHandler implements OtherMyEventHandlerI {
+		/*package*/ int counter = 0;
+		@Override
+		public void reset(final int iteration) {
+			this.counter = 0;
+		}
+		@Override
+		public void handleEvent(final MyEvent e) {
+			this.counter++;
+		}
+	}
+
 	/*package*/ static class CountingMyEventHandler implements MyEventHandler {
 		/*package*/ int counter = 0;
 		@Override
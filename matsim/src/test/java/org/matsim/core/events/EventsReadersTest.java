@@ -22,7 +22,13 @@ package org.matsim.core.events;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -31,6 +37,8 @@ import org.junit.Test;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.PersonArrivalEvent;
@@ -47,6 +55,10 @@ import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControlerConfigGroup.EventsFileFormat;
+import org.matsim.core.events.algorithms.EventWriterJson;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.testcases.MatsimTestUtils;
 import org.xml.sax.SAXException;
 
@@ -164,4 +176,58 @@ public class EventsReadersTest {
 		events.finishProcessing();
 		assertEquals("number of read events", 8, handler.eventCounter);
 	}
+
+	@Test public final void testEventTypesAndAttributeNamesXml() {
+		testEventTypesAndAttributeNames(EventsFileFormat.xml);
+	}
+
+	@Test public final void testEventTypesAndAttributeNamesJson() {
+		testEventTypesAndAttributeNames(EventsFileFormat.json);
+	}
+
+	private void testEventTypesAndAttributeNames(EventsFileFormat format) {
+		List<Event> written = new ArrayList<>();
+		written.add(new LinkEnterEvent(1.0, Id.createVehicleId("v1"), Id.createLinkId("1")));
+		written.add(new LinkLeaveEvent(2.0, Id.createVehicleId("v1"), Id.createLinkId("1")));
+		GenericEvent custom = new GenericEvent("custom", 3.0);
+		custom.getAttributes().put("kept", "a");
+		custom.getAttributes().put("dropped", "b");
+		written.add(custom);
+		written.add(new GenericEvent("other", 4.0));
+		written.add(new LinkEnterEvent(5.0, Id.createVehicleId("v2"), Id.createLinkId("2")));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (format == EventsFileFormat.xml) {
+			EventWriterXML writer = new EventWriterXML(out);
+			written.forEach(writer::handleEvent);
+			writer.closeFile();
+		} else {
+			EventWriterJson writer = new EventWriterJson(out);
+			written.forEach(writer::handleEvent);
+			writer.closeFile();
+		}
+
+		List<Event> all = read(out.toByteArray(), format, null, null);
+		assertEquals(5, all.size());
+
+		List<Event> filtered = read(out.toByteArray(), format, Set.of(LinkEnterEvent.EVENT_TYPE, "custom"), Set.of("kept"));
+		assertEquals(3, filtered.size());
+		assertEquals(1.0, filtered.get(0).getTime(), 0.0);
+		assertEquals(Id.createLinkId("1"), ((LinkEnterEvent) filtered.get(0)).getLinkId());
+		assertEquals(Map.of("time", "3.0", "type", "custom", "kept", "a"), filtered.get(1).getAttributes());
+		assertEquals(Id.createVehicleId("v2"), ((LinkEnterEvent) filtered.get(2)).getVehicleId());
+	}
+
+	private static List<Event> read(byte[] data, EventsFileFormat format, Set<String> eventTypes, Set<String> attributeNames) {
+		List<Event> result = new ArrayList<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) result::add);
+		events.initProcessing();
+		MatsimEventsReader reader = new MatsimEventsReader(events);
+		reader.setEventTypes(eventTypes);
+		reader.setAttributeNames(attributeNames);
+		reader.readStream(new ByteArrayInputStream(data), format);
+		events.finishProcessing();
+		return result;
+	}
 }
@@ -0,0 +1,99 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class ParallelEventsManagerImplTest {
+
+	private static List<Event> createEvents() {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			events.add(new LinkEnterEvent(i, Id.createVehicleId(i), Id.createLinkId(i)));
+			events.add(new LinkLeaveEvent(i, Id.createVehicleId(i), Id.createLinkId(i)));
+			if (i % 100 == 0) {
+				events.add(new PersonStuckEvent(i, Id.createPersonId(i), Id.createLinkId(i), "car"));
+			}
+		}
+		return events;
+	}
+
+	@Test
+	public void testHandlersOnlyGetTheirEvents() {
+		ParallelEventsManagerImpl events = new ParallelEventsManagerImpl(3, 1000);
+		EventsCollector collector = new EventsCollector();
+		List<LinkEnterEvent> linkEnters = new ArrayList<>();
+		List<PersonStuckEvent> stucks = new ArrayList<>();
+		events.addHandler(collector);
+		events.addHandler((LinkEnterEventHandler) linkEnters::add);
+		events.addHandler((PersonStuckEventHandler) stucks::add);
+
+		List<Event> expected = createEvents();
+		events.initProcessing();
+		expected.forEach(events::processEvent);
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).containsExactlyElementsOf(expected);
+		Assertions.assertThat(linkEnters).containsExactlyElementsOf(expected.stream()
+				.filter(LinkEnterEvent.class::isInstance).map(LinkEnterEvent.class::cast).toList());
+		Assertions.assertThat(stucks).hasSize(10);
+	}
+
+	@Test
+	public void testHandlerAddedLater() {
+		ParallelEventsManagerImpl events = new ParallelEventsManagerImpl(2);
+		List<LinkEnterEvent> linkEnters = new ArrayList<>();
+		events.addHandler((LinkEnterEventHandler) linkEnters::add);
+
+		events.initProcessing();
+		events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.finishProcessing();
+
+		// the link leave events were not passed to any thread so far
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.finishProcessing();
+
+		// after finishProcessing, the events are handled directly
+		events.processEvent(new LinkLeaveEvent(2.0, Id.createVehicleId(0), Id.createLinkId(0)));
+
+		Assertions.assertThat(linkEnters).hasSize(1);
+		Assertions.assertThat(collector.getEvents()).containsExactly(
+				new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(2.0, Id.createVehicleId(0), Id.createLinkId(0)));
+	}
+
+}
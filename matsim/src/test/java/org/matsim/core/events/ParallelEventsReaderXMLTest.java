@@ -0,0 +1,136 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+public class ParallelEventsReaderXMLTest {
+
+	private static List<Event> read(Consumer<EventsManager> reader) {
+		List<Event> result = new ArrayList<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) result::add);
+		events.initProcessing();
+		reader.accept(events);
+		events.finishProcessing();
+		return result;
+	}
+
+	private static void assertSameEvents(List<Event> expected, List<Event> actual) {
+		assertEquals("number of events", expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+			assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+		}
+	}
+
+	@Test
+	public void testSameEventsAsSerialReader() {
+		URL url = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "output_events.xml.gz");
+
+		List<Event> expected = read(events -> new MatsimEventsReader(events).readURL(url));
+		List<Event> actual = read(events -> new ParallelEventsReaderXML(events, 4, 1000).readURL(url));
+
+		assertTrue("expected a file with many chunks", expected.size() > 10000);
+		assertSameEvents(expected, actual);
+	}
+
+	@Test
+	public void testEscapingAndLayout() {
+		String xml = """
+				<?xml version="1.0" encoding="utf-8"?>
+				<events version="1.0">
+					<event time="1.0" type="personMoney" person="1" amount="-2.5" purpose="a &amp; b &lt;c&gt;" transactionPartner="&quot;x&apos;&#65;&#x42;" />
+					<event time="2.0"
+						type="entered link"
+						vehicle='v1' link="l1"
+					/>
+					<event time="3.0" type="custom" key="value"></event>
+				</events>
+				""";
+
+		List<Event> events = read(manager -> new ParallelEventsReaderXML(manager, 2)
+				.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+
+		assertEquals(3, events.size());
+		PersonMoneyEvent money = (PersonMoneyEvent) events.get(0);
+		assertEquals("a & b <c>", money.getPurpose());
+		assertEquals("\"x'AB", money.getTransactionPartner());
+		assertEquals("v1", ((LinkEnterEvent) events.get(1)).getVehicleId().toString());
+		assertEquals("value", ((GenericEvent) events.get(2)).getAttributes().get("key"));
+	}
+
+	@Test
+	public void testCustomEventMapper() {
+		String xml = """
+				<events version="1.0">
+					<event time="1.0" type="custom" key="value" />
+				</events>
+				""";
+
+		List<Event> events = read(manager -> {
+			ParallelEventsReaderXML reader = new ParallelEventsReaderXML(manager, 2);
+			reader.addCustomEventMapper("custom", event -> new GenericEvent("mapped", event.getTime()));
+			reader.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+		});
+
+		assertEquals(1, events.size());
+		assertEquals("mapped", events.get(0).getEventType());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoEventsFile() {
+		String xml = """
+				<population>
+				</population>
+				""";
+		read(manager -> new ParallelEventsReaderXML(manager, 2).parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test(timeout = 10000, expected = AssertionError.class)
+	public void testErrorWhileReading() {
+		InputStream stream = new InputStream() {
+			@Override
+			public int read() {
+				throw new AssertionError("broken stream");
+			}
+		};
+		read(manager -> new ParallelEventsReaderXML(manager, 2).parse(stream));
+	}
+
+}
@@ -28,6 +28,7 @@ import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
 import org.matsim.testcases.utils.EventsCollector;
 
 public class SimStepParallelEventsManagerImplTest {
@@ -69,4 +70,34 @@ public class SimStepParallelEventsManagerImplTest {
 					new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
 	}
 
+	@Test
+	public void testBufferedEventsAreLimited() {
+		final SimStepParallelEventsManagerImpl events = new SimStepParallelEventsManagerImpl(2, 10);
+		final int[] handled = new int[1];
+		events.addHandler(new LinkLeaveEventHandler() {
+			@Override
+			public void handleEvent(LinkLeaveEvent event) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				handled[0]++;
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		events.initProcessing();
+		for (int i = 0; i < 100; i++) {
+			events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(i), Id.createLinkId(0)));
+		}
+		events.afterSimStep(0.0);
+		events.finishProcessing();
+
+		Assertions.assertThat(handled[0]).isEqualTo(100);
+		Assertions.assertThat(events.getBufferHighWaterMark()).isBetween(1L, 10L);
+		Assertions.assertThat(events.getBufferStallNanos()).isPositive();
+	}
+
 }
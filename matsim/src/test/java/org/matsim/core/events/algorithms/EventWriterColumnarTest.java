@@ -0,0 +1,139 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events.algorithms;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsReaderColumnar;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class EventWriterColumnarTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	private static List<Event> read(Consumer<EventsManager> reader) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		reader.accept(events);
+		events.finishProcessing();
+		return collector.getEvents();
+	}
+
+	private static void assertSameEvents(List<Event> expected, List<Event> actual) {
+		Assert.assertEquals("number of events", expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+			Assert.assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+		}
+	}
+
+	@Test
+	public void testSameEventsAsXml() {
+		URL url = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "output_events.xml.gz");
+		List<Event> expected = read(events -> new MatsimEventsReader(events).readURL(url));
+
+		String filename = utils.getOutputDirectory() + "events.columnar";
+		EventWriterColumnar writer = new EventWriterColumnar(filename);
+		expected.forEach(writer::handleEvent);
+		writer.closeFile();
+
+		assertSameEvents(expected, read(events -> EventsUtils.readEvents(events, filename)));
+	}
+
+	@Test
+	public void testEventTypes() {
+		String filename = utils.getOutputDirectory() + "events.columnar";
+		EventWriterColumnar writer = new EventWriterColumnar(filename);
+		// so that the first blocks do not contain any departures
+		int linkEvents = 2 * EventWriterColumnar.BLOCK_SIZE + 10;
+		for (int i = 0; i < linkEvents; i++) {
+			writer.handleEvent(new LinkEnterEvent(i, Id.createVehicleId(i % 13), Id.createLinkId(i % 17)));
+		}
+		writer.handleEvent(new PersonDepartureEvent(linkEvents, Id.createPersonId(1), Id.createLinkId(2), "car", null));
+		writer.closeFile();
+
+		List<Event> departures = read(events -> {
+			EventsReaderColumnar reader = new EventsReaderColumnar(events);
+			reader.setEventTypes(Set.of(PersonDepartureEvent.EVENT_TYPE));
+			reader.readFile(filename);
+		});
+		Assert.assertEquals(1, departures.size());
+		Assert.assertEquals("car", ((PersonDepartureEvent) departures.get(0)).getLegMode());
+
+		List<Event> linkEnters = read(events -> {
+			EventsReaderColumnar reader = new EventsReaderColumnar(events);
+			reader.setEventTypes(Set.of(LinkEnterEvent.EVENT_TYPE));
+			reader.readFile(filename);
+		});
+		Assert.assertEquals(linkEvents, linkEnters.size());
+		LinkEnterEvent last = (LinkEnterEvent) linkEnters.get(linkEvents - 1);
+		Assert.assertEquals(linkEvents - 1, last.getTime(), 0.0);
+		Assert.assertEquals(Id.createVehicleId((linkEvents - 1) % 13), last.getVehicleId());
+		Assert.assertEquals(Id.createLinkId((linkEvents - 1) % 17), last.getLinkId());
+	}
+
+	@Test
+	public void testGenericEvents() {
+		String filename = utils.getOutputDirectory() + "events.columnar";
+		EventWriterColumnar writer = new EventWriterColumnar(filename);
+		GenericEvent event = new GenericEvent("custom", 1.0);
+		event.getAttributes().put("person", "p<1>");
+		event.getAttributes().put("text", "äöü & \"quotes\"");
+		event.getAttributes().put("empty", "");
+		writer.handleEvent(event);
+		writer.closeFile();
+
+		List<Event> events = read(manager -> {
+			MatsimEventsReader reader = new MatsimEventsReader(manager);
+			reader.addCustomEventMapper("custom", generic -> {
+				GenericEvent mapped = new GenericEvent("mapped", generic.getTime());
+				mapped.getAttributes().putAll(generic.getAttributes());
+				return mapped;
+			});
+			reader.readFile(filename);
+		});
+
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals("mapped", events.get(0).getEventType());
+		Assert.assertEquals("p<1>", events.get(0).getAttributes().get("person"));
+		Assert.assertEquals("äöü & \"quotes\"", events.get(0).getAttributes().get("text"));
+		Assert.assertEquals("", events.get(0).getAttributes().get("empty"));
+	}
+
+}
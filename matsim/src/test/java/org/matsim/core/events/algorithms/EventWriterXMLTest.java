@@ -19,19 +19,53 @@
 
 package org.matsim.core.events.algorithms;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.events.PersonScoreEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.TransitDriverStartsEvent;
+import org.matsim.api.core.v01.events.VehicleAbortsEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
 import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
+import org.matsim.core.api.experimental.events.BoardingDeniedEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.experimental.events.LaneEnterEvent;
+import org.matsim.core.api.experimental.events.LaneLeaveEvent;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
+import org.matsim.core.api.experimental.events.VehicleDepartsAtFacilityEvent;
 import org.matsim.core.events.EventsUtils;
 import org.matsim.core.events.MatsimEventsReader;
 import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.lanes.Lane;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
 import org.matsim.testcases.utils.EventsCollector;
 import org.matsim.vehicles.Vehicle;
 
@@ -96,4 +130,83 @@ public class EventWriterXMLTest {
 		events.finishProcessing();
 		Assert.assertEquals("there must be 1 event.", 1, collector.getEvents().size());
 	}
+
+	/**
+	 * The event types writing their attributes directly must write the same as through their attribute map.
+	 */
+	@Test
+	public void testWriteAsXMLIsSameAsAttributes() {
+		Id<Person> person = Id.create("p&1", Person.class);
+		Id<Link> link = Id.create("l<1>", Link.class);
+		Id<Vehicle> vehicle = Id.create("v\"1", Vehicle.class);
+		Id<ActivityFacility> facility = Id.create("f1", ActivityFacility.class);
+		Id<TransitStopFacility> stop = Id.create("s1", TransitStopFacility.class);
+		List<Event> events = List.of(
+				new LinkEnterEvent(1.5, vehicle, link),
+				new LinkLeaveEvent(1e9, vehicle, link),
+				new ActivityStartEvent(0.1, person, link, facility, "home", new Coord(1.0, -2.5)),
+				new ActivityStartEvent(0.1, person, link, null, "home", null),
+				new ActivityEndEvent(3.0, person, link, facility, "work", new Coord(3.0, 4.0)),
+				new ActivityEndEvent(3.0, person, null, null, null, null),
+				new PersonDepartureEvent(7.0, person, link, "car", "car"),
+				new PersonDepartureEvent(7.0, person, null, null, null),
+				new PersonArrivalEvent(8.0, person, link, "walk"),
+				new PersonArrivalEvent(8.0, person, null, null),
+				new PersonEntersVehicleEvent(9.0, person, vehicle),
+				new PersonLeavesVehicleEvent(10.0, person, vehicle),
+				new VehicleEntersTrafficEvent(11.0, person, link, vehicle, "car", 1.0),
+				new VehicleEntersTrafficEvent(11.0, person, null, vehicle, null, 0.25),
+				new VehicleLeavesTrafficEvent(12.0, person, link, vehicle, "car", 1.0),
+				new VehicleLeavesTrafficEvent(12.0, person, null, null, null, 0.75),
+				new PersonStuckEvent(13.0, person, link, "car"),
+				new PersonStuckEvent(13.0, person, null, null),
+				new PersonMoneyEvent(14.0, person, -1.25, "toll", "city", "ref"),
+				new PersonMoneyEvent(14.0, person, 2.0, null, null, null),
+				new PersonScoreEvent(15.0, person, 0.5, "bonus"),
+				new PersonScoreEvent(15.0, person, 0.5, null),
+				new TransitDriverStartsEvent(16.0, person, vehicle, Id.create("line", TransitLine.class),
+						Id.create("route", TransitRoute.class), Id.create("dep", Departure.class)),
+				new VehicleAbortsEvent(17.0, vehicle, link),
+				new AgentWaitingForPtEvent(18.0, person, stop, Id.create("s2", TransitStopFacility.class)),
+				new BoardingDeniedEvent(19.0, person, vehicle),
+				new LaneEnterEvent(20.0, vehicle, link, Id.create("lane", Lane.class)),
+				new LaneLeaveEvent(21.0, vehicle, link, Id.create("lane", Lane.class)),
+				new TeleportationArrivalEvent(22.0, person, 1234.5, "walk"),
+				new TeleportationArrivalEvent(22.0, person, 0.0, null),
+				new VehicleArrivesAtFacilityEvent(23.0, vehicle, stop, -3.0),
+				new VehicleDepartsAtFacilityEvent(24.0, vehicle, stop, 0.0));
+
+		for (Event event : events) {
+			StringBuilder expected = new StringBuilder();
+			for (Map.Entry<String, String> entry : event.getAttributes().entrySet()) {
+				String value = String.valueOf(entry.getValue()).replace("&", "&amp;").replace("<", "&lt;")
+						.replace(">", "&gt;").replace("\"", "&quot;");
+				expected.append(entry.getKey()).append("=\"").append(value).append("\" ");
+			}
+			StringBuilder actual = new StringBuilder();
+			event.writeAsXML(actual);
+			Assert.assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
+	/**
+	 * Subclasses of the core events which only add attributes to getAttributes() must still be written completely.
+	 */
+	@Test
+	public void testSubclassOverridingGetAttributes() {
+		Event event = new LinkEnterEvent(1.0, Id.create("v1", Vehicle.class), Id.create("l1", Link.class)) {
+			@Override
+			public Map<String, String> getAttributes() {
+				Map<String, String> attributes = super.getAttributes();
+				attributes.put("extra", "x");
+				return attributes;
+			}
+		};
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		EventWriterXML writer = new EventWriterXML(stream);
+		writer.handleEvent(event);
+		writer.closeFile();
+		Assert.assertTrue(new String(stream.toByteArray(), StandardCharsets.UTF_8).contains(
+				"<event time=\"1.0\" type=\"entered link\" link=\"l1\" vehicle=\"v1\" extra=\"x\"  />"));
+	}
 }
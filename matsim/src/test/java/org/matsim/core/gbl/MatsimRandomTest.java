@@ -118,6 +118,24 @@ public class MatsimRandomTest {
 		assertTrue(Math.abs(value1 - value2b) > MatsimTestUtils.EPSILON);
 	}
 
+	/**
+	 * Tests that the local instances of streams only depend on the seed and the stream id.
+	 */
+	@Test public void testLocalInstancesOfStreams() {
+		MatsimRandom.reset(123L);
+		Random stream1a = MatsimRandom.getLocalInstance(1);
+		MatsimRandom.getLocalInstance();
+		Random stream1b = MatsimRandom.getLocalInstance(1);
+		assertEqualRandomNumberGenerators(stream1a, stream1b);
+
+		double value1 = MatsimRandom.getLocalInstance(1).nextDouble();
+		double value2 = MatsimRandom.getLocalInstance(2).nextDouble();
+		assertTrue(Math.abs(value1 - value2) > MatsimTestUtils.EPSILON);
+
+		MatsimRandom.reset(234L);
+		assertTrue(Math.abs(value1 - MatsimRandom.getLocalInstance(1).nextDouble()) > MatsimTestUtils.EPSILON);
+	}
+
 	/** Test that two (Pseudo)Random Number Generators are equil by
 	 * drawing a series of random numbers and comparing those.
 	 *
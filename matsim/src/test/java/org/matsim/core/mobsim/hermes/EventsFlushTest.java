@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventArray;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class EventsFlushTest {
+
+	@Before
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	public void testEventsAreStreamedInBoundedBatches() {
+		BatchCountingEventsManager atEnd = runEquil(0, 0);
+		ScenarioImporter.flush();
+		BatchCountingEventsManager streamed = runEquil(600, 500);
+
+		// without streaming, all mobsim events are handed over at once (plus the stuck events, if any)
+		Assert.assertEquals(1, atEnd.batchSizes.size());
+		Assert.assertTrue(streamed.batchSizes.size() > 10);
+		// the buffer is only checked at the end of a time step, so only the last time step may exceed it
+		for (int eventsBeforeLastStep : streamed.eventsBeforeLastStep) {
+			Assert.assertTrue(eventsBeforeLastStep < 500);
+		}
+		Assert.assertEquals(atEnd.events, streamed.events);
+	}
+
+	private static BatchCountingEventsManager runEquil(int flushInterval, int maxBufferedEvents) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.hermes().setEventsFlushInterval(flushInterval);
+		config.hermes().setMaxBufferedEvents(maxBufferedEvents);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		BatchCountingEventsManager events = new BatchCountingEventsManager();
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new HermesBuilder().build(scenario, events).run();
+		return events;
+	}
+
+	private static class BatchCountingEventsManager implements EventsManager {
+		private final EventsManager delegate = EventsUtils.createEventsManager();
+		private final EventsCollector collector = new EventsCollector();
+		private final List<Integer> batchSizes = new ArrayList<>();
+		private final List<Integer> eventsBeforeLastStep = new ArrayList<>();
+		private final List<String> events = new ArrayList<>();
+
+		BatchCountingEventsManager() {
+			delegate.addHandler(collector);
+		}
+
+		@Override
+		public void processEvent(Event event) {
+			events.add(event.toString());
+			delegate.processEvent(event);
+		}
+
+		@Override
+		public void processEvents(EventArray events) {
+			if (events.size() == 0) {
+				return;
+			}
+			batchSizes.add(events.size());
+			double lastTime = events.get(events.size() - 1).getTime();
+			int beforeLastStep = 0;
+			while (events.get(beforeLastStep).getTime() < lastTime) {
+				beforeLastStep++;
+			}
+			eventsBeforeLastStep.add(beforeLastStep);
+			EventsManager.super.processEvents(events);
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			delegate.finishProcessing();
+		}
+	}
+}
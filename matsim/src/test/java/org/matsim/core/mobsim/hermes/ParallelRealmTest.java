@@ -0,0 +1,104 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class ParallelRealmTest {
+
+	@Before
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	public void testParallelRealmIsReproducible() {
+		List<String> first = toStrings(runEquil(4, "plans2000.xml.gz"));
+		ScenarioImporter.flush();
+		List<String> second = toStrings(runEquil(4, "plans2000.xml.gz"));
+		Assert.assertFalse(first.isEmpty());
+		Assert.assertEquals(first, second);
+	}
+
+	@Test
+	public void testParallelRealmMatchesSerialRealm() {
+		List<String> serial = toStrings(runEquil(1, "plans2000.xml.gz"));
+		ScenarioImporter.flush();
+		List<String> parallel = toStrings(runEquil(4, "plans2000.xml.gz"));
+		Assert.assertFalse(serial.isEmpty());
+		Assert.assertEquals(serial, parallel);
+	}
+
+	@Test
+	public void testPartitionCoversAllLinks() {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		int[] partition = RealmPartitioner.partition(scenario.getNetwork(), Id.getNumberOfIds(org.matsim.api.core.v01.network.Link.class), 3);
+		int[] linksPerRegion = new int[3];
+		scenario.getNetwork().getLinks().keySet().forEach(id -> linksPerRegion[partition[id.index()]]++);
+		int links = scenario.getNetwork().getLinks().size();
+		for (int region : linksPerRegion) {
+			Assert.assertTrue(region >= links / 3 - 1 && region <= links / 3 + 1);
+		}
+	}
+
+	private static List<Event> runEquil(int threads, String plansFile) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile(plansFile);
+		config.hermes().setNumberOfThreads(threads);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new HermesBuilder().build(scenario, events).run();
+
+		return new ArrayList<>(collector.getEvents());
+	}
+
+	private static List<String> toStrings(List<Event> events) {
+		List<String> result = new ArrayList<>();
+		for (Event event : events) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,123 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class ScenarioImporterTest {
+
+	@Before
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	public void testUnchangedPlansAreReused() {
+		Scenario scenario = loadEquil(true);
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsToStrings handler = new EventsToStrings();
+		events.addHandler(handler);
+		int persons = scenario.getPopulation().getPersons().size();
+
+		new HermesBuilder().build(scenario, events).run();
+		ScenarioImporter importer = ScenarioImporter.instance(scenario, events);
+		Assert.assertEquals(persons, importer.lastEncodedPersonPlans);
+		Assert.assertEquals(0, importer.lastReusedPersonPlans);
+		List<String> firstIteration = handler.drain();
+
+		new HermesBuilder().build(scenario, events).run();
+		Assert.assertSame(importer, ScenarioImporter.instance(scenario, events));
+		Assert.assertEquals(0, importer.lastEncodedPersonPlans);
+		Assert.assertEquals(persons, importer.lastReusedPersonPlans);
+		Assert.assertEquals(firstIteration, handler.drain());
+
+		// select a modified copy for every tenth person
+		int changed = 0;
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			if (person.getId().index() % 10 == 0) {
+				Activity home = (Activity) person.createCopyOfSelectedPlanAndMakeSelected().getPlanElements().get(0);
+				home.setEndTime(home.getEndTime().seconds() + 600);
+				changed++;
+			}
+		}
+		new HermesBuilder().build(scenario, events).run();
+		Assert.assertEquals(changed, importer.lastEncodedPersonPlans);
+		Assert.assertEquals(persons - changed, importer.lastReusedPersonPlans);
+		List<String> reused = handler.drain();
+
+		// the result has to be the same as with a full import
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		Scenario reference = loadEquil(false);
+		for (Person person : reference.getPopulation().getPersons().values()) {
+			if (person.getId().index() % 10 == 0) {
+				Activity home = (Activity) person.createCopyOfSelectedPlanAndMakeSelected().getPlanElements().get(0);
+				home.setEndTime(home.getEndTime().seconds() + 600);
+			}
+		}
+		EventsManager referenceEvents = EventsUtils.createEventsManager();
+		EventsToStrings referenceHandler = new EventsToStrings();
+		referenceEvents.addHandler(referenceHandler);
+		new HermesBuilder().build(reference, referenceEvents).run();
+		Assert.assertEquals(referenceHandler.drain(), reused);
+	}
+
+	private static Scenario loadEquil(boolean reuseUnchangedPlans) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.hermes().setReuseUnchangedPlans(reuseUnchangedPlans);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		return scenario;
+	}
+
+	private static class EventsToStrings implements BasicEventHandler {
+		private List<String> events = new ArrayList<>();
+
+		@Override
+		public void handleEvent(Event event) {
+			events.add(event.toString());
+		}
+
+		List<String> drain() {
+			List<String> result = events;
+			events = new ArrayList<>();
+			return result;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.mobsim.qsim.interfaces.NextSimStepTimeProvider;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class SkippingIdleTimeStepsTest {
+
+	@Test
+	public void testSkippingDoesNotChangeEvents() {
+		StepCounter regularSteps = new SkippableStepCounter();
+		List<String> regular = runEquil(false, regularSteps);
+		StepCounter skippingSteps = new SkippableStepCounter();
+		List<String> skipping = runEquil(true, skippingSteps);
+
+		Assert.assertFalse(regular.isEmpty());
+		Assert.assertEquals(regular, skipping);
+		Assert.assertTrue("expected skipped time steps, got " + skippingSteps.steps + " of " + regularSteps.steps,
+				skippingSteps.steps < regularSteps.steps / 2);
+	}
+
+	@Test
+	public void testListenerWithoutNextSimStepTimePreventsSkipping() {
+		StepCounter regularSteps = new StepCounter();
+		runEquil(false, regularSteps);
+		StepCounter skippingSteps = new StepCounter();
+		runEquil(true, skippingSteps);
+		Assert.assertEquals(regularSteps.steps, skippingSteps.steps);
+	}
+
+	@Test
+	public void testListenerIsNotifiedWhenRequested() {
+		StepCounter regularSteps = new SkippableStepCounter();
+		runEquil(true, regularSteps);
+		StepCounter hourlySteps = new HourlyStepCounter();
+		runEquil(true, hourlySteps);
+		Assert.assertTrue(hourlySteps.steps > regularSteps.steps);
+		double first = hourlySteps.times.get(0);
+		double last = hourlySteps.times.get(hourlySteps.times.size() - 1);
+		for (double hour = Math.ceil(first / 3600) * 3600; hour <= last; hour += 3600) {
+			Assert.assertTrue("no step at " + hour, hourlySteps.times.contains(hour));
+		}
+	}
+
+	private static List<String> runEquil(boolean skipping, StepCounter stepCounter) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setSkippingIdleTimeSteps(skipping);
+		config.qsim().setEndTime(24 * 3600);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, events);
+		qsim.addQueueSimulationListeners(stepCounter);
+		qsim.run();
+
+		List<String> result = new ArrayList<>();
+		for (Event event : collector.getEvents()) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+
+	private static class StepCounter implements MobsimBeforeSimStepListener {
+		int steps = 0;
+		final List<Double> times = new ArrayList<>();
+
+		@Override
+		public void notifyMobsimBeforeSimStep(MobsimBeforeSimStepEvent e) {
+			this.steps++;
+			this.times.add(e.getSimulationTime());
+		}
+	}
+
+	private static class SkippableStepCounter extends StepCounter implements NextSimStepTimeProvider {
+		@Override
+		public double getNextSimStepTime(double now) {
+			return Double.POSITIVE_INFINITY;
+		}
+	}
+
+	private static class HourlyStepCounter extends StepCounter implements NextSimStepTimeProvider {
+		@Override
+		public double getNextSimStepTime(double now) {
+			return (Math.floor(now / 3600) + 1) * 3600;
+		}
+	}
+}
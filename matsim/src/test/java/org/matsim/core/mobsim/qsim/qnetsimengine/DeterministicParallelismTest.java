@@ -0,0 +1,98 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimLoadBalancing;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class DeterministicParallelismTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testCongestedEquilDoesNotDependOnThreads() throws IOException {
+		URL equil = ExamplesUtils.getTestScenarioURL("equil");
+		assertSameEventsFiles(IOUtils.extendUrl(equil, "config.xml"), "plans2000.xml.gz");
+	}
+
+	@Test
+	public void testPtTutorialDoesNotDependOnThreads() throws IOException {
+		URL ptTutorial = ExamplesUtils.getTestScenarioURL("pt-tutorial");
+		assertSameEventsFiles(IOUtils.extendUrl(ptTutorial, "0.config.xml"), null);
+	}
+
+	private void assertSameEventsFiles(URL configFile, String plansFile) throws IOException {
+		Path single = runScenario(configFile, plansFile, 1, NetsimLoadBalancing.none);
+		Path roundRobin = runScenario(configFile, plansFile, 4, NetsimLoadBalancing.none);
+		Path workStealing = runScenario(configFile, plansFile, 3, NetsimLoadBalancing.workStealing);
+
+		byte[] expected = Files.readAllBytes(single);
+		Assert.assertTrue(expected.length > 10000);
+		Assert.assertArrayEquals(expected, Files.readAllBytes(roundRobin));
+		Assert.assertArrayEquals(expected, Files.readAllBytes(workStealing));
+	}
+
+	private Path runScenario(URL configFile, String plansFile, int threads, NetsimLoadBalancing loadBalancing) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig(configFile);
+		if (plansFile != null) {
+			config.plans().setInputFile(plansFile);
+		}
+		// congested, so that the random choice of the in-links at the nodes matters:
+		config.qsim().setFlowCapFactor(0.1);
+		config.qsim().setStorageCapFactor(0.1);
+		config.qsim().setNumberOfThreads(threads);
+		config.qsim().setNetsimLoadBalancing(loadBalancing);
+		config.qsim().setDeterministicParallelism(true);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		Path eventsFile = Path.of(utils.getOutputDirectory(), "events_" + threads + "_" + loadBalancing + ".xml");
+		EventsManager events = EventsUtils.createEventsManager();
+		EventWriterXML writer = new EventWriterXML(eventsFile.toString());
+		events.addHandler(writer);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+		writer.closeFile();
+		return eventsFile;
+	}
+}
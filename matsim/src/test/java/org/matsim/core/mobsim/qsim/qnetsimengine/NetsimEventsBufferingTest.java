@@ -0,0 +1,175 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.BufferableEventsManager;
+import org.matsim.core.events.EventArray;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.ThreadLocalEventsBuffer;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class NetsimEventsBufferingTest {
+
+	@Test
+	public void testBufferedEventsArePassedOnLater() {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+
+		ThreadLocalEventsBuffer threadLocalBuffer = new ThreadLocalEventsBuffer();
+		Assert.assertTrue(((BufferableEventsManager) events).setThreadLocalEventsBuffer(threadLocalBuffer));
+		EventArray buffer = new EventArray();
+		threadLocalBuffer.set(buffer);
+		try {
+			events.processEvent(new LinkEnterEvent(1., Id.createVehicleId(1), Id.createLinkId(1)));
+		} finally {
+			threadLocalBuffer.remove();
+		}
+		Assert.assertEquals(1, buffer.size());
+		Assert.assertTrue(collector.getEvents().isEmpty());
+
+		events.processEvents(buffer);
+		Assert.assertEquals(1, collector.getEvents().size());
+
+		((BufferableEventsManager) events).setThreadLocalEventsBuffer(null);
+		events.processEvent(new LinkEnterEvent(2., Id.createVehicleId(1), Id.createLinkId(1)));
+		events.finishProcessing();
+		Assert.assertEquals(2, collector.getEvents().size());
+	}
+
+	@Test
+	public void testEventsManagerWithoutBufferingSupport() {
+		List<String> direct = runEquil(4, false);
+		List<String> buffered = runEquil(4, true, new UnbufferableEventsManager(EventsUtils.createEventsManager()));
+		Collections.sort(direct);
+		Collections.sort(buffered);
+		Assert.assertEquals(direct, buffered);
+	}
+
+	@Test
+	public void testSingleThreadDoesNotChangeEvents() {
+		List<String> direct = runEquil(1, false);
+		List<String> buffered = runEquil(1, true);
+		Assert.assertFalse(direct.isEmpty());
+		Assert.assertEquals(direct, buffered);
+	}
+
+	@Test
+	public void testMultipleThreadsGiveDeterministicOrder() {
+		List<String> buffered = runEquil(4, true);
+		Assert.assertEquals(buffered, runEquil(4, true));
+
+		List<String> direct = runEquil(4, false);
+		Collections.sort(direct);
+		Collections.sort(buffered);
+		Assert.assertEquals(direct, buffered);
+	}
+
+	private static List<String> runEquil(int threads, boolean buffering) {
+		return runEquil(threads, buffering, EventsUtils.createEventsManager());
+	}
+
+	private static List<String> runEquil(int threads, boolean buffering, EventsManager events) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.qsim().setNumberOfThreads(threads);
+		config.qsim().setBufferingNetsimEvents(buffering);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+
+		List<String> result = new ArrayList<>();
+		for (Event event : collector.getEvents()) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * An events manager from elsewhere, which does not know about buffering.
+	 */
+	private static class UnbufferableEventsManager implements EventsManager {
+
+		private final EventsManager delegate;
+
+		UnbufferableEventsManager(EventsManager delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized void processEvent(Event event) {
+			this.delegate.processEvent(event);
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			this.delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			this.delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			this.delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			this.delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			this.delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			this.delegate.finishProcessing();
+		}
+	}
+}
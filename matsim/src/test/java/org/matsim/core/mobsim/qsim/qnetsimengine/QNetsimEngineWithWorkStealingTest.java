@@ -0,0 +1,102 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimLoadBalancing;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class QNetsimEngineWithWorkStealingTest {
+
+	@Test
+	public void testSingleThreadMatchesThreadpoolEngine() {
+		List<String> threadpool = runEquil(NetsimLoadBalancing.none, 1, null);
+		List<String> workStealing = runEquil(NetsimLoadBalancing.workStealing, 1, null);
+		Assert.assertFalse(threadpool.isEmpty());
+		Assert.assertEquals(threadpool, workStealing);
+	}
+
+	@Test
+	public void testMultipleThreadsMatchThreadpoolEngine() {
+		List<String> threadpool = runEquil(NetsimLoadBalancing.none, 4, null);
+		List<String> workStealing = runEquil(NetsimLoadBalancing.workStealing, 4, null);
+		// events of one time step may be emitted in a different order by the runners, everything else has to be identical
+		Collections.sort(threadpool);
+		Collections.sort(workStealing);
+		Assert.assertEquals(threadpool, workStealing);
+	}
+
+	@Test
+	public void testRunnerBusyAndIdleTimes() {
+		List<AbstractQNetsimEngine<?>> engine = new ArrayList<>();
+		runEquil(NetsimLoadBalancing.workStealing, 3, engine);
+		long[] busy = engine.get(0).getRunnerBusyNanos();
+		long[] idle = engine.get(0).getRunnerIdleNanos();
+		Assert.assertEquals(3, busy.length);
+		Assert.assertEquals(3, idle.length);
+		for (int i = 0; i < busy.length; i++) {
+			Assert.assertTrue(busy[i] > 0);
+			Assert.assertTrue(idle[i] >= 0);
+		}
+	}
+
+	private static List<String> runEquil(NetsimLoadBalancing loadBalancing, int threads, List<AbstractQNetsimEngine<?>> engine) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.qsim().setNumberOfThreads(threads);
+		config.qsim().setNetsimLoadBalancing(loadBalancing);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, events);
+		qsim.run();
+		if (engine != null) {
+			engine.add((AbstractQNetsimEngine<?>) qsim.getChildInjector().getInstance(QNetsimEngineI.class));
+		}
+
+		List<String> result = new ArrayList<>();
+		for (Event event : collector.getEvents()) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+}
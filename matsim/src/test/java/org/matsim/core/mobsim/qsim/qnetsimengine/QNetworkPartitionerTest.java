@@ -0,0 +1,145 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimElementAssignment;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class QNetworkPartitionerTest {
+
+	@Test
+	public void testRegionsAreContiguousAndBalanced() {
+		Network network = createGrid(10, 1.0);
+		int[] regions = QNetworkPartitioner.partition(network.getNodes().values(), link -> link.getCapacity(), 4);
+
+		int[] nodesPerRegion = new int[4];
+		for (Node node : network.getNodes().values()) {
+			nodesPerRegion[regions[node.getId().index()]]++;
+		}
+		for (int nodes : nodesPerRegion) {
+			Assert.assertEquals(25, nodes);
+		}
+
+		// a 10x10 grid cut into quadrants: only the links crossing the two cut lines connect different regions
+		long cutLinks = network.getLinks().values().stream()
+				.filter(l -> regions[l.getFromNode().getId().index()] != regions[l.getToNode().getId().index()])
+				.count();
+		Assert.assertEquals(2 * 2 * 10, cutLinks);
+	}
+
+	@Test
+	public void testRegionsAreBalancedByWeight() {
+		Network network = createGrid(10, 1.0);
+		// the left half of the network is three times as heavy as the right half
+		int[] regions = QNetworkPartitioner.partition(network.getNodes().values(),
+				link -> link.getFromNode().getCoord().getX() < 5 ? 3 : 1, 2);
+
+		int[] nodesPerRegion = new int[2];
+		for (Node node : network.getNodes().values()) {
+			nodesPerRegion[regions[node.getId().index()]]++;
+		}
+		Assert.assertTrue(nodesPerRegion[0] < nodesPerRegion[1]);
+	}
+
+	@Test
+	public void testPartitionedAssignmentMatchesRoundRobin() {
+		List<String> roundRobin = runEquil(NetsimElementAssignment.roundRobin);
+		List<String> partitioned = runEquil(NetsimElementAssignment.partitionByCapacity);
+		// events of one time step may be emitted in a different order by the runners, everything else has to be identical
+		Collections.sort(roundRobin);
+		Collections.sort(partitioned);
+		Assert.assertFalse(roundRobin.isEmpty());
+		Assert.assertEquals(roundRobin, partitioned);
+	}
+
+	private static Network createGrid(int size, double capacity) {
+		Network network = NetworkUtils.createNetwork();
+		NetworkFactory factory = network.getFactory();
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				network.addNode(factory.createNode(Id.createNodeId(x + "_" + y), new Coord(x, y)));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				Node node = network.getNodes().get(Id.createNodeId(x + "_" + y));
+				if (x + 1 < size) {
+					addLinks(network, node, network.getNodes().get(Id.createNodeId((x + 1) + "_" + y)), capacity);
+				}
+				if (y + 1 < size) {
+					addLinks(network, node, network.getNodes().get(Id.createNodeId(x + "_" + (y + 1))), capacity);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLinks(Network network, Node a, Node b, double capacity) {
+		for (Node[] fromTo : new Node[][] { { a, b }, { b, a } }) {
+			var link = network.getFactory().createLink(Id.createLinkId(fromTo[0].getId() + "-" + fromTo[1].getId()), fromTo[0], fromTo[1]);
+			link.setCapacity(capacity);
+			network.addLink(link);
+		}
+	}
+
+	private static List<String> runEquil(NetsimElementAssignment assignment) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.qsim().setNumberOfThreads(3);
+		config.qsim().setNetsimElementAssignment(assignment);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+
+		List<String> result = new ArrayList<>();
+		for (Event event : collector.getEvents()) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+}
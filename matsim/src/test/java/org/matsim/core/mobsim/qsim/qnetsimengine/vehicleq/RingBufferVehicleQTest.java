@@ -0,0 +1,135 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2023 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.FifoVehicleQueue;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleImpl;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+import org.matsim.vehicles.VehicleUtils;
+
+public class RingBufferVehicleQTest {
+
+	@Test
+	public void testBehavesLikeFifoVehicleQ() {
+		VehicleType type = VehicleUtils.createVehicleType(Id.create("car", VehicleType.class));
+		List<QVehicle> vehicles = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			QVehicle veh = new QVehicleImpl(VehicleUtils.createVehicle(Id.create(i, Vehicle.class), type));
+			veh.setEarliestLinkExitTime(i);
+			vehicles.add(veh);
+		}
+
+		FIFOVehicleQ expected = new FIFOVehicleQ();
+		RingBufferVehicleQ actual = new RingBufferVehicleQ();
+		Random random = new Random(4711);
+		for (int step = 0; step < 10000; step++) {
+			QVehicle veh = vehicles.get(random.nextInt(vehicles.size()));
+			int operation = random.nextInt(10);
+			if (operation < 5) {
+				expected.add(veh);
+				actual.add(veh);
+			} else if (operation < 6) {
+				expected.addFirst(veh);
+				actual.addFirst(veh);
+			} else if (operation < 9) {
+				Assert.assertSame(expected.poll(), actual.poll());
+			} else {
+				Assert.assertEquals(expected.remove(veh), actual.remove(veh));
+			}
+			Assert.assertEquals(expected.size(), actual.size());
+			Assert.assertSame(expected.peek(), actual.peek());
+			double exitTime = expected.isEmpty() ? Double.POSITIVE_INFINITY : expected.peek().getEarliestLinkExitTime();
+			Assert.assertEquals(exitTime, actual.peekEarliestLinkExitTime(), 0.);
+			Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+		}
+
+		Iterator<QVehicle> it = actual.iterator();
+		while (it.hasNext()) {
+			if (it.next().getId().toString().startsWith("1")) {
+				it.remove();
+			}
+		}
+		expected.removeIf(veh -> veh.getId().toString().startsWith("1"));
+		Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+
+		actual.clear();
+		Assert.assertTrue(actual.isEmpty());
+		Assert.assertNull(actual.poll());
+		Assert.assertEquals(Double.POSITIVE_INFINITY, actual.peekEarliestLinkExitTime(), 0.);
+	}
+
+	@Test
+	public void testEquilEventsDoNotDependOnVehicleQueue() {
+		List<String> linkedList = runScenario("test/scenarios/equil/config.xml", FifoVehicleQueue.linkedList);
+		List<String> ringBuffer = runScenario("test/scenarios/equil/config.xml", FifoVehicleQueue.ringBuffer);
+		Assert.assertFalse(linkedList.isEmpty());
+		Assert.assertEquals(linkedList, ringBuffer);
+	}
+
+	@Test
+	public void testTransitEventsDoNotDependOnVehicleQueue() {
+		// transit vehicles are put in front of the queue after serving a stop and may block their lane
+		List<String> linkedList = runScenario("test/scenarios/pt-simple/config.xml", FifoVehicleQueue.linkedList);
+		List<String> ringBuffer = runScenario("test/scenarios/pt-simple/config.xml", FifoVehicleQueue.ringBuffer);
+		Assert.assertFalse(linkedList.isEmpty());
+		Assert.assertEquals(linkedList, ringBuffer);
+	}
+
+	private static List<String> runScenario(String configFile, FifoVehicleQueue fifoVehicleQueue) {
+		Id.resetCaches();
+		Config config = ConfigUtils.loadConfig(configFile);
+		config.qsim().setFifoVehicleQueue(fifoVehicleQueue);
+		MatsimRandom.reset(config.global().getRandomSeed());
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+
+		List<String> result = new ArrayList<>();
+		for (Event event : collector.getEvents()) {
+			result.add(event.toString());
+		}
+		return result;
+	}
+}
@@ -19,6 +19,7 @@
 
 package org.matsim.core.router;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Assert;
@@ -47,6 +48,7 @@ import org.matsim.core.scenario.ScenarioUtils;
 import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
 import org.matsim.facilities.FacilitiesUtils;
 import org.matsim.facilities.Facility;
+import org.matsim.vehicles.Vehicle;
 
 public class NetworkRoutingModuleTest {
 
@@ -144,6 +146,74 @@ public class NetworkRoutingModuleTest {
 		}
 	}
 
+	@Test
+	public void testRouteCache() {
+		Fixture f = new Fixture();
+		// twice as slow from 7:00:30 on
+		TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed() * (time < 7.0*3600 + 30 ? 1 : 2);
+		TravelDisutility travelDisutility = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return travelTime.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+		LeastCostPathCalculator dijkstra = new Dijkstra(f.s.getNetwork(), travelDisutility, travelTime);
+		int[] calls = {0};
+		LeastCostPathCalculator routeAlgo = (fromNode, toNode, starttime, person, vehicle) -> {
+			calls[0]++;
+			return dijkstra.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+		};
+		TravelTimeCalculator travelTimeCalculator = TravelTimeCalculator.create(f.s.getNetwork(), f.s.getConfig().travelTimeCalculator());
+		NetworkRouteCache cache = new NetworkRouteCache(10, 900, Collections.singleton(travelTimeCalculator));
+
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		Activity fromAct = PopulationUtils.createActivityFromCoord("h", new Coord(0, 0));
+		fromAct.setLinkId(Id.create("1", Link.class));
+		Activity toAct = PopulationUtils.createActivityFromCoord("h", new Coord(0, 3000));
+		toAct.setLinkId(Id.create("3", Link.class));
+		Facility fromFacility = FacilitiesUtils.toFacility( fromAct, f.s.getActivityFacilities() );
+		Facility toFacility = FacilitiesUtils.toFacility( toAct, f.s.getActivityFacilities() );
+
+		final NetworkRoutingModule routingModule = new NetworkRoutingModule(
+					TransportMode.car,
+					f.s.getPopulation().getFactory(),
+					f.s.getNetwork(),
+					routeAlgo,
+					cache,
+					travelTime,
+					travelDisutility);
+
+		Leg leg1 = (Leg) routingModule.calcRoute(DefaultRoutingRequest.withoutAttributes(fromFacility, toFacility, 7.0*3600, person)).get(0);
+		Assert.assertEquals(1, calls[0]);
+		Assert.assertEquals(1, cache.size());
+
+		// same time bin: from the cache, but with the travel time and cost of this departure
+		Leg leg2 = (Leg) routingModule.calcRoute(DefaultRoutingRequest.withoutAttributes(fromFacility, toFacility, 7.0*3600 + 60, person)).get(0);
+		Assert.assertEquals(1, calls[0]);
+		Assert.assertEquals(((NetworkRoute) leg1.getRoute()).getLinkIds(), ((NetworkRoute) leg2.getRoute()).getLinkIds());
+		Assert.assertEquals(100.0, leg1.getTravelTime().seconds(), 1e-8);
+		Assert.assertEquals(200.0, leg2.getTravelTime().seconds(), 1e-8);
+		Assert.assertEquals(200.0, ((NetworkRoute) leg2.getRoute()).getTravelCost(), 1e-8);
+		Assert.assertEquals(leg1.getRoute().getDistance(), leg2.getRoute().getDistance(), 1e-8);
+		Assert.assertEquals(7.0*3600 + 60, leg2.getDepartureTime().seconds(), 1e-8);
+
+		// other time bin: routed
+		routingModule.calcRoute(DefaultRoutingRequest.withoutAttributes(fromFacility, toFacility, 8.0*3600, person));
+		Assert.assertEquals(2, calls[0]);
+		Assert.assertEquals(2, cache.size());
+
+		// new travel times: the cache is cleared
+		travelTimeCalculator.reset(1);
+		routingModule.calcRoute(DefaultRoutingRequest.withoutAttributes(fromFacility, toFacility, 7.0*3600, person));
+		Assert.assertEquals(3, calls[0]);
+		Assert.assertEquals(1, cache.size());
+	}
+
 	private static class Fixture {
 		public final Scenario s = ScenarioUtils.createScenario(ConfigUtils.createConfig());
 
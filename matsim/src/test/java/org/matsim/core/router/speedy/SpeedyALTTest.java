@@ -20,11 +20,21 @@
 
 package org.matsim.core.router.speedy;
 
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.io.MatsimNetworkReader;
 import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
 import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
 import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.scenario.ScenarioUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @author mrieser
@@ -39,4 +49,30 @@ public class SpeedyALTTest extends AbstractLeastCostPathCalculatorTest {
 		return new SpeedyALT(altData, travelTimeCostCalculator, travelTimeCostCalculator);
 	}
 
+	@Test
+	public void testLandmarksDirectory() throws IOException {
+		Scenario scenario = ScenarioUtils.createScenario(utils.loadConfig((String)null));
+		new MatsimNetworkReader(scenario.getNetwork()).readFile("test/scenarios/equil/network.xml");
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph g = new SpeedyGraph(scenario.getNetwork());
+		Path directory = Paths.get(utils.getOutputDirectory(), "landmarks");
+
+		SpeedyALTData calculated = SpeedyALTDataIO.loadOrCalculate(directory, g, 4, travelTimeCostCalculator, 2);
+		File[] files = directory.toFile().listFiles();
+		Assert.assertNotNull(files);
+		Assert.assertEquals(1, files.length);
+
+		byte[] hash = SpeedyALTDataIO.calcHash(g, 4, travelTimeCostCalculator);
+		SpeedyALTData loaded = SpeedyALTDataIO.read(files[0].toPath(), hash, g, travelTimeCostCalculator);
+		Assert.assertNotNull(loaded);
+		Assert.assertArrayEquals(calculated.landmarksNodeIndices, loaded.landmarksNodeIndices);
+		Assert.assertArrayEquals(calculated.nodesData, loaded.nodesData, 0.0);
+
+		Assert.assertNull(SpeedyALTDataIO.read(files[0].toPath(), SpeedyALTDataIO.calcHash(g, 3, travelTimeCostCalculator), g, travelTimeCostCalculator));
+
+		// other landmarks count, other file
+		SpeedyALTDataIO.loadOrCalculate(directory, g, 3, travelTimeCostCalculator, 2);
+		Assert.assertEquals(2, directory.toFile().listFiles().length);
+	}
+
 }
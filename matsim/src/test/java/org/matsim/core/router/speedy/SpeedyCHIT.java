@@ -0,0 +1,74 @@
+package org.matsim.core.router.speedy;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.ControlerConfigGroup.RoutingAlgorithmType;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+/**
+ * Tests {@link SpeedyCH} as it is used by the Controler, i.e. created by the injected {@link SpeedyCHFactory}.
+ */
+public class SpeedyCHIT {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	private Config createConfig() {
+		Config config = utils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.controler().setOutputDirectory(utils.getOutputDirectory());
+		config.controler().setLastIteration(1);
+		config.controler().setRoutingAlgorithmType(RoutingAlgorithmType.SpeedyCH);
+		return config;
+	}
+
+	@Test
+	public void testRoutesWithoutRoutingRandomness() {
+		Config config = createConfig();
+		config.plansCalcRoute().setRoutingRandomness(0.0);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		// remove all routes, so every leg is routed with SpeedyCH before the first mobsim
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (PlanElement pe : person.getSelectedPlan().getPlanElements()) {
+				if (pe instanceof Leg) {
+					((Leg) pe).setRoute(null);
+				}
+			}
+		}
+
+		Controler controler = new Controler(scenario);
+		controler.run();
+
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (PlanElement pe : person.getSelectedPlan().getPlanElements()) {
+				if (pe instanceof Leg) {
+					Assert.assertTrue("leg of person " + person.getId() + " has no network route.", ((Leg) pe).getRoute() instanceof NetworkRoute);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFailsWithRoutingRandomness() {
+		Config config = createConfig();
+		Assert.assertNotEquals(0.0, config.plansCalcRoute().getRoutingRandomness(), 0.0);
+		Controler controler = new Controler(config);
+		try {
+			controler.run();
+			Assert.fail("expected exception, SpeedyCH does not work with routingRandomness.");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("routingRandomness"));
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+package org.matsim.core.router.speedy;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+
+import java.util.Random;
+
+public class SpeedyCHTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph g = new SpeedyGraph(network);
+		SpeedyCHData chData = new SpeedyCHData(g);
+		return new SpeedyCH(chData, travelTimeCostCalculator, travelTimeCostCalculator, 3600.0);
+	}
+
+	@Test
+	public void testSameCostsAsDijkstra() {
+		Network network = NetworkUtils.createNetwork();
+		NetworkFactory nf = network.getFactory();
+		Random random = new Random(2023);
+
+		int size = 12;
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = nf.createNode(Id.createNodeId("ch_" + x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size && random.nextDouble() < 0.8) {
+					// some one-way streets
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					if (random.nextBoolean()) {
+						addLink(network, nodes[x][y + 1], nodes[x][y], random);
+					}
+				}
+			}
+		}
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph graph = new SpeedyGraph(network);
+		SpeedyDijkstra dijkstra = new SpeedyDijkstra(graph, tc, tc);
+		SpeedyCH ch = new SpeedyCH(new SpeedyCHData(graph), tc, tc, 3600.0);
+
+		for (int i = 0; i < 200; i++) {
+			Node from = nodes[random.nextInt(size)][random.nextInt(size)];
+			Node to = nodes[random.nextInt(size)][random.nextInt(size)];
+			Path expected = dijkstra.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			Path actual = ch.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			if (expected == null) {
+				Assert.assertNull(actual);
+				continue;
+			}
+			Assert.assertNotNull(actual);
+			Assert.assertEquals(expected.travelCost, actual.travelCost, 1e-6);
+			Assert.assertEquals(from, actual.getFromNode());
+			Assert.assertEquals(to, actual.getToNode());
+			for (int l = 0; l < actual.links.size(); l++) {
+				Assert.assertEquals(actual.nodes.get(l), actual.links.get(l).getFromNode());
+			}
+		}
+	}
+
+	@Test
+	public void testSharedCustomization() {
+		Network network = NetworkUtils.createNetwork();
+		Random random = new Random(2023);
+		Node[][] nodes = createGrid(network, 5, random);
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyCHData chData = new SpeedyCHData(new SpeedyGraph(network));
+		SpeedyCHData.Metric metric = chData.getMetric(tc, 8, 8.5 * 3600);
+		Assert.assertSame("same travel disutilities should reuse the customization", metric, chData.getMetric(tc, 8, 8.5 * 3600));
+		Assert.assertNotSame("other time slices have their own customization", metric, chData.getMetric(tc, 9, 9.5 * 3600));
+
+		Link slowLink = network.getLinks().values().iterator().next();
+		slowLink.setFreespeed(slowLink.getFreespeed() / 2);
+		SpeedyCHData.Metric changedMetric = chData.getMetric(tc, 8, 8.5 * 3600);
+		Assert.assertNotSame("changed travel disutilities should be customized again", metric, changedMetric);
+		Assert.assertSame(changedMetric, chData.getMetric(tc, 8, 8.5 * 3600));
+
+		SpeedyCH ch1 = new SpeedyCH(chData, tc, tc, 3600.0);
+		SpeedyCH ch2 = new SpeedyCH(chData, tc, tc, 3600.0);
+		SpeedyDijkstra dijkstra = new SpeedyDijkstra(new SpeedyGraph(network), tc, tc);
+		Path expected = dijkstra.calcLeastCostPath(nodes[0][0], nodes[4][4], 8 * 3600, null, null);
+		Assert.assertEquals(expected.travelCost, ch1.calcLeastCostPath(nodes[0][0], nodes[4][4], 8 * 3600, null, null).travelCost, 1e-6);
+		Assert.assertEquals(expected.travelCost, ch2.calcLeastCostPath(nodes[0][0], nodes[4][4], 8 * 3600, null, null).travelCost, 1e-6);
+	}
+
+	@Test
+	public void testBoundedCustomizations() {
+		Network network = NetworkUtils.createNetwork();
+		Random random = new Random(2023);
+		createGrid(network, 5, random);
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyCHData chData = new SpeedyCHData(new SpeedyGraph(network), 3);
+		SpeedyCHData.Metric metric = chData.getMetric(tc, 0, 0.5 * 3600);
+		for (int slice = 1; slice < 24; slice++) {
+			chData.getMetric(tc, slice, (slice + 0.5) * 3600);
+		}
+		Assert.assertEquals("the customizations should be bounded over all slices", 3, chData.getMetricCount());
+		Assert.assertNotSame("the least recently used customization should be evicted", metric, chData.getMetric(tc, 0, 0.5 * 3600));
+
+		Link slowLink = network.getLinks().values().iterator().next();
+		for (int i = 0; i < 3; i++) {
+			slowLink.setFreespeed(slowLink.getFreespeed() / 2);
+			chData.getMetric(tc, 0, 0.5 * 3600);
+		}
+		Assert.assertEquals(3, chData.getMetricCount());
+	}
+
+	@Test
+	public void testHugeStartTime() {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = createGrid(network, 5, new Random(2023));
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyCH ch = new SpeedyCH(new SpeedyCHData(new SpeedyGraph(network)), tc, tc, 3600.0);
+		Path expected = ch.calcLeastCostPath(nodes[0][0], nodes[4][4], 8 * 3600, null, null);
+		Assert.assertEquals(expected.travelCost, ch.calcLeastCostPath(nodes[0][0], nodes[4][4], 1e300, null, null).travelCost, 1e-6);
+		Assert.assertEquals(expected.travelCost, ch.calcLeastCostPath(nodes[0][0], nodes[4][4], Double.NaN, null, null).travelCost, 1e-6);
+	}
+
+	private static Node[][] createGrid(Network network, int size, Random random) {
+		NetworkFactory nf = network.getFactory();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = nf.createNode(Id.createNodeId("ch_" + x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Link link = network.getFactory().createLink(Id.createLinkId("ch_" + from.getId() + "_" + to.getId()), from, to);
+		link.setLength(100 + random.nextInt(100));
+		link.setFreespeed(5 + random.nextInt(20));
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+}
@@ -146,6 +146,56 @@ public class SpeedyGraphTest {
         Assert.assertFalse(li.next());
     }
 
+    @Test
+    public void testCompactConstruction() {
+        Id.resetCaches();
+        for (int i = 0; i < 100; i++) {
+            // ids that are not part of the network
+            Id.createNodeId("unused" + i);
+            Id.createLinkId("unused" + i);
+        }
+
+        Fixture f = new Fixture();
+        SpeedyGraph graph = new SpeedyGraph(f.network, true);
+
+        Assert.assertEquals(6, graph.nodeCount);
+        Assert.assertEquals(10, graph.linkCount);
+
+        // breadth-first order, starting at the first node of the network
+        Assert.assertEquals(0, graph.getNodeIndex(f.node1));
+        for (Node node : f.network.getNodes().values()) {
+            Assert.assertSame(node, graph.getNode(graph.getNodeIndex(node)));
+        }
+        for (Link link : f.network.getLinks().values()) {
+            Assert.assertSame(link, graph.getLink(graph.getLinkIndex(link)));
+        }
+        Assert.assertEquals(-1, graph.getNodeIndex(f.network.getFactory().createNode(Id.createNodeId("other"), new Coord(0, 0))));
+
+        LinkIterator li = graph.getOutLinkIterator();
+        li.reset(graph.getNodeIndex(f.node1));
+        Assert.assertTrue(li.next());
+        assertCompactLink(graph, li, f.link12);
+        Assert.assertTrue(li.next());
+        assertCompactLink(graph, li, f.link13);
+        Assert.assertTrue(li.next());
+        assertCompactLink(graph, li, f.link14);
+        Assert.assertFalse(li.next());
+
+        li = graph.getInLinkIterator();
+        li.reset(graph.getNodeIndex(f.node6));
+        Assert.assertTrue(li.next());
+        assertCompactLink(graph, li, f.link46);
+        Assert.assertTrue(li.next());
+        assertCompactLink(graph, li, f.link56);
+        Assert.assertFalse(li.next());
+    }
+
+    private void assertCompactLink(SpeedyGraph graph, LinkIterator li, Link link) {
+        Assert.assertEquals(graph.getLinkIndex(link), li.getLinkIndex());
+        Assert.assertEquals(graph.getNodeIndex(link.getFromNode()), li.getFromNodeIndex());
+        Assert.assertEquals(graph.getNodeIndex(link.getToNode()), li.getToNodeIndex());
+    }
+
     private void assertLink(LinkIterator li, Link link) {
         Assert.assertEquals(link.getId().index(), li.getLinkIndex());
         Assert.assertEquals(link.getFromNode().getId().index(), li.getFromNodeIndex());